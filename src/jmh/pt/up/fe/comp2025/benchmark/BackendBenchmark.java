@@ -0,0 +1,81 @@
+package pt.up.fe.comp2025.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2025.backend.JasminBackendImpl;
+import pt.up.fe.comp2025.optimization.JmmOptimizationImpl;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.utils.ReportUtils;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OLLIR generation, register allocation and Jasmin generation. Inputs must be free of semantic errors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackendBenchmark {
+
+    @Param({
+            "test/pt/up/fe/comp/cp3/jasmin/control_flow/IfWhileNested.jmm",
+            "test/pt/up/fe/comp/cp3/jasmin/arrays/ComplexArrayAccess.jmm",
+            "test/pt/up/fe/comp/cp3/jasmin/calls/OllirToJasminInvoke.jmm",
+            "synthetic:1000",
+            "synthetic:10000"
+    })
+    public String input;
+
+    private JmmOptimizationImpl optimization;
+    private JasminBackendImpl backend;
+    private JmmSemanticsResult semanticsResult;
+    private OllirResult ollirResult;
+    private OllirResult allocationInput;
+
+    @Setup
+    public void setup() {
+        var config = new HashMap<>(CompilerConfig.getDefault());
+        // Register allocation with as many registers as needed
+        config.put("registerAllocation", "0");
+
+        var parserResult = new JmmParserImpl().parse(BenchmarkInputs.load(input), config);
+        semanticsResult = new JmmAnalysisImpl().semanticAnalysis(parserResult);
+        if (ReportUtils.anyError(semanticsResult.getReports())) {
+            throw new RuntimeException("Backend benchmark input '" + input + "' has errors: "
+                    + semanticsResult.getReports());
+        }
+
+        optimization = new JmmOptimizationImpl();
+        backend = new JasminBackendImpl();
+        ollirResult = optimization.optimize(optimization.toOllir(semanticsResult));
+    }
+
+    // Register allocation changes the OLLIR class, each call gets a fresh one
+    @Setup(Level.Invocation)
+    public void setupAllocation() {
+        allocationInput = new OllirResult(semanticsResult, ollirResult.getOllirCode(), ollirResult.getReports());
+    }
+
+    @Benchmark
+    public OllirResult toOllir() {
+        return optimization.toOllir(semanticsResult);
+    }
+
+    @Benchmark
+    public OllirResult optimize() {
+        return optimization.optimize(allocationInput);
+    }
+
+    @Benchmark
+    public JasminResult toJasmin() {
+        return backend.toJasmin(ollirResult);
+    }
+}
@@ -0,0 +1,30 @@
+package pt.up.fe.comp2025.benchmark;
+
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+
+/**
+ * Resolves the 'input' parameter of the benchmarks to Java-- code.
+ * <p>
+ * An input is either a path relative to the project folder (e.g., inputs/Lazysort.jmm) or
+ * {@code synthetic:<lines>}, a program generated by {@link SyntheticProgram} with approximately that many lines.
+ */
+public class BenchmarkInputs {
+
+    private static final String SYNTHETIC_PREFIX = "synthetic:";
+
+    public static String load(String input) {
+        if (input.startsWith(SYNTHETIC_PREFIX)) {
+            return SyntheticProgram.generate(Integer.parseInt(input.substring(SYNTHETIC_PREFIX.length())));
+        }
+
+        var file = new File(input);
+        if (!file.isFile()) {
+            throw new RuntimeException("Could not find benchmark input '" + file.getAbsolutePath()
+                    + "', benchmarks must run from the project folder");
+        }
+
+        return SpecsIo.read(file);
+    }
+}
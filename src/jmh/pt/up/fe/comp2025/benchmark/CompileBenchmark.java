@@ -0,0 +1,62 @@
+package pt.up.fe.comp2025.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.fe.comp2025.BatchCompiler;
+import pt.up.fe.comp2025.CompilationResult;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole compilations, from source code to Jasmin, for inputs from 1k to 1M lines.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CompileBenchmark {
+
+    @Param({
+            "test/pt/up/fe/comp/cp3/jasmin/control_flow/IfWhileNested.jmm",
+            "synthetic:1000",
+            "synthetic:10000",
+            "synthetic:100000",
+            "synthetic:1000000"
+    })
+    public String input;
+
+    private File inputFile;
+    private Map<String, String> config;
+    private BatchCompiler compiler;
+
+    @Setup
+    public void setup() throws IOException {
+        // BatchCompiler reads from files, synthetic programs are written to a temporary one
+        inputFile = Files.createTempFile("jmm-benchmark", ".jmm").toFile();
+        SpecsIo.write(inputFile, BenchmarkInputs.load(input));
+        config = CompilerConfig.getDefault();
+        compiler = new BatchCompiler();
+
+        var result = compiler.compile(inputFile, config);
+        if (result.hasErrors()) {
+            throw new RuntimeException("Benchmark input '" + input + "' has errors: " + result.reports());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        inputFile.delete();
+    }
+
+    @Benchmark
+    public CompilationResult compile() {
+        return compiler.compile(inputFile, config);
+    }
+}
@@ -0,0 +1,58 @@
+package pt.up.fe.comp2025.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and semantic analysis. Also measures inputs with semantic errors, since analysis always runs to the end.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrontendBenchmark {
+
+    @Param({
+            "inputs/Lazysort.jmm",
+            "inputs/input.jmm",
+            "test/pt/up/fe/comp/cp3/jasmin/control_flow/IfWhileNested.jmm",
+            "test/pt/up/fe/comp/cp3/jasmin/arrays/ComplexArrayAccess.jmm",
+            "synthetic:1000",
+            "synthetic:10000"
+    })
+    public String input;
+
+    private String code;
+    private Map<String, String> config;
+    private JmmParserImpl parser;
+    private JmmAnalysisImpl analysis;
+    private JmmParserResult parserResult;
+
+    @Setup
+    public void setup() {
+        code = BenchmarkInputs.load(input);
+        config = CompilerConfig.getDefault();
+        parser = new JmmParserImpl();
+        analysis = new JmmAnalysisImpl();
+        parserResult = parser.parse(code, config);
+    }
+
+    @Benchmark
+    public JmmParserResult parse() {
+        return parser.parse(code, config);
+    }
+
+    @Benchmark
+    public JmmSemanticsResult semanticAnalysis() {
+        return analysis.semanticAnalysis(parserResult);
+    }
+}
@@ -0,0 +1,70 @@
+package pt.up.fe.comp2025.benchmark;
+
+/**
+ * Generates valid Java-- programs of a given size, to measure how the compiler scales with the size of the input.
+ * <p>
+ * The program is a single class whose methods repeat a block with loops, conditions, array accesses and calls to other methods, so that every stage has work to do.
+ */
+public class SyntheticProgram {
+
+    private static final int BLOCKS_PER_METHOD = 20;
+
+    private static final String BLOCK = """
+                    i = 0;
+                    while (i < a) {
+                        if (flag && i < %d) {
+                            sum = sum + arr[i] * 2;
+                        } else {
+                            sum = sum - i / 2;
+                        }
+                        flag = !flag;
+                        i = i + 1;
+                    }
+                    io.println(this.m%d(sum, arr));
+            """;
+
+    private static final int BLOCK_LINES = (int) BLOCK.lines().count();
+
+    /**
+     * Generates a program with approximately the given number of lines.
+     *
+     * @param lines
+     * @return
+     */
+    public static String generate(int lines) {
+        int methods = Math.max(1, lines / (BLOCKS_PER_METHOD * BLOCK_LINES + 12));
+
+        var code = new StringBuilder(lines * 32);
+        code.append("import io;\n\n");
+        code.append("class Synthetic {\n\n");
+
+        for (int m = 0; m < methods; m++) {
+            code.append("    public int m").append(m).append("(int a, int[] arr) {\n");
+            code.append("        int i;\n");
+            code.append("        int sum;\n");
+            code.append("        boolean flag;\n");
+            code.append("        sum = a;\n");
+            code.append("        flag = true;\n");
+
+            // Calls the previous method, the first one calls the last
+            int callee = m == 0 ? methods - 1 : m - 1;
+            for (int b = 0; b < BLOCKS_PER_METHOD; b++) {
+                code.append(BLOCK.formatted(b + 1, callee));
+            }
+
+            code.append("        return sum;\n");
+            code.append("    }\n\n");
+        }
+
+        code.append("    public static void main(String[] args) {\n");
+        code.append("        Synthetic s;\n");
+        code.append("        int[] arr;\n");
+        code.append("        s = new Synthetic();\n");
+        code.append("        arr = new int[10];\n");
+        code.append("        io.println(s.m0(10, arr));\n");
+        code.append("    }\n");
+        code.append("}\n");
+
+        return code.toString();
+    }
+}
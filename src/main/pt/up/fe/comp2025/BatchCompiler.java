@@ -0,0 +1,276 @@
+package pt.up.fe.comp2025;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2025.backend.ClassfileBackendImpl;
+import pt.up.fe.comp2025.backend.ClassfileResult;
+import pt.up.fe.comp2025.backend.JasminBackendImpl;
+import pt.up.fe.comp2025.optimization.JmmOptimizationImpl;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.parser.ParserCache;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.comp2025.utils.ReportUtils;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles several files in the same JVM, reusing the stage instances (and the warmed lexer, parser and analysis
+ * passes they keep) between files.
+ * <p>
+ * In server mode, input paths are read from a stream, one per line, until the end of the stream or a line with
+ * {@code quit}. The answer to each request has the following format:
+ * <pre>
+ * ; BEGIN &lt;path&gt;
+ * ; REPORT &lt;report&gt;     (one line per report)
+ * &lt;jasmin code&gt;          (only if there were no errors)
+ * ; OUTPUT &lt;file&gt;        (instead of the code, if it was written to a file)
+ * ; END &lt;path&gt; OK|ERROR
+ * </pre>
+ * <p>
+ * One BatchCompiler instance per thread, see {@link ParallelCompiler} to compile files concurrently.
+ */
+public class BatchCompiler {
+
+    private static final String QUIT = "quit";
+
+    private final JmmParserImpl parser;
+    private final JmmAnalysisImpl analysis;
+    private final JmmOptimizationImpl optimization;
+    private final JasminBackendImpl backend;
+    private final ClassfileBackendImpl classfileBackend;
+
+    public BatchCompiler() {
+        this.parser = new JmmParserImpl();
+        this.analysis = new JmmAnalysisImpl();
+        this.optimization = new JmmOptimizationImpl();
+        this.backend = new JasminBackendImpl();
+        this.classfileBackend = new ClassfileBackendImpl();
+    }
+
+    /**
+     * Compiles a single file, from parsing to Jasmin (or class file) generation. Stops at the first stage that reports errors.
+     * <p>
+     * If metrics are enabled, the time and memory spent in each stage are attached to the result.
+     *
+     * @param inputFile
+     * @param config
+     * @return
+     */
+    public CompilationResult compile(File inputFile, Map<String, String> config) {
+        if (CompilerConfig.getMetrics(config).isEmpty()) {
+            return run(inputFile, config);
+        }
+
+        var metrics = CompilerMetrics.start(inputFile.getPath());
+        try {
+            var result = run(inputFile, config);
+            return new CompilationResult(result.inputFile(), result.className(), result.jasminCode(),
+                    result.classfile(), result.reports(), metrics);
+        } finally {
+            CompilerMetrics.stop();
+        }
+    }
+
+    /**
+     * Parses the warm-up files of the configuration, if any, before the first compilation.
+     *
+     * @param config
+     */
+    public static void warmUp(Map<String, String> config) {
+        var warmUpFiles = CompilerConfig.getWarmUpFiles(config);
+        if (!warmUpFiles.isEmpty()) {
+            ParserCache.warmUp(warmUpFiles.stream().map(SpecsIo::read).toList());
+        }
+    }
+
+    /**
+     * Resets the parser cache to the one after the warm-up, or empties it, if it is larger than the limit of the
+     * configuration, if any. Keeps the memory used by the parser bounded in long-running compilers. The cache is shared
+     * by all threads, so this must only be called while no file is being compiled.
+     *
+     * @param config
+     */
+    public static void limitParserCache(Map<String, String> config) {
+        int maxStates = CompilerConfig.getParserCacheLimit(config);
+        if (maxStates > 0) {
+            ParserCache.limit(maxStates);
+        }
+    }
+
+    private CompilationResult run(File inputFile, Map<String, String> config) {
+        var reports = new ArrayList<Report>();
+
+        if (!inputFile.isFile()) {
+            reports.add(Report.newError(Stage.OTHER, -1, -1, "Could not find input file '" + inputFile + "'", null));
+            return new CompilationResult(inputFile, null, null, reports);
+        }
+
+        try {
+            var code = SpecsIo.read(inputFile);
+
+            var parserResult = parser.parse(code, config);
+            if (ReportUtils.anyError(parserResult.getReports())) {
+                return new CompilationResult(inputFile, null, null, parserResult.getReports());
+            }
+
+            var semanticsResult = analysis.semanticAnalysis(parserResult);
+            if (ReportUtils.anyError(semanticsResult.getReports())) {
+                return new CompilationResult(inputFile, null, null, semanticsResult.getReports());
+            }
+
+            semanticsResult = optimization.optimize(semanticsResult);
+            var ollirResult = optimization.optimize(optimization.toOllir(semanticsResult));
+            if (ReportUtils.anyError(ollirResult.getReports())) {
+                return new CompilationResult(inputFile, null, null, ollirResult.getReports());
+            }
+
+            if (CompilerConfig.getClassfile(config)) {
+                ClassfileResult classfileResult = classfileBackend.toClassfile(ollirResult);
+                return new CompilationResult(inputFile, classfileResult.className(), null, classfileResult.bytes(),
+                        classfileResult.reports(), null);
+            }
+
+            // The reports of the backend are only complete once the code has been generated
+            var jasminResult = backend.toJasmin(ollirResult);
+            var jasminCode = jasminResult.getJasminCode();
+            if (ReportUtils.anyError(jasminResult.getReports())) {
+                return new CompilationResult(inputFile, jasminResult.getClassName(), null, jasminResult.getReports());
+            }
+
+            return new CompilationResult(inputFile, jasminResult.getClassName(), jasminCode,
+                    jasminResult.getReports());
+
+        } catch (Exception e) {
+            reports.add(Report.newError(Stage.OTHER, -1, -1,
+                    "Exception while compiling '" + inputFile + "': " + e.getMessage(), e));
+            return new CompilationResult(inputFile, null, null, reports);
+        }
+    }
+
+    /**
+     * Compiles the given files in order, writing each result as soon as it is available.
+     *
+     * @param inputFiles
+     * @param config
+     * @param out
+     * @return the results, in the same order as the input files
+     */
+    public List<CompilationResult> compileAll(List<File> inputFiles, Map<String, String> config, PrintStream out) {
+        var results = new ArrayList<CompilationResult>();
+
+        for (var inputFile : inputFiles) {
+            limitParserCache(config);
+            var result = compile(inputFile, config);
+            write(result, config, out);
+            results.add(result);
+        }
+
+        return results;
+    }
+
+    /**
+     * Compiles the files whose paths are read from the given reader, until the end of the stream or a 'quit' line.
+     *
+     * @param requests
+     * @param config
+     * @param out
+     * @return the number of files compiled with errors
+     */
+    public int serve(BufferedReader requests, Map<String, String> config, PrintStream out) {
+        int failed = 0;
+
+        try {
+            String line;
+            while ((line = requests.readLine()) != null) {
+                var path = line.strip();
+
+                if (path.isEmpty()) {
+                    continue;
+                }
+
+                if (path.equals(QUIT)) {
+                    break;
+                }
+
+                limitParserCache(config);
+                var result = compile(new File(path), config);
+                write(result, config, out);
+
+                if (result.hasErrors()) {
+                    failed++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read compilation requests", e);
+        }
+
+        return failed;
+    }
+
+    /**
+     * Writes the result of a compilation. If an output folder is configured, the Jasmin code is written to a .j file
+     * in that folder instead of the output stream. Class files are always written to a file, in the output folder or
+     * in the current folder.
+     *
+     * @param result
+     * @param config
+     * @param out
+     */
+    public static void write(CompilationResult result, Map<String, String> config, PrintStream out) {
+        var path = result.inputFile().getPath();
+
+        out.println("; BEGIN " + path);
+
+        for (var report : result.reports()) {
+            out.println("; REPORT " + report.toString().replace('\n', ' '));
+        }
+
+        if (!result.hasErrors()) {
+            var outputDir = CompilerConfig.getOutputDir(config);
+
+            if (result.classfile() != null) {
+                var classFile = new ClassfileResult(result.className(), result.classfile(), result.reports())
+                        .write(outputDir.orElse(new File(".")));
+                out.println("; OUTPUT " + classFile.getAbsolutePath());
+            } else if (outputDir.isPresent()) {
+                var jasminFile = new File(outputDir.get(), result.className() + ".j");
+                SpecsIo.write(jasminFile, result.jasminCode());
+                out.println("; OUTPUT " + jasminFile.getAbsolutePath());
+            } else {
+                out.println(result.jasminCode());
+            }
+        }
+
+        out.println("; END " + path + (result.hasErrors() ? " ERROR" : " OK"));
+        out.flush();
+    }
+
+    /**
+     * Writes the aggregated reports of several compilations: the number of compiled and failed files, and the
+     * number of reports of each type.
+     *
+     * @param results
+     * @param out
+     */
+    public static void writeSummary(List<CompilationResult> results, PrintStream out) {
+        var failed = results.stream().filter(CompilationResult::hasErrors).count();
+        var reportsPerType = results.stream()
+                .flatMap(result -> result.reports().stream())
+                .collect(Collectors.groupingBy(Report::getType, TreeMap::new, Collectors.counting()));
+
+        out.println("; SUMMARY files=" + results.size() + " ok=" + (results.size() - failed) + " failed=" + failed
+                + " reports=" + reportsPerType);
+        out.flush();
+    }
+}
@@ -0,0 +1,30 @@
+package pt.up.fe.comp2025;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.comp2025.utils.ReportUtils;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Result of compiling a single input file in batch mode.
+ *
+ * @param inputFile  the compiled file
+ * @param className  name of the generated class, or null if compilation stopped before the backend
+ * @param jasminCode the generated Jasmin code, or null if there were errors or a class file was generated
+ * @param classfile  the generated class file, or null if there were errors or Jasmin code was generated
+ * @param reports    the reports of every stage that was executed
+ * @param metrics    time and memory spent in each stage, or null if metrics were not enabled
+ */
+public record CompilationResult(File inputFile, String className, String jasminCode, byte[] classfile,
+                                List<Report> reports, CompilerMetrics metrics) {
+
+    public CompilationResult(File inputFile, String className, String jasminCode, List<Report> reports) {
+        this(inputFile, className, jasminCode, null, reports, null);
+    }
+
+    public boolean hasErrors() {
+        return (jasminCode == null && classfile == null) || ReportUtils.anyError(reports);
+    }
+}
@@ -1,7 +1,10 @@
 package pt.up.fe.comp2025;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -10,6 +13,16 @@ public class CompilerConfig {
     private static final String INPUT_FILE = "inputFile";
     private static final String OPTIMIZE = "optimize";
     private static final String REGISTER = "registerAllocation";
+    private static final String SERVER = "server";
+    private static final String OUTPUT_DIR = "outputDir";
+    private static final String THREADS = "threads";
+    private static final String METRICS = "metrics";
+    private static final String BACKEND = "backend";
+    private static final String PARSE_MODE = "parseMode";
+    private static final String WARM_UP = "warmUp";
+    private static final String PARSER_CACHE = "parserCache";
+
+    private static final String LINEAR_SCAN = "linear";
 
 
     static Map<String, String> shortToLong = new HashMap<>();
@@ -18,6 +31,14 @@ public class CompilerConfig {
         shortToLong.put("i", CompilerConfig.INPUT_FILE);
         shortToLong.put("o", CompilerConfig.OPTIMIZE);
         shortToLong.put("r", CompilerConfig.REGISTER);
+        shortToLong.put("s", CompilerConfig.SERVER);
+        shortToLong.put("d", CompilerConfig.OUTPUT_DIR);
+        shortToLong.put("j", CompilerConfig.THREADS);
+        shortToLong.put("m", CompilerConfig.METRICS);
+        shortToLong.put("b", CompilerConfig.BACKEND);
+        shortToLong.put("p", CompilerConfig.PARSE_MODE);
+        shortToLong.put("w", CompilerConfig.WARM_UP);
+        shortToLong.put("c", CompilerConfig.PARSER_CACHE);
     }
 
 
@@ -32,12 +53,202 @@ public class CompilerConfig {
         return Optional.of(new File(inputFile));
     }
 
+    /**
+     * The input option accepts several paths separated by {@link File#pathSeparator}. Directories are expanded to
+     * the .jmm files they contain, sorted by name.
+     *
+     * @param config
+     * @return the list of input files, in the order they were given
+     */
+    public static List<File> getInputFiles(Map<String, String> config) {
+        return getFiles(config.get(INPUT_FILE));
+    }
+
+    /**
+     * Files parsed before compiling in batch or server mode ('-w=<paths>'), so that the parser is already warm for the
+     * first input. Accepts several paths and directories, like the input option.
+     *
+     * @param config
+     * @return
+     */
+    public static List<File> getWarmUpFiles(Map<String, String> config) {
+        return getFiles(config.get(WARM_UP));
+    }
+
+    /**
+     * Maximum number of states kept in the prediction cache of the parser between files in batch or server mode
+     * ('-c=<n>'), after which it goes back to the warm-up. 0 keeps every state.
+     *
+     * @param config
+     * @return
+     */
+    public static int getParserCacheLimit(Map<String, String> config) {
+        int states = Integer.parseInt(config.getOrDefault(PARSER_CACHE, "0"));
+
+        if (states < 0) {
+            throw new RuntimeException("Option '-c' expects a non-negative number of states, got '" + states + "'");
+        }
+
+        return states;
+    }
+
+    private static List<File> getFiles(String inputs) {
+        var inputFiles = new ArrayList<File>();
+
+        if (inputs == null) {
+            return inputFiles;
+        }
+
+        for (var path : inputs.split(File.pathSeparator)) {
+            if (path.isBlank()) {
+                continue;
+            }
+
+            var file = new File(path);
+            if (!file.isDirectory()) {
+                inputFiles.add(file);
+                continue;
+            }
+
+            var jmmFiles = file.listFiles((dir, name) -> name.endsWith(".jmm"));
+            if (jmmFiles != null) {
+                Arrays.sort(jmmFiles);
+                inputFiles.addAll(Arrays.asList(jmmFiles));
+            }
+        }
+
+        return inputFiles;
+    }
+
+    /**
+     * Inputs are compiled in batch mode in server mode, with several input paths, or with an input directory, even
+     * one with a single file.
+     *
+     * @param config
+     * @return true if the input is not a single file
+     */
+    public static boolean isBatch(Map<String, String> config) {
+        if (getServer(config)) {
+            return true;
+        }
+
+        var paths = config.getOrDefault(INPUT_FILE, "").split(File.pathSeparator);
+        return paths.length > 1 || Arrays.stream(paths).anyMatch(path -> new File(path).isDirectory());
+    }
+
+    public static boolean getServer(Map<String, String> config) {
+        return Boolean.parseBoolean(config.getOrDefault(SERVER, "false"));
+    }
+
+    public static Optional<File> getOutputDir(Map<String, String> config) {
+        var outputDir = config.get(OUTPUT_DIR);
+
+        if (outputDir == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new File(outputDir));
+    }
+
+    /**
+     * File where a JSON report with the time and memory spent in each stage is written.
+     *
+     * @param config
+     * @return
+     */
+    public static Optional<File> getMetrics(Map<String, String> config) {
+        var metrics = config.get(METRICS);
+
+        if (metrics == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new File(metrics));
+    }
+
+    /**
+     * Number of files compiled concurrently in batch mode. A value of 0 uses one thread per available core.
+     *
+     * @param config
+     * @return
+     */
+    public static int getThreads(Map<String, String> config) {
+        int threads = Integer.parseInt(config.getOrDefault(THREADS, "1"));
+
+        if (threads == 0) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+
+        if (threads < 0) {
+            throw new RuntimeException("Option '-j' expects a non-negative number of threads, got '" + threads + "'");
+        }
+
+        return threads;
+    }
+
+    /**
+     * Whether the backend generates class files directly, instead of Jasmin code ('-b=classfile' or '-b=jasmin').
+     *
+     * @param config
+     * @return
+     */
+    public static boolean getClassfile(Map<String, String> config) {
+        var backend = config.getOrDefault(BACKEND, "jasmin");
+
+        return switch (backend) {
+            case "jasmin" -> false;
+            case "classfile" -> true;
+            default -> throw new RuntimeException("Option '-b' expects 'jasmin' or 'classfile', got '" + backend + "'");
+        };
+    }
+
+    /**
+     * Whether the parser always uses full LL prediction ('-p=ll'), instead of trying the faster SLL prediction first
+     * and only parsing again with LL if it fails ('-p=sll', the default).
+     *
+     * @param config
+     * @return
+     */
+    public static boolean getFullLL(Map<String, String> config) {
+        var parseMode = config.getOrDefault(PARSE_MODE, "sll");
+
+        return switch (parseMode) {
+            case "sll" -> false;
+            case "ll" -> true;
+            default -> throw new RuntimeException("Option '-p' expects 'sll' or 'll', got '" + parseMode + "'");
+        };
+    }
+
     public static boolean getOptimize(Map<String, String> config) {
         return Boolean.parseBoolean(config.getOrDefault(OPTIMIZE, "false"));
     }
 
+    /**
+     * Maximum number of registers for local variables ('-r=<n>'), where 0 uses as many as needed and -1 keeps one
+     * register per variable. '-r=linear' also uses as many as needed.
+     *
+     * @param config
+     * @return
+     */
     public static int getRegisterAllocation(Map<String, String> config) {
-        return Integer.parseInt(config.getOrDefault(REGISTER, "-1"));
+        var registers = config.getOrDefault(REGISTER, "-1");
+
+        if (registers.equals(LINEAR_SCAN)) {
+            return 0;
+        }
+
+        return Integer.parseInt(registers);
+    }
+
+    /**
+     * Whether registers are allocated with a linear scan over live intervals ('-r=linear'), which is faster than
+     * coloring the interference graph but may use more registers.
+     *
+     * @param config
+     * @return
+     */
+    public static boolean getLinearScan(Map<String, String> config) {
+        return LINEAR_SCAN.equals(config.get(REGISTER));
     }
 
 
@@ -89,23 +300,41 @@ public class CompilerConfig {
             config.put(getLongOpt(shortOption), value);
         }
 
+        // in server mode the input files are read from the standard input
+        if (getServer(config)) {
+            getOptimize(config);
+            getRegisterAllocation(config);
+            getThreads(config);
+            getClassfile(config);
+            getParserCacheLimit(config);
+
+            return config;
+        }
+
         if (!config.containsKey(INPUT_FILE)) {
 
             throw new RuntimeException("Expected an input file, use '-i=<PATH_TO_FILE>'");
         }
 
-        // make sure we save the absolute path of the input file
-        var inputFile = new File(config.get(INPUT_FILE));
-        if (!inputFile.isFile()) {
-            throw new RuntimeException("Could not find input file '" + inputFile + "'");
+        // make sure we save the absolute path of the input files
+        var absolutePaths = new ArrayList<String>();
+        for (var path : config.get(INPUT_FILE).split(File.pathSeparator)) {
+            var inputFile = new File(path);
+            if (!inputFile.isFile() && !inputFile.isDirectory()) {
+                throw new RuntimeException("Could not find input file '" + inputFile + "'");
+            }
+
+            absolutePaths.add(inputFile.getAbsolutePath());
         }
 
-        var absolutePath = inputFile.getAbsolutePath();
-        config.put(INPUT_FILE, absolutePath);
+        config.put(INPUT_FILE, String.join(File.pathSeparator, absolutePaths));
 
         // Verify if values are valid
         getOptimize(config);
         getRegisterAllocation(config);
+        getThreads(config);
+        getClassfile(config);
+        getParserCacheLimit(config);
 
         return config;
     }
@@ -6,13 +6,25 @@ import pt.up.fe.comp.jmm.jasmin.JasminResult;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2025.backend.ClassfileBackendImpl;
 import pt.up.fe.comp2025.backend.JasminBackendImpl;
+import pt.up.fe.comp2025.backend.LazyJasminResult;
 import pt.up.fe.comp2025.optimization.JmmOptimizationImpl;
 import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
 import pt.up.fe.specs.util.SpecsIo;
 import pt.up.fe.specs.util.SpecsSystem;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 
 public class Launcher {
 
@@ -21,12 +33,20 @@ public class Launcher {
 
         Map<String, String> config = CompilerConfig.parseArgs(args);
 
-        var inputFile = CompilerConfig.getInputFile(config).orElseThrow();
+        // Several files, directories (or a stream of requests) are compiled in the same JVM
+        if (CompilerConfig.isBatch(config)) {
+            System.exit(compileBatch(config));
+        }
+
+        var inputFile = CompilerConfig.getInputFiles(config).getFirst();
         if (!inputFile.isFile()) {
             throw new RuntimeException("Option '-i' expects a path to an existing input file, got '" + args[0] + "'.");
         }
         String code = SpecsIo.read(inputFile);
 
+        var metricsFile = CompilerConfig.getMetrics(config);
+        var metrics = metricsFile.isPresent() ? CompilerMetrics.start(inputFile.getPath()) : null;
+
         // Parsing stage
         JmmParserImpl parser = new JmmParserImpl();
         JmmParserResult parserResult = parser.parse(code, config);
@@ -43,22 +63,79 @@ public class Launcher {
         TestUtils.noErrors(semanticsResult.getReports());
 
 
-        // Optimization stage
+        // Optimization stage, the same as in batch mode
         JmmOptimizationImpl ollirGen = new JmmOptimizationImpl();
-        OllirResult ollirResult = ollirGen.toOllir(semanticsResult);
+        semanticsResult = ollirGen.optimize(semanticsResult);
+        OllirResult ollirResult = ollirGen.optimize(ollirGen.toOllir(semanticsResult));
         TestUtils.noErrors(ollirResult.getReports());
 
         // Print OLLIR code
         System.out.println("-----------------------------------------");
         System.out.println(ollirResult.getOllirCode());
 
+        // Code generation stage, straight to a class file
+        if (CompilerConfig.getClassfile(config)) {
+            var classfileResult = new ClassfileBackendImpl().toClassfile(ollirResult);
+            TestUtils.noErrors(classfileResult.reports());
+
+            var classFile = classfileResult.write(CompilerConfig.getOutputDir(config).orElse(new File(".")));
+            System.out.println("Class file written to " + classFile.getAbsolutePath());
+
+            writeMetrics(metrics, metricsFile);
+            return;
+        }
+
         // Code generation stage
         JasminBackendImpl jasminGen = new JasminBackendImpl();
         JasminResult jasminResult = jasminGen.toJasmin(ollirResult);
+
+        // Print Jasmin code, written as it is generated when possible
+        if (jasminResult instanceof LazyJasminResult lazyResult) {
+            var stdout = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+            lazyResult.write(stdout);
+            stdout.println();
+            stdout.flush();
+        } else {
+            System.out.println(jasminResult.getJasminCode());
+        }
+
+        // The reports of the backend are only complete once the code has been generated
         TestUtils.noErrors(jasminResult.getReports());
 
-        // Print Jasmin code
-        System.out.println(jasminResult.getJasminCode());
+        writeMetrics(metrics, metricsFile);
+    }
+
+    private static void writeMetrics(CompilerMetrics metrics, Optional<File> metricsFile) {
+        if (metrics != null) {
+            CompilerMetrics.stop();
+            SpecsIo.write(metricsFile.get(), CompilerMetrics.toJson(List.of(metrics)));
+        }
+    }
+
+    private static int compileBatch(Map<String, String> config) {
+        // Stages print debug information, keep the standard output only for the compilation results
+        var out = System.out;
+        System.setOut(System.err);
+
+        BatchCompiler.warmUp(config);
+
+        if (CompilerConfig.getServer(config)) {
+            var requests = new BufferedReader(new InputStreamReader(System.in));
+            return new BatchCompiler().serve(requests, config, out) == 0 ? 0 : 1;
+        }
+
+        var inputFiles = CompilerConfig.getInputFiles(config);
+        int threads = CompilerConfig.getThreads(config);
+        var results = threads > 1 ?
+                new ParallelCompiler(threads).compileAll(inputFiles, config, out) :
+                new BatchCompiler().compileAll(inputFiles, config, out);
+
+        BatchCompiler.writeSummary(results, out);
+
+        CompilerConfig.getMetrics(config).ifPresent(metricsFile -> SpecsIo.write(metricsFile,
+                CompilerMetrics.toJson(results.stream().map(CompilationResult::metrics).filter(Objects::nonNull).toList())));
+
+        return results.stream().anyMatch(CompilationResult::hasErrors) ? 1 : 0;
     }
 
 }
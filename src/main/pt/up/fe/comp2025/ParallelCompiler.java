@@ -0,0 +1,58 @@
+package pt.up.fe.comp2025;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Compiles independent files concurrently on a work-stealing pool, one task per file.
+ * <p>
+ * Each worker thread keeps its own {@link BatchCompiler}, so no stage instance is shared between threads. Results are
+ * written in the order of the input files, regardless of the order in which they finish. The parser cache is shared
+ * by the workers, so its limit is only applied once, before the files are compiled.
+ */
+public class ParallelCompiler {
+
+    private final int threads;
+
+    public ParallelCompiler(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Compiles the given files, writing each result as soon as it and all results before it are available.
+     *
+     * @param inputFiles
+     * @param config
+     * @param out
+     * @return the results, in the same order as the input files
+     */
+    public List<CompilationResult> compileAll(List<File> inputFiles, Map<String, String> config, PrintStream out) {
+        BatchCompiler.limitParserCache(config);
+
+        var compilers = ThreadLocal.withInitial(BatchCompiler::new);
+        var pool = new ForkJoinPool(threads);
+
+        try {
+            var tasks = new ArrayList<ForkJoinTask<CompilationResult>>();
+            for (var inputFile : inputFiles) {
+                tasks.add(pool.submit(() -> compilers.get().compile(inputFile, config)));
+            }
+
+            var results = new ArrayList<CompilationResult>();
+            for (var task : tasks) {
+                var result = task.join();
+                BatchCompiler.write(result, config, out);
+                results.add(result);
+            }
+
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
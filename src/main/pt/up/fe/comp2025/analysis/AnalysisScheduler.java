@@ -0,0 +1,97 @@
+package pt.up.fe.comp2025.analysis;
+
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs several analysis passes in a single preorder traversal of the AST.
+ * <p>
+ * Each node is dispatched to every pass, in the order the passes were given. A pass that throws an exception stops
+ * receiving nodes, while the others continue. Each pass sees the nodes in the same order as with its own traversal, so
+ * the reports of each pass are the same as those returned by {@link AnalysisVisitor#analyze(JmmNode, SymbolTable)}.
+ * <p>
+ * When metrics are collected, the wall time of the visits of each pass is added up and reported as a stage named after
+ * the pass.
+ */
+public class AnalysisScheduler {
+
+    /**
+     * Outcome of a single pass.
+     *
+     * @param pass      the pass
+     * @param reports   the reports of the pass
+     * @param exception the exception thrown by the pass, or null if it visited the whole AST
+     */
+    public record PassResult(AnalysisVisitor pass, List<Report> reports, Exception exception) {
+    }
+
+    private final List<AnalysisVisitor> passes;
+
+    public AnalysisScheduler(List<AnalysisVisitor> passes) {
+        this.passes = passes;
+    }
+
+    /**
+     * Analyses the AST with all passes.
+     *
+     * @param root
+     * @param table
+     * @return the outcome of each pass, in the order of the passes
+     */
+    public List<PassResult> analyze(JmmNode root, SymbolTable table) {
+        var exceptions = new Exception[passes.size()];
+        var wallTimes = CompilerMetrics.isEnabled() ? new long[passes.size()] : null;
+        int running = passes.size();
+
+        for (var pass : passes) {
+            pass.reset();
+        }
+
+        var nodes = new ArrayDeque<JmmNode>();
+        nodes.push(root);
+
+        while (!nodes.isEmpty() && running > 0) {
+            var node = nodes.pop();
+
+            for (int i = 0; i < passes.size(); i++) {
+                if (exceptions[i] != null) {
+                    continue;
+                }
+
+                long start = wallTimes != null ? System.nanoTime() : 0;
+                try {
+                    passes.get(i).visitNode(node, table);
+                } catch (Exception e) {
+                    exceptions[i] = e;
+                    running--;
+                }
+
+                if (wallTimes != null) {
+                    wallTimes[i] += System.nanoTime() - start;
+                }
+            }
+
+            // Children are pushed in reverse, so that they are visited from first to last
+            var children = node.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                nodes.push(children.get(i));
+            }
+        }
+
+        var results = new ArrayList<PassResult>(passes.size());
+        for (int i = 0; i < passes.size(); i++) {
+            if (wallTimes != null) {
+                CompilerMetrics.addStage(passes.get(i).getClass().getSimpleName(), wallTimes[i]);
+            }
+            results.add(new PassResult(passes.get(i), passes.get(i).getReports(), exceptions[i]));
+        }
+
+        return results;
+    }
+}
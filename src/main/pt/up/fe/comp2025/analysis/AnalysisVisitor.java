@@ -2,9 +2,9 @@ package pt.up.fe.comp2025.analysis;
 
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.ast.JmmNode;
-import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2025.ast.PreorderKindVisitor;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,7 +12,7 @@ import java.util.List;
 /**
  * Implementation of AnalysisPass that automatically visits nodes using preorder traversal.
  */
-public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Void> implements AnalysisPass {
+public abstract class AnalysisVisitor extends PreorderKindVisitor<SymbolTable, Void> implements AnalysisPass {
 
     private List<Report> reports;
 
@@ -30,8 +30,17 @@ public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Vo
     }
 
 
+    /**
+     * Clears the state kept from a previous analysis, so that the same pass instance can be reused.
+     */
+    protected void reset() {
+        reports = new ArrayList<>();
+    }
+
     @Override
     public List<Report> analyze(JmmNode root, SymbolTable table) {
+        reset();
+
         // Visit the node
         visit(root, table);
 
@@ -39,6 +48,16 @@ public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Vo
         return getReports();
     }
 
+    /**
+     * Applies the visit of this pass to a single node, without visiting its children.
+     *
+     * @param node
+     * @param table
+     */
+    public void visitNode(JmmNode node, SymbolTable table) {
+        getVisit(node).apply(node, table);
+    }
+
     public Report newError(JmmNode node, String message) {
         return Report.newError(
                 Stage.SEMANTIC,
@@ -12,6 +12,7 @@ import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2025.analysis.passes.*;
 import pt.up.fe.comp2025.ast.Kind;
 import pt.up.fe.comp2025.symboltable.JmmSymbolTableBuilder;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,6 +22,8 @@ import java.util.List;
  */
 public class JmmAnalysisImpl implements JmmAnalysis {
 
+    // Passes are built once and reset at the start of each analysis, so they can be reused across compilations
+    private AnalysisScheduler scheduler;
 
     /**
      * Analysis passes that will be applied to the AST.
@@ -56,7 +59,10 @@ public class JmmAnalysisImpl implements JmmAnalysis {
 
 
         var symbolTableBuilder = new JmmSymbolTableBuilder();
-        SymbolTable table = symbolTableBuilder.build(rootNode);
+        SymbolTable table;
+        try (var timer = CompilerMetrics.time("symbolTable")) {
+            table = symbolTableBuilder.build(rootNode);
+        }
 
         List<Report> reports = symbolTableBuilder.getReports();
 
@@ -65,6 +71,12 @@ public class JmmAnalysisImpl implements JmmAnalysis {
 
     @Override
     public JmmSemanticsResult semanticAnalysis(JmmSemanticsResult semanticsResult) {
+        try (var timer = CompilerMetrics.time("analysis")) {
+            return runPasses(semanticsResult);
+        }
+    }
+
+    private JmmSemanticsResult runPasses(JmmSemanticsResult semanticsResult) {
 
         var table = semanticsResult.getSymbolTable();
 
@@ -73,38 +85,39 @@ public class JmmAnalysisImpl implements JmmAnalysis {
             //System.out.println("- " + method + " retorna " + table.getReturnType(method));
         }
 
-        var analysisVisitors = buildPasses(table);
+        if (scheduler == null) {
+            scheduler = new AnalysisScheduler(buildPasses(table));
+        }
 
         var rootNode = semanticsResult.getRootNode();
 
         var reports = new ArrayList<Report>();
 
-        // This is a simple implementation that assumes all passes are implemented as visitors, each one making a full visit of the AST.
-        // There are other implementations that reduce the number of full AST visits, this is not required for the work, but a nice challenge if you want to try.
-        for (var analysisVisitor : analysisVisitors) {
-            try {
-                var passReports = analysisVisitor.analyze(rootNode, table);
-
-                var hasSymbolTableErrors = passReports.stream()
-                        .anyMatch(report -> report.getType() == ReportType.ERROR);
-
-
-                reports.addAll(passReports);
-
-                // Return early in case of error report
-                if (hasSymbolTableErrors) {
-                    System.out.println("Found errors: " + reports);
-                    return new JmmSemanticsResult(semanticsResult, reports);
-                }
-
-            } catch (Exception e) {
+        // All passes run in a single visit of the AST, their results are then handled in the order of the passes
+        for (var passResult : scheduler.analyze(rootNode, table)) {
+            if (passResult.exception() != null) {
                 reports.add(Report.newError(Stage.SEMANTIC,
                         -1,
                         -1,
-                        "Problem while executing analysis pass '" + analysisVisitor.getClass() + "'",
-                        e)
+                        "Problem while executing analysis pass '" + passResult.pass().getClass() + "'",
+                        passResult.exception())
                 );
                 System.out.println("Exception: " + reports);
+                continue;
+            }
+
+            var passReports = passResult.reports();
+
+            var hasSymbolTableErrors = passReports.stream()
+                    .anyMatch(report -> report.getType() == ReportType.ERROR);
+
+
+            reports.addAll(passReports);
+
+            // Return early in case of error report
+            if (hasSymbolTableErrors) {
+                System.out.println("Found errors: " + reports);
+                return new JmmSemanticsResult(semanticsResult, reports);
             }
 
         }
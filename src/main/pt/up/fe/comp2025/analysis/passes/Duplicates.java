@@ -22,12 +22,19 @@ public class Duplicates extends AnalysisVisitor {
 
     private String currentMethod;
 
+    @Override
+    protected void reset() {
+        super.reset();
+        currentMethod = null;
+        seenSimpleNames.clear();
+    }
+
     @Override
     public void buildVisitor() {
         //System.out.println("buildVisitor foi chamado!");
         addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
         addVisit(Kind.VAR_DECL, this::visitVarDecl);
-        addVisit("Import", this::visitImport);
+        addVisit(Kind.IMPORT, this::visitImport);
     }
 
     private void debugMethod(JmmNode method) {
@@ -110,8 +117,7 @@ public class Duplicates extends AnalysisVisitor {
 
 
         JmmNode typeNode = var.getChild(0);
-        String kind = typeNode.getKind();
-        if(kind.equals("VarArgs")){
+        if(Kind.VAR_ARGS.check(typeNode)){
             String message = "Varargs (e.g., int...) can only be used in method parameters.";
             addReport(Report.newError(
                     Stage.SEMANTIC,
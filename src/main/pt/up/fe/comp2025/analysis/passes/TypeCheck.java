@@ -16,18 +16,25 @@ import java.util.HashSet;
 public class TypeCheck extends AnalysisVisitor {
 
     private String currentMethod;
+
+    @Override
+    protected void reset() {
+        super.reset();
+        currentMethod = null;
+    }
+
     @Override
     public void buildVisitor(){
         addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
-        addVisit("LoopStmt", this::visitWhileIfStmt);
-        addVisit("IfStmt", this::visitWhileIfStmt);
-        addVisit("BinaryExpr", this::visitBinaryOp);
-        addVisit("AssignStmt", this::visitAssignStmt);
-        addVisit("ArrayAcessExpr", this::visitArrayAccess);
-        addVisit("ReturnStatement", this::visitReturnStmt);
-        addVisit("ThisExpr", this::visitThisExpr);
-        addVisit("LengthExpr", this::visitLengthExpr);
-        //addVisit("VarArgs", this::visitVarArgs);
+        addVisit(Kind.LOOP_STMT, this::visitWhileIfStmt);
+        addVisit(Kind.IF_STMT, this::visitWhileIfStmt);
+        addVisit(Kind.BINARY_EXPR, this::visitBinaryOp);
+        addVisit(Kind.ASSIGN_STMT, this::visitAssignStmt);
+        addVisit(Kind.ARRAY_ACESS_EXPR, this::visitArrayAccess);
+        addVisit(Kind.RETURN_STATEMENT, this::visitReturnStmt);
+        addVisit(Kind.THIS_EXPR, this::visitThisExpr);
+        addVisit(Kind.LENGTH_EXPR, this::visitLengthExpr);
+        //addVisit(Kind.VAR_ARGS, this::visitVarArgs);
    }
 
     private Void visitMethodDecl(JmmNode method, SymbolTable table) {
@@ -127,7 +134,7 @@ public class TypeCheck extends AnalysisVisitor {
 
         var imports = table.getImports();
         Type methodCallObjectType = null;
-        if (node.getChild(0).getKind().equals("MethodCallExpr")){
+        if (Kind.METHOD_CALL_EXPR.check(node.getChild(0))){
             methodCallObjectType = TypeUtils.getExprType(node.getChild(0).getChild(0), table, currentMethod);
         }
 
@@ -19,10 +19,16 @@ public class UndeclaredMethod extends AnalysisVisitor {
 
     private String currentMethod;
 
+    @Override
+    protected void reset() {
+        super.reset();
+        currentMethod = null;
+    }
+
     @Override
     public void buildVisitor() {
         addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
-        addVisit("MethodCallExpr", this::visitMethodCall);
+        addVisit(Kind.METHOD_CALL_EXPR, this::visitMethodCall);
     }
 
     private void debugMethod(JmmNode method) {
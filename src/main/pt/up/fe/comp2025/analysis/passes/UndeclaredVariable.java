@@ -7,6 +7,7 @@ import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2025.analysis.AnalysisVisitor;
 import pt.up.fe.comp2025.ast.Kind;
 import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
 import pt.up.fe.specs.util.SpecsCheck;
 
 /**
@@ -18,6 +19,12 @@ public class UndeclaredVariable extends AnalysisVisitor {
 
     private String currentMethod;
 
+    @Override
+    protected void reset() {
+        super.reset();
+        currentMethod = null;
+    }
+
     @Override
     public void buildVisitor() {
         //System.out.println("buildVisitor foi chamado!");
@@ -46,20 +53,20 @@ public class UndeclaredVariable extends AnalysisVisitor {
         var varRefName = varRefExpr.get("name");
 
 
+        var jmmTable = (JmmSymbolTable) table;
+        var scope = jmmTable.getScope(currentMethod);
+
         // Var is a parameter, return
-        if (table.getParameters(currentMethod).stream()
-                .anyMatch(param -> param.getName().equals(varRefName))) {
+        if (scope.getParameter(varRefName) != null) {
             return null;
         }
 
         // Var is a declared variable, return
-        if (table.getLocalVariables(currentMethod).stream()
-                .anyMatch(varDecl -> varDecl.getName().equals(varRefName))) {
+        if (scope.getLocal(varRefName) != null) {
             return null;
         }
         // Var is a class field
-        if (table.getFields().stream()
-                .anyMatch(field -> field.getName().equals(varRefName))) {
+        if (jmmTable.getField(varRefName) != null) {
             return null;
         }
         // Var is a import
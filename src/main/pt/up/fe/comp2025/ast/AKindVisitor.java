@@ -0,0 +1,45 @@
+package pt.up.fe.comp2025.ast;
+
+import pt.up.fe.comp.jmm.ast.AJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+import java.util.function.BiFunction;
+
+/**
+ * {@link AJmmVisitor} that dispatches the nodes built by the parser by their {@link Kind} instead of their name.
+ *
+ * @param <D>
+ * @param <R>
+ */
+public abstract class AKindVisitor<D, R> extends AJmmVisitor<D, R> {
+
+    // Created on the first visit, since buildVisitor() runs before the fields are initialized
+    private KindDispatch<D, R> dispatch;
+
+    @Override
+    public void addVisit(String kind, BiFunction<JmmNode, D, R> method) {
+        super.addVisit(kind, method);
+        dispatch = null;
+    }
+
+    @Override
+    public void setDefaultVisit(BiFunction<JmmNode, D, R> defaultVisit) {
+        super.setDefaultVisit(defaultVisit);
+        dispatch = null;
+    }
+
+    @Override
+    protected BiFunction<JmmNode, D, R> getVisit(JmmNode node) {
+        if (dispatch == null) {
+            dispatch = new KindDispatch<>();
+        }
+
+        var visit = dispatch.get(node);
+        if (visit == null) {
+            visit = super.getVisit(node);
+            dispatch.put(node, visit);
+        }
+
+        return visit;
+    }
+}
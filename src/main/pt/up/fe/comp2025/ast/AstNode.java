@@ -0,0 +1,222 @@
+package pt.up.fe.comp2025.ast;
+
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp.jmm.ast.NodePosition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * AST node built directly from the Javamm parse tree.
+ * <p>
+ * Behaves like the {@link JmmNodeImpl} created by the generic ANTLR conversion, with the same kind, hierarchy and
+ * attributes, but keeps the kind as a {@link Kind}, the position as numbers and the attributes of the grammar labels
+ * in an array whose layout is shared by every node of the same kind. Attributes added later, e.g. by the optimizations,
+ * are kept in the attribute map of {@link JmmNodeImpl}.
+ */
+public class AstNode extends JmmNodeImpl {
+
+    private static final String LINE_START = NodePosition.LINE_START.getKey();
+    private static final String COL_START = NodePosition.COL_START.getKey();
+    private static final String LINE_END = NodePosition.LINE_END.getKey();
+    private static final String COL_END = NodePosition.COL_END.getKey();
+
+    // Nodes whose layout only has the position never store a value, so they can share the array
+    private static final Object[] NO_VALUES = new Object[4];
+
+    private final Kind kind;
+    private final String[] keys;
+    private final Object[] values;
+
+    private int lineStart;
+    private int colStart;
+    private int lineEnd;
+    private int colEnd;
+
+    private int intValue;
+    private boolean hasIntValue;
+
+    /**
+     * @param kind
+     * @param layout the attributes of the nodes of this kind, see {@link #layout(String...)}
+     */
+    public AstNode(Kind kind, String[] layout) {
+        super(kind.getHierarchy());
+        // The hierarchy of a kind never changes, so all its nodes share it
+        this.hierarchy = kind.getHierarchy();
+        this.kind = kind;
+        this.keys = layout;
+        this.values = layout.length == NO_VALUES.length ? NO_VALUES : new Object[layout.length];
+    }
+
+    /**
+     * Order of the attributes of a node with the given label attributes, the same as in the attribute map of the
+     * generic conversion, so that nodes are printed in the same way.
+     *
+     * @param labels
+     * @return
+     */
+    public static String[] layout(String... labels) {
+        var attributes = new HashSet<String>();
+        attributes.addAll(List.of(LINE_START, COL_START, LINE_END, COL_END));
+        attributes.addAll(Arrays.asList(labels));
+
+        return attributes.toArray(new String[0]);
+    }
+
+    public Kind getNodeKind() {
+        return kind;
+    }
+
+    /**
+     * @return the value of an integer literal, parsed when the node was built
+     */
+    public int getIntValue() {
+        if (!hasIntValue) {
+            return Integer.parseInt(get("value"));
+        }
+
+        return intValue;
+    }
+
+    public void setIntValue(int intValue) {
+        this.intValue = intValue;
+        this.hasIntValue = true;
+    }
+
+    public void setPosition(int lineStart, int colStart, int lineEnd, int colEnd) {
+        this.lineStart = lineStart;
+        this.colStart = colStart;
+        this.lineEnd = lineEnd;
+        this.colEnd = colEnd;
+    }
+
+    @Override
+    public String getKind() {
+        return kind.getNodeName();
+    }
+
+    @Override
+    public int getLine() {
+        return lineStart;
+    }
+
+    @Override
+    public int getColumn() {
+        return colStart;
+    }
+
+    @Override
+    public Collection<String> getAttributes() {
+        var attributes = new ArrayList<String>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (isPosition(keys[i]) || values[i] != null) {
+                attributes.add(keys[i]);
+            }
+        }
+
+        attributes.addAll(getAttributesMap().keySet());
+        return attributes;
+    }
+
+    @Override
+    public boolean hasAttribute(String attribute) {
+        int index = indexOf(attribute);
+        if (index != -1) {
+            return isPosition(keys[index]) || values[index] != null;
+        }
+
+        return getAttributesMap().containsKey(attribute);
+    }
+
+    @Override
+    public Object getObject(String attribute) {
+        int index = indexOf(attribute);
+        if (index == -1) {
+            return super.getObject(attribute);
+        }
+
+        var key = keys[index];
+        if (isPosition(key)) {
+            return Integer.toString(getPosition(key));
+        }
+
+        if (values[index] == null) {
+            return super.getObject(attribute);
+        }
+
+        return values[index];
+    }
+
+    @Override
+    public Object putObject(String attribute, Object value) {
+        int index = indexOf(attribute);
+        if (index == -1) {
+            return super.putObject(attribute, value);
+        }
+
+        var key = keys[index];
+        if (isPosition(key)) {
+            var previous = Integer.toString(getPosition(key));
+            setPosition(key, Integer.parseInt(value.toString()));
+            return previous;
+        }
+
+        // Changing the value of a literal discards the parsed one
+        if (key.equals("value")) {
+            hasIntValue = false;
+        }
+
+        var previous = values[index];
+        values[index] = value;
+        return previous;
+    }
+
+    private int indexOf(String attribute) {
+        // Attribute names are usually literals, the same instances as in the layout
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == attribute) {
+                return i;
+            }
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(attribute)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean isPosition(String key) {
+        return key == LINE_START || key == COL_START || key == LINE_END || key == COL_END;
+    }
+
+    private int getPosition(String key) {
+        if (key == LINE_START) {
+            return lineStart;
+        } else if (key == COL_START) {
+            return colStart;
+        } else if (key == LINE_END) {
+            return lineEnd;
+        }
+
+        return colEnd;
+    }
+
+    private void setPosition(String key, int position) {
+        if (key == LINE_START) {
+            lineStart = position;
+        } else if (key == COL_START) {
+            colStart = position;
+        } else if (key == LINE_END) {
+            lineEnd = position;
+        } else {
+            colEnd = position;
+        }
+    }
+}
@@ -5,7 +5,9 @@ import pt.up.fe.specs.util.SpecsStrings;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -15,38 +17,98 @@ import java.util.Set;
  */
 public enum Kind {
     PROGRAM,
+    IMPORT_DECL,
+    IMPORT(IMPORT_DECL),
     CLASS_DECL,
     VAR_DECL,
     TYPE,
+    ARRAY(TYPE),
+    VAR_ARGS(TYPE),
+    INT(TYPE),
+    BOOLEAN(TYPE),
+    ID(TYPE),
     METHOD_DECL,
     PARAM,
     STMT,
-    ASSIGN_STMT,
+    BLOCK_STMT(STMT),
+    IF_STMT(STMT),
+    LOOP_STMT(STMT),
+    SIMPLE_STMT(STMT),
+    ASSIGN_STMT(STMT),
+    ARRAY_STMT(STMT),
     RETURN_STMT,
+    RETURN_STATEMENT(RETURN_STMT),
     EXPR,
-    BINARY_EXPR,
-    INTEGER_LITERAL,
-    VAR_REF_EXPR;
-
+    PAREN_EXPR(EXPR),
+    NEW_EXPR(EXPR),
+    NEW_ARRAY_EXPR(EXPR),
+    UNARY_EXPR(EXPR),
+    ARRAY_ACESS_EXPR(EXPR),
+    BINARY_EXPR(EXPR),
+    INTEGER_LITERAL(EXPR),
+    VAR_REF_EXPR(EXPR),
+    METHOD_CALL_EXPR(EXPR),
+    ARRAY_EXPR(EXPR),
+    LENGTH_EXPR(EXPR),
+    IDENTIFIER(EXPR),
+    THIS_EXPR(EXPR);
+
+
+    private static final Map<String, Kind> KINDS = new HashMap<>();
+
+    static {
+        for (Kind kind : values()) {
+            KINDS.put(kind.getNodeName(), kind);
+        }
+    }
 
     private final String name;
+    private final Kind rule;
+    private final List<String> hierarchy;
 
     private Kind(String name) {
         this.name = name;
+        this.rule = null;
+        this.hierarchy = List.of(name);
     }
 
     private Kind() {
         this.name = SpecsStrings.toCamelCase(name(), "_", true);
+        this.rule = null;
+        this.hierarchy = List.of(this.name);
+    }
+
+    /**
+     * Kind of a labeled alternative of a grammar rule, whose nodes are also instances of the rule.
+     *
+     * @param rule
+     */
+    private Kind(Kind rule) {
+        this.name = SpecsStrings.toCamelCase(name(), "_", true);
+        this.rule = rule;
+        this.hierarchy = List.of(this.name, rule.getNodeName());
     }
 
     public static Kind fromString(String kind) {
+        var k = KINDS.get(kind);
 
-        for (Kind k : Kind.values()) {
-            if (k.getNodeName().equals(kind)) {
-                return k;
-            }
+        if (k == null) {
+            throw new RuntimeException("Could not convert string '" + kind + "' to a Kind");
+        }
+
+        return k;
+    }
+
+    /**
+     * @param node
+     * @return the kind of the given node, without looking up its name if it was built by the parser
+     */
+    public static Kind of(JmmNode node) {
+        if (node instanceof AstNode astNode) {
+            return astNode.getNodeKind();
         }
-        throw new RuntimeException("Could not convert string '" + kind + "' to a Kind");
+
+        return fromString(node.getKind());
     }
 
     public static List<String> toNodeName(Kind firstKind, Kind... otherKinds) {
@@ -64,6 +126,20 @@ public enum Kind {
         return name;
     }
 
+    /**
+     * @return the grammar rule of this kind if it is a labeled alternative, otherwise null
+     */
+    public Kind getRule() {
+        return rule;
+    }
+
+    /**
+     * @return the name of this kind, followed by the name of its grammar rule if it is a labeled alternative
+     */
+    public List<String> getHierarchy() {
+        return hierarchy;
+    }
+
     @Override
     public String toString() {
         return getNodeName();
@@ -76,6 +152,11 @@ public enum Kind {
      * @return
      */
     public boolean check(JmmNode node) {
+        if (node instanceof AstNode astNode) {
+            var kind = astNode.getNodeKind();
+            return kind == this || kind.rule == this;
+        }
+
         return node.isInstance(this);
     }
 
@@ -0,0 +1,49 @@
+package pt.up.fe.comp2025.ast;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+import java.util.function.BiFunction;
+
+/**
+ * Visit methods of a visitor indexed by {@link Kind}.
+ * <p>
+ * Caches, for each kind, the visit method found by the string lookup of the visitor, so that nodes built by the parser
+ * are dispatched by the ordinal of their kind. Other nodes, e.g. created by the optimizations, are always looked up by
+ * name.
+ *
+ * @param <D>
+ * @param <R>
+ */
+class KindDispatch<D, R> {
+
+    private final BiFunction<JmmNode, D, R>[] visits;
+
+    @SuppressWarnings("unchecked")
+    KindDispatch() {
+        this.visits = new BiFunction[Kind.values().length];
+    }
+
+    /**
+     * @param node
+     * @return the cached visit method for the kind of the given node, or null if it was not looked up yet
+     */
+    BiFunction<JmmNode, D, R> get(JmmNode node) {
+        if (node instanceof AstNode astNode) {
+            return visits[astNode.getNodeKind().ordinal()];
+        }
+
+        return null;
+    }
+
+    /**
+     * Caches the visit method found for the kind of the given node.
+     *
+     * @param node
+     * @param visit
+     */
+    void put(JmmNode node, BiFunction<JmmNode, D, R> visit) {
+        if (node instanceof AstNode astNode) {
+            visits[astNode.getNodeKind().ordinal()] = visit;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2025.symboltable.MethodScope;
 
 import javax.swing.plaf.synth.SynthTextAreaUI;
 import java.util.HashSet;
@@ -36,7 +37,7 @@ public class TypeUtils {
 
         //System.out.println("olaaaaa");
         // Arrays
-        if (typeNode.getKind().equals("Array") || typeNode.getKind().equals("NewArrayExpr")) {
+        if (Kind.ARRAY.check(typeNode) || Kind.NEW_ARRAY_EXPR.check(typeNode)) {
             JmmNode baseTypeNode = typeNode.getChild(0);
             String baseType = baseTypeNode.get("dataType");
             //System.out.println("yeyyyyyyyyy" + baseType);
@@ -90,41 +91,46 @@ public class TypeUtils {
      * @return
      */
     public static Type getExprType(JmmNode expr, SymbolTable table, String currentMethod) {
+        // The type of each expression is computed once and kept in the symbol table, shared by all stages
+        var jmmTable = (JmmSymbolTable) table;
+        var type = jmmTable.getCachedType(expr, currentMethod);
+
+        if (type == null) {
+            type = computeExprType(expr, table, currentMethod);
+            jmmTable.cacheType(expr, currentMethod, type);
+        }
+
+        return type;
+    }
+
+    private static Type computeExprType(JmmNode expr, SymbolTable table, String currentMethod) {
         //System.out.println("qwe "+ expr.getKind().toString());
         //System.out.println(">> currentMethod: " + currentMethod);
         //System.out.println(">> params keys: " + table.getMethods());
-        switch (expr.getKind()) {
+        switch (Kind.of(expr)) {
 
-            case "VarRefExpr": {
+            case VAR_REF_EXPR: {
                 var varName = expr.get("name");
-                List<Symbol> params = table.getParameters(currentMethod);
-                if (params == null) {
+                var scope = getScope(table, currentMethod);
+                if (scope == null) {
                     // handle gracefully, log warning or throw a descriptive error
                     System.err.println("No parameters found for method: " + currentMethod);
                     return new Type("undefined", false); // or something meaningful
                 }
-                else{
-                    var paramss = table.getParameters(currentMethod).stream()
-                            .filter(p -> p.getName().equals(varName))
-                            .findFirst();
-                    if (paramss.isPresent()) return paramss.get().getType();
-                }
 
+                var param = scope.getParameter(varName);
+                if (param != null) return param.symbol().getType();
 
-                var localVar = table.getLocalVariables(currentMethod).stream()
-                        .filter(v -> v.getName().equals(varName))
-                        .findFirst();
-                if (localVar.isPresent()) return localVar.get().getType();
+                var localVar = scope.getLocal(varName);
+                if (localVar != null) return localVar.symbol().getType();
 
-                var field = table.getFields().stream()
-                        .filter(f -> f.getName().equals(varName))
-                        .findFirst();
-                if (field.isPresent()) return field.get().getType();
+                var field = ((JmmSymbolTable) table).getField(varName);
+                if (field != null) return field.symbol().getType();
 
                 break;
             }
 
-            case "ArrayAcessExpr": {
+            case ARRAY_ACESS_EXPR: {
                 JmmNode arrayExpr = expr.getChild(0);
                 Type arrayType = getExprType(arrayExpr, table, currentMethod);
 
@@ -136,13 +142,13 @@ public class TypeUtils {
                 return new Type("int", false);
             }
 
-            case "NewExpr":
+            case NEW_EXPR:
                 return new Type(expr.get("name"), false);
 
-            case "NewArrayExpr":
+            case NEW_ARRAY_EXPR:
                 return new Type("int", true);
 
-            case "ArrayExpr": {
+            case ARRAY_EXPR: {
                 for (JmmNode element : expr.getChildren()) {
                     Type elementType = getExprType(element, table, currentMethod);
                     if (!elementType.getName().equals("int") || elementType.isArray()) {
@@ -153,10 +159,10 @@ public class TypeUtils {
                 return new Type("int", true);
             }
 
-            case "ParenExpr":
+            case PAREN_EXPR:
                 return getExprType(expr.getChild(0), table, currentMethod);
 
-            case "BinaryExpr": {
+            case BINARY_EXPR: {
                 //System.out.println("pesca1");
                 //System.out.println(expr.getChildren().get(0));
                 //System.out.println(expr.getChildren().get(1));
@@ -183,7 +189,7 @@ public class TypeUtils {
 
                 return new Type("unknown", false);
             }
-            case "UnaryExpr": {
+            case UNARY_EXPR: {
                 JmmNode exprNode = expr.getChild(0);
                 Type exprType = getExprType(exprNode, table, currentMethod);
 
@@ -195,20 +201,20 @@ public class TypeUtils {
                 return new Type("boolean", false);
             }
 
-            case "ThisExpr":{
+            case THIS_EXPR:{
                 //var object = expr.getClass("name");
                 var type = expr.getAncestor(Kind.CLASS_DECL).get().get("name");
                 //System.out.println("pesquinha1" + type);
                 return new Type(type, false);
             }
 
-            case "IntegerLiteral":
+            case INTEGER_LITERAL:
                 return new Type("int", false);
 
-            case "Identifier":
+            case IDENTIFIER:
                 return new Type("boolean", false);
 
-            case "MethodCallExpr": {
+            case METHOD_CALL_EXPR: {
                 var methodName = expr.get("name");
                 var returnType = table.getReturnType(methodName);
                 if (returnType != null) return returnType;
@@ -223,7 +229,7 @@ public class TypeUtils {
 
                 return new Type("unknown", false);
             }
-            case "LengthExpr":
+            case LENGTH_EXPR:
                 if (expr.get("name").equals("length"))
                     return new Type("int", false);
             default:
@@ -236,28 +242,21 @@ public class TypeUtils {
     }
 
     public static Type getVarType(SymbolTable table, String varName, String currentMethod) {
-        var locals = table.getLocalVariables(currentMethod);
-        var parameters = table.getParameters(currentMethod);
-        var fields = table.getFields();
-        Type varType;
+        var scope = getScope(table, currentMethod);
         if (varName.equals("this")) {
             String currentClass = table.getClassName();
             //System.out.println(table.getClassName());
             return new Type(currentClass, false); // "this" é uma instância da classe, não um array
         }
-        for(var local : locals){
-            //System.out.println("pesca101");
-            if (local.getName().equals(varName)) {
-                varType = local.getType();
-                return varType;
-            }
+
+        var local = scope.getLocal(varName);
+        if (local != null) {
+            return local.symbol().getType();
         }
-        for(var parameter : parameters){
-            //System.out.println("pesca102");
-            if (parameter.getName().equals(varName)) {
-                varType = parameter.getType();
-                return varType;
-            }
+
+        var parameter = scope.getParameter(varName);
+        if (parameter != null) {
+            return parameter.symbol().getType();
         }
 
         if (table.getImports().contains(varName)) {
@@ -265,24 +264,24 @@ public class TypeUtils {
         }
         return new Type("assume", false);
     }
+
+    private static MethodScope getScope(SymbolTable table, String currentMethod) {
+        return ((JmmSymbolTable) table).getScope(currentMethod);
+    }
+
     public boolean isLocal(String varName, SymbolTable table, String currentMethod) {
-        return table.getLocalVariables(currentMethod).stream().anyMatch(local -> local.getName().equals(varName));
+        return getScope(table, currentMethod).getLocal(varName) != null;
     }
 
     public boolean isParameter(String varName, SymbolTable table, String currentMethod) {
-        return table.getParameters(currentMethod).stream().anyMatch(parameter -> parameter.getName().equals(varName));
+        return getScope(table, currentMethod).getParameter(varName) != null;
     }
     public boolean isField(String varName, SymbolTable table, String currentMethod) {
-        return !isLocal(varName, table, currentMethod) && !isParameter(varName, table, currentMethod) && table.getFields().stream().anyMatch(field -> field.getName().equals(varName));
+        return !isLocal(varName, table, currentMethod) && !isParameter(varName, table, currentMethod) && ((JmmSymbolTable) table).getField(varName) != null;
     }
     public Type getFieldType(String varName, SymbolTable table) {
-        var fields = table.getFields();
-        for (var field : fields) {
-            if (field.getName().equals(varName)) {
-                return field.getType();
-            }
-        }
-        return null;
+        var field = ((JmmSymbolTable) table).getField(varName);
+        return field != null ? field.symbol().getType() : null;
     }
 
 }
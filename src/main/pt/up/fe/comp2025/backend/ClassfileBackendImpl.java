@@ -0,0 +1,26 @@
+package pt.up.fe.comp2025.backend;
+
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.specs.util.SpecsCollections;
+
+/**
+ * Backend that generates class files directly from OLLIR, without going through Jasmin code.
+ * <p>
+ * Uses the same {@link JasminGenerator} as {@link JasminBackendImpl}, so both backends generate the same instructions.
+ */
+public class ClassfileBackendImpl {
+
+    public ClassfileResult toClassfile(OllirResult ollirResult) {
+        try (var timer = CompilerMetrics.time("classfile")) {
+            var generator = new JasminGenerator(ollirResult);
+            var emitter = new ClassfileEmitter();
+
+            generator.generate(emitter);
+
+            return new ClassfileResult(ollirResult.getOllirClass().getClassName(), emitter.toByteArray(),
+                    SpecsCollections.concat(ollirResult.getReports(), generator.getReports()));
+        }
+    }
+
+}
@@ -0,0 +1,234 @@
+package pt.up.fe.comp2025.backend;
+
+import jas.AsciiCP;
+import jas.ClassCP;
+import jas.ClassEnv;
+import jas.CodeAttr;
+import jas.FieldCP;
+import jas.IincInsn;
+import jas.Insn;
+import jas.IntegerCP;
+import jas.Label;
+import jas.MethodCP;
+import jas.RuntimeConstants;
+import jas.StringCP;
+import jas.Var;
+import jas.jasError;
+import org.specs.comp.ollir.AccessModifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes the generated class directly as a class file, using the classes Jasmin itself uses to write them, without
+ * printing and parsing Jasmin code.
+ * <p>
+ * Like Jasmin, it writes class files of version 45.3, which do not need stack map frames.
+ */
+public class ClassfileEmitter implements JasminEmitter {
+
+    private static final Map<String, Integer> OPCODES = opcodes();
+
+    private final ClassEnv classEnv;
+    private final Map<String, Label> labels;
+    private jas.Method method;
+    private CodeAttr code;
+
+    public ClassfileEmitter() {
+        this.classEnv = new ClassEnv();
+        this.labels = new HashMap<>();
+        this.method = null;
+        this.code = null;
+    }
+
+    // Opcodes of every instruction, by Jasmin mnemonic
+    private static Map<String, Integer> opcodes() {
+        var opcodes = new HashMap<String, Integer>();
+
+        for (var field : RuntimeConstants.class.getFields()) {
+            if (!field.getName().startsWith("opc_") || !Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+
+            try {
+                opcodes.put(field.getName().substring(4), field.getInt(null));
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Could not read opcode " + field.getName(), e);
+            }
+        }
+
+        return opcodes;
+    }
+
+    @Override
+    public void beginClass(String className, String superClass) {
+        classEnv.setClass(new ClassCP(className));
+        classEnv.setSuperClass(new ClassCP(superClass));
+        classEnv.setClassAccess((short) RuntimeConstants.ACC_SUPER);
+    }
+
+    @Override
+    public void field(String name, String descriptor) {
+        classEnv.addField(new Var((short) RuntimeConstants.ACC_PUBLIC, new AsciiCP(name), new AsciiCP(descriptor),
+                null));
+    }
+
+    @Override
+    public void defaultConstructor(String superClass) {
+        beginMethod(AccessModifier.PUBLIC, false, "<init>", "()V");
+        instruction("aload_0");
+        methodInstruction("invokespecial", superClass, "<init>", "()V");
+        instruction("return");
+        endMethod(1, 1);
+    }
+
+    @Override
+    public void beginMethod(AccessModifier access, boolean isStatic, String name, String descriptor) {
+        int flags = switch (access) {
+            case PUBLIC -> RuntimeConstants.ACC_PUBLIC;
+            case PRIVATE -> RuntimeConstants.ACC_PRIVATE;
+            case PROTECTED -> RuntimeConstants.ACC_PROTECTED;
+            case DEFAULT -> 0;
+        };
+
+        if (isStatic) {
+            flags |= RuntimeConstants.ACC_STATIC;
+        }
+
+        method = new jas.Method((short) flags, new AsciiCP(name), new AsciiCP(descriptor));
+        code = new CodeAttr();
+        labels.clear();
+    }
+
+    @Override
+    public void instruction(String opcode) {
+        add(() -> new Insn(opcode(opcode)));
+    }
+
+    @Override
+    public void instruction(String opcode, int operand) {
+        add(() -> new Insn(opcode(opcode), operand, false));
+    }
+
+    @Override
+    public void instruction(String opcode, String operand) {
+        int opc = opcode(opcode);
+
+        switch (opcode) {
+            case "new" -> add(() -> new Insn(opc, new ClassCP(operand)));
+            case "newarray" -> add(() -> new Insn(opc, arrayType(operand), false));
+            case "ldc" -> add(() -> new Insn(opc, constant(operand)));
+            default -> add(() -> new Insn(opc, getLabel(operand), 0));
+        }
+    }
+
+    @Override
+    public void iinc(int register, int increment) {
+        add(() -> new IincInsn(register, increment, false));
+    }
+
+    @Override
+    public void fieldInstruction(String opcode, String className, String fieldName, String descriptor) {
+        add(() -> new Insn(opcode(opcode), new FieldCP(className, fieldName, descriptor)));
+    }
+
+    @Override
+    public void methodInstruction(String opcode, String className, String methodName, String descriptor) {
+        add(() -> new Insn(opcode(opcode), new MethodCP(className, methodName, descriptor)));
+    }
+
+    @Override
+    public void label(String label) {
+        checkInMethod();
+        code.addInsn(getLabel(label));
+    }
+
+    @Override
+    public void endMethod(int maxStack, int maxLocals) {
+        checkInMethod();
+
+        code.setStackSize((short) maxStack);
+        code.setVarSize((short) maxLocals);
+        method.setCode(code, null);
+        classEnv.addMethod(method);
+
+        method = null;
+        code = null;
+    }
+
+    @Override
+    public void endClass() {
+    }
+
+    /**
+     * @return the bytes of the class file
+     */
+    public byte[] toByteArray() {
+        var bytes = new ByteArrayOutputStream();
+
+        try (var out = new DataOutputStream(bytes)) {
+            classEnv.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write class file", e);
+        } catch (jasError e) {
+            throw new RuntimeException("Could not write class file: " + e.getMessage(), e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private interface InsnSupplier {
+        Insn get() throws jasError;
+    }
+
+    private void add(InsnSupplier insn) {
+        checkInMethod();
+
+        try {
+            code.addInsn(insn.get());
+        } catch (jasError e) {
+            throw new RuntimeException("Invalid instruction: " + e.getMessage(), e);
+        }
+    }
+
+    private Label getLabel(String label) {
+        return labels.computeIfAbsent(label, Label::new);
+    }
+
+    private static int opcode(String opcode) {
+        var opc = OPCODES.get(opcode);
+
+        if (opc == null) {
+            throw new RuntimeException("Unknown instruction '" + opcode + "'");
+        }
+
+        return opc;
+    }
+
+    private static int arrayType(String type) {
+        return switch (type) {
+            case "int" -> RuntimeConstants.T_INT;
+            case "boolean" -> RuntimeConstants.T_BOOLEAN;
+            default -> throw new RuntimeException("Unsupported array type '" + type + "'");
+        };
+    }
+
+    private static jas.CP constant(String constant) {
+        try {
+            return new IntegerCP(Integer.parseInt(constant));
+        } catch (NumberFormatException e) {
+            return new StringCP(constant);
+        }
+    }
+
+    private void checkInMethod() {
+        if (code == null) {
+            throw new IllegalStateException("Method body code outside of a method");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package pt.up.fe.comp2025.backend;
+
+import pt.up.fe.comp.jmm.report.Report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Result of the class file backend.
+ *
+ * @param className name of the generated class
+ * @param bytes     the class file
+ * @param reports   reports of the OLLIR stage and of the backend
+ */
+public record ClassfileResult(String className, byte[] bytes, List<Report> reports) {
+
+    /**
+     * Writes the class file to the given folder, named after the class.
+     *
+     * @param outputDir
+     * @return the written file
+     */
+    public File write(File outputDir) {
+        var classFile = new File(outputDir, className + ".class");
+
+        try {
+            Files.write(classFile.toPath(), bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write class file '" + classFile + "'", e);
+        }
+
+        return classFile;
+    }
+}
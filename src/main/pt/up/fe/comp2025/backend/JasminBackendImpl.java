@@ -15,11 +15,11 @@ public class JasminBackendImpl implements JasminBackend {
         //System.out.println("Converting OLLIR to Jasmin:\n" + ollirResult.getOllirCode());
 
         var jasminGenerator = new JasminGenerator(ollirResult);
-        var jasminCode = jasminGenerator.build();
 
-        //System.out.println("Generated Jasmin:\n" + jasminCode);
+        //System.out.println("Generated Jasmin:\n" + jasminGenerator.build());
 
-        return new JasminResult(ollirResult, jasminCode, jasminGenerator.getReports());
+        // Code is generated when first requested, see LazyJasminResult
+        return new LazyJasminResult(ollirResult, jasminGenerator);
     }
 
 }
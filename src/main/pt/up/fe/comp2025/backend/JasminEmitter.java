@@ -0,0 +1,75 @@
+package pt.up.fe.comp2025.backend;
+
+import org.specs.comp.ollir.AccessModifier;
+
+/**
+ * Receives the class generated by {@link JasminGenerator}, one element at a time.
+ * <p>
+ * Instructions are given by their Jasmin mnemonic and operands, so that implementations can either print them as Jasmin
+ * code ({@link JasminWriter}) or encode them directly ({@link ClassfileEmitter}).
+ */
+public interface JasminEmitter {
+
+    void beginClass(String className, String superClass);
+
+    void field(String name, String descriptor);
+
+    /**
+     * Adds a constructor without arguments that only calls the constructor of the super class.
+     *
+     * @param superClass
+     */
+    void defaultConstructor(String superClass);
+
+    /**
+     * Starts a method. Instructions and labels belong to this method until {@link #endMethod(int, int)}.
+     *
+     * @param access
+     * @param isStatic
+     * @param name
+     * @param descriptor the method descriptor, e.g. (I[I)Z
+     */
+    void beginMethod(AccessModifier access, boolean isStatic, String name, String descriptor);
+
+    /**
+     * An instruction without operands (e.g., iadd, iload_1).
+     *
+     * @param opcode
+     */
+    void instruction(String opcode);
+
+    /**
+     * An instruction with a numeric operand (e.g., iload 4, bipush 10).
+     *
+     * @param opcode
+     * @param operand
+     */
+    void instruction(String opcode, int operand);
+
+    /**
+     * An instruction whose operand is a label (branches), a class name (new), a primitive type (newarray) or a
+     * constant (ldc).
+     *
+     * @param opcode
+     * @param operand
+     */
+    void instruction(String opcode, String operand);
+
+    void iinc(int register, int increment);
+
+    /**
+     * getfield and putfield.
+     */
+    void fieldInstruction(String opcode, String className, String fieldName, String descriptor);
+
+    /**
+     * invokevirtual, invokespecial and invokestatic.
+     */
+    void methodInstruction(String opcode, String className, String methodName, String descriptor);
+
+    void label(String label);
+
+    void endMethod(int maxStack, int maxLocals);
+
+    void endClass();
+}
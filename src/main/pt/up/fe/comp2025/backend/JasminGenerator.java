@@ -9,30 +9,35 @@ import org.specs.comp.ollir.tree.TreeNode;
 import org.specs.comp.ollir.type.Type;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.comp.jmm.report.Report;
-import pt.up.fe.specs.util.classmap.FunctionClassMap;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.specs.util.classmap.BiConsumerClassMap;
 import pt.up.fe.specs.util.exceptions.NotImplementedException;
-import pt.up.fe.specs.util.utilities.StringLines;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-import static java.util.Map.entry;
+import static org.specs.comp.ollir.OperationType.GTE;
 import static org.specs.comp.ollir.OperationType.LTH;
+import static org.specs.comp.ollir.OperationType.NOTB;
 
 /**
  * Generates Jasmin code from an OllirResult.
  * <p>
- * One JasminGenerator instance per OllirResult.
+ * Code is given to a {@link JasminEmitter} as it is generated, which either writes it as text ({@link JasminWriter})
+ * or encodes it as a class file ({@link ClassfileEmitter}). One JasminGenerator instance per OllirResult.
  */
 public class JasminGenerator {
 
-    private static final String NL = "\n";
-    private static final String TAB = "   ";
-
     private final OllirResult ollirResult;
 
     List<Report> reports;
@@ -41,47 +46,14 @@ public class JasminGenerator {
 
     Method currentMethod;
 
+    // Labels of the instructions of the current method, by instruction identity
+    private final Map<TreeNode, List<String>> currentLabels;
+
     private final JasminUtils types;
 
-    private final FunctionClassMap<TreeNode, String> generators;
-
-    private static int labelCounter = 0;
-    private final Map<String, Integer> stackUsage = Map.ofEntries(
-            entry("aload", 1),
-            entry("areturn", -1),
-            entry("ArrayLength", 0),
-            entry("astore", -1),
-            entry("bipush", 1),
-            entry("getfield", 0),
-            entry("goto", 0),
-            entry("iadd", -1),
-            entry("iaload", -1),
-            entry("iastore", -3),
-            entry("iconst", 1),
-            entry("idiv", -1),
-            entry("iload", 1),
-            entry("imul", -1),
-            entry("InvokeSpecial", 0),
-            entry("InvokeStatic", 1),
-            entry("InvokeVirtual", 0),
-            entry("ireturn", -1),
-            entry("istore", -1),
-            entry("isub", -1),
-            entry("ixor", -1),
-            entry("ldc", 1),
-            entry("new", 1),
-            entry("newarray", 0),
-            entry("putfield", -2),
-            entry("return", 0),
-            entry("sipush", 1),
-            entry("if_icmplt",-2),
-            entry("if_icmpge",-2),
-            entry("ifge",-1),
-            entry("iflt",-1),
-            entry("iinc",0)
-            );
-    private int currentStack = 0;
-    private int maxStack = 0;
+    private final BiConsumerClassMap<TreeNode, JasminEmitter> generators;
+
+    private int labelCounter = 0;
 
 
     public JasminGenerator(OllirResult ollirResult) {
@@ -90,10 +62,11 @@ public class JasminGenerator {
         reports = new ArrayList<>();
         code = null;
         currentMethod = null;
+        currentLabels = new IdentityHashMap<>();
 
         types = new JasminUtils(ollirResult);
 
-        this.generators = new FunctionClassMap<>();
+        this.generators = new BiConsumerClassMap<>();
         generators.put(ClassUnit.class, this::generateClassUnit);
         generators.put(Method.class, this::generateMethod);
         generators.put(AssignInstruction.class, this::generateAssign);
@@ -115,27 +88,22 @@ public class JasminGenerator {
 
     }
 
-    private String apply(TreeNode node) {
-        var code = new StringBuilder();
+    private void apply(TreeNode node, JasminEmitter out) {
 
         // Print the corresponding OLLIR code as a comment
-        //code.append("; ").append(node).append(NL);
+        //out.instruction("; " + node);
         //System.out.println("NÓ");
         //System.out.println(node.toString());
         //System.out.println(node.getClass().getSimpleName());
 
-        if (currentMethod != null) {
-            var labels = currentMethod.getLabels();
-            for (var key : labels.keySet()){
-                if (node == labels.get(key)) {
-                    code.append(key).append(":").append(NL);
-                }
+        var labels = currentLabels.get(node);
+        if (labels != null) {
+            for (var label : labels) {
+                out.label(label);
             }
         }
 
-        code.append(generators.apply(node));
-
-        return code.toString();
+        generators.accept(node, out);
     }
 
 
@@ -147,20 +115,61 @@ public class JasminGenerator {
 
         // This way, build is idempotent
         if (code == null) {
-            code = apply(ollirResult.getOllirClass());
+            var writer = new StringWriter();
+            build(writer);
+            code = writer.toString();
         }
 
         return code;
     }
 
+    /**
+     * Writes the Jasmin code directly to the given writer, without keeping it in memory.
+     *
+     * @param writer
+     */
+    public void build(Writer writer) {
+
+        // The code was already generated
+        if (code != null) {
+            try {
+                writer.write(code);
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write Jasmin code", e);
+            }
+            return;
+        }
+
+        // Only the actual generation is measured, not the copies of code that was already generated
+        try (var timer = CompilerMetrics.time("jasmin")) {
+            generate(new JasminWriter(writer));
+        }
+    }
+
+    /**
+     * Generates the class, giving each element to the emitter as it is generated.
+     *
+     * @param out
+     */
+    public void generate(JasminEmitter out) {
+        labelCounter = 0;
+        // Reports are those of the last generation, not of every time the code was generated
+        reports.clear();
+
+        // Short forms and iinc are chosen by the peephole rules, and the max stack is only computed after them
+        var rules = CompilerConfig.getOptimize(ollirResult.getConfig()) ?
+                PeepholeRules.defaults() : PeepholeRules.selection();
+        JasminEmitter emitter = new PeepholeEmitter(new StackHeightEmitter(out), rules);
+
+        apply(ollirResult.getOllirClass(), emitter);
+    }
 
-    private String generateClassUnit(ClassUnit classUnit) {
 
-        var code = new StringBuilder();
+    private void generateClassUnit(ClassUnit classUnit, JasminEmitter out) {
 
         // generate class name
         var className = ollirResult.getOllirClass().getClassName();
-        code.append(".class ").append(className).append(NL).append(NL);
 
         String fullSuperClass;
         if(classUnit.getSuperClass() == null) {
@@ -171,27 +180,17 @@ public class JasminGenerator {
         }
 
 
-        code.append(".super ").append(fullSuperClass).append(NL);
+        out.beginClass(className, fullSuperClass);
         for (Field field : ollirResult.getOllirClass().getFields()) {
-            code.append(apply(field)).append(NL);
+            apply(field, out);
         }
 
         // generate a single constructor method
-        var defaultConstructor = """
-                ;default constructor
-                .method public <init>()V
-                    aload_0
-                    invokespecial %s/<init>()V
-                    return
-                .end method
-                """.formatted(fullSuperClass);
-        code.append(defaultConstructor);
+        out.defaultConstructor(fullSuperClass);
 
 
         // generate code for all other methods
         for (var method : ollirResult.getOllirClass().getMethods()) {
-            currentStack = 0;
-            maxStack = 0;
             // Ignore constructor, since there is always one constructor
             // that receives no arguments, and has been already added
             // previously
@@ -199,32 +198,30 @@ public class JasminGenerator {
                 continue;
             }
 
-            code.append(apply(method));
+            try (var timer = CompilerMetrics.time("method:" + method.getMethodName())) {
+                apply(method, out);
+            }
         }
 
-        return code.toString();
+        out.endClass();
     }
 
 
-    private String generateMethod(Method method) {
+    private void generateMethod(Method method, JasminEmitter out) {
         //System.out.println("STARTING METHOD " + method.getMethodName());
         // set method
         currentMethod = method;
+        for (var entry : method.getLabels().entrySet()) {
+            currentLabels.computeIfAbsent(entry.getValue(), instruction -> new ArrayList<>()).add(entry.getKey());
+        }
 
-        var code = new StringBuilder();
-
-        // calculate modifier
-        var modifier = types.getModifier(method.getMethodAccessModifier());
+        var descriptor = new StringBuilder();
 
         var methodName = method.getMethodName();
 
         var params = method.getParams();
 
-        code.append("\n.method ").append(modifier);
-        if(method.isStaticMethod()){
-            code.append("static ");
-        }
-        code.append(methodName).append("(");
+        descriptor.append("(");
         for(var p : params){
             //System.out.println("PARAMS: " + p.getType().toString());
             String t = switch (p.getType().toString()){
@@ -240,7 +237,7 @@ public class JasminGenerator {
                     }
                 }
             };
-            code.append(t);
+            descriptor.append(t);
 
         }
 
@@ -253,39 +250,29 @@ public class JasminGenerator {
         };
 
 
-        code.append(")" +returnType).append(NL);
-
-        // Add limits
+        descriptor.append(")" +returnType);
 
-
-        StringBuilder instructionCode = new StringBuilder();
+        out.beginMethod(method.getMethodAccessModifier(), method.isStaticMethod(), methodName, descriptor.toString());
         for (var inst : method.getInstructions()) {
-            var instCode = StringLines.getLines(apply(inst)).stream()
-                    .collect(Collectors.joining(NL + TAB, TAB, NL));
-
-            instructionCode.append(instCode);
+            apply(inst, out);
         }
 
-        code.append(TAB).append(".limit stack ").append(maxStack).append(NL);
+        // Add limits
         Descriptor maxRegister = method.getVarTable().values().stream().max(Comparator.comparingInt(Descriptor::getVirtualReg)).orElse(new Descriptor(0));
 
         int locals = maxRegister.getVirtualReg() + 1;
-        code.append(TAB).append(".limit locals ").append(locals).append(NL);
-        code.append(instructionCode).append(NL);
-
-        code.append(".end method\n");
+        // The max stack is computed from the instructions by the StackHeightEmitter
+        out.endMethod(0, locals);
 
         // unset method
         currentMethod = null;
+        currentLabels.clear();
         //System.out.println("ENDING METHOD " + method.getMethodName());
-        return code.toString();
     }
 
-    private String generateAssign(AssignInstruction assign) {
-        var code = new StringBuilder();
-
+    private void generateAssign(AssignInstruction assign, JasminEmitter out) {
         // generate code for loading what's on the right
-        //code.append(apply(assign.getRhs()));
+        //apply(assign.getRhs(), out);
 
         // store value in the stack in destination
         var lhs = assign.getDest();
@@ -295,131 +282,51 @@ public class JasminGenerator {
         }
         var reg = currentMethod.getVarTable().get(dest.getName());
 
-        if (assign.getRhs() instanceof BinaryOpInstruction binaryOpInstruction) {
-            if (binaryOpInstruction.getRightOperand() instanceof LiteralElement literal &&
-                    binaryOpInstruction.getLeftOperand() instanceof Operand operand) {
-                if (dest.getName().equals(operand.getName()) && (Integer.parseInt(literal.getLiteral()) >= -128) && (Integer.parseInt(literal.getLiteral()) <= 127)) {
-                    code.append("iinc ").append(reg.getVirtualReg()).append(" ").append(literal.getLiteral());
-                    return code.toString();
-                }
-            }
-            else if (binaryOpInstruction.getLeftOperand() instanceof LiteralElement literal &&
-                    binaryOpInstruction.getRightOperand() instanceof Operand operand) {
-                if (dest.getName().equals(operand.getName()) && (Integer.parseInt(literal.getLiteral()) >= -128) && (Integer.parseInt(literal.getLiteral()) <= 127)) {
-                    code.append("iinc ").append(reg.getVirtualReg()).append(" ").append(literal.getLiteral());
-                    updateStack("iinc");
-                    return code.toString();
-                }
-            }
-
-        }
-
         if (dest instanceof ArrayOperand arrayOperand) {
-            code.append(generateOperand(arrayOperand));
-            code.append(generators.apply(arrayOperand.getIndexOperands().getFirst()));
-            code.append(generators.apply(assign.getRhs()));
-            code.append("iastore").append(NL);
-            updateStack("iastore");
-            return code.toString();
+            generateOperand(arrayOperand, out);
+            generators.accept(arrayOperand.getIndexOperands().getFirst(), out);
+            generators.accept(assign.getRhs(), out);
+            out.instruction("iastore");
+            return;
         }
-        code.append(apply(assign.getRhs()));
-
-
-
-
+        apply(assign.getRhs(), out);
         // get register
 
 
         // TODO: Hardcoded for int type, needs to be expanded
         //System.out.println("TYPE: " + operand.getType().toString());
-        var store = store(reg.getVirtualReg(), dest.getType().toString());
-        code.append(store).append(NL);
-
-
-
-        //code.append("istore ").append(reg.getVirtualReg()).append(NL);
+        store(reg.getVirtualReg(), dest.getType().toString(), out);
 
-        return code.toString();
-    }
 
-    private String replaceWithIinc(String code) {
-        var lines = new ArrayList<>(List.of(code.split("\\R"))); // Split on newline
-        for (int i = 0; i < lines.size() - 5; i++) {
-            String l1 = lines.get(i).trim();
-            String l2 = lines.get(i + 1).trim();
-            String l3 = lines.get(i + 2).trim();
-            String l4 = lines.get(i + 3).trim();
-            String l5 = lines.get(i + 4).trim();
-            String l6 = lines.get(i + 5).trim();
-
-            if (l1.startsWith("iload") && (l2.startsWith("iconst") || l2.startsWith("bipush") ||
-                    l2.startsWith("sipush") || l2.startsWith("ldc") &&
-                    l3.equals("iadd")) && l4.startsWith("istore") &&
-                    l5.equals("iload") && l6.startsWith("istore"))
-            {
-
-                int regLoad = extractReg(l1);
-                int regStore = extractReg(l6);
-                int regLoad2 = extractReg(l5);
-                int regStore2 = extractReg(l4);
-                if (regLoad != regStore) continue;
-                if (regLoad2 != regStore2) continue;
-
-                int value = extractImmediate(l2);
-                lines.set(i, "iinc " + regLoad + " " + value);
-                // Remove i+1 to i+3
-                lines.subList(i + 1, i + 6).clear();
-                break; // Only optimize once for now; remove break to do multiple
-            }
-        }
-        return String.join(System.lineSeparator(), lines);
-    }
 
-    private int extractReg(String line) {
-        return Integer.parseInt(line.substring("iload ".length()));
-    }
-
-    private int extractImmediate(String line) {
-        if (line.startsWith("iconst")) {
-            return Integer.parseInt(line.substring("iconst ".length()));
-        } else if (line.startsWith("bipush") || (line.startsWith("sipush"))) {
-            return Integer.parseInt(line.substring("bipush ".length()));
-        } else if (line.startsWith("ldc")) {
-            return Integer.parseInt(line.substring("ldc ".length()));
-        }
-        throw new RuntimeException("Unsupported immediate pattern: " + line);
+        //out.instruction("istore " + reg.getVirtualReg());
     }
 
-    private String generateSingleOp(SingleOpInstruction singleOp) {
-        return apply(singleOp.getSingleOperand());
+    private void generateSingleOp(SingleOpInstruction singleOp, JasminEmitter out) {
+        apply(singleOp.getSingleOperand(), out);
     }
 
-    private String generateLiteral(LiteralElement literal) {
+    private void generateLiteral(LiteralElement literal, JasminEmitter out) {
         String lit = literal.getLiteral();
         try {
             int value = Integer.parseInt(lit);
-            return constant(value) + NL;
+            constant(value, out);
         } catch (NumberFormatException e) {
-            updateStack("ldc");
-            return "ldc " + lit + NL;
+            out.instruction("ldc", lit);
         }
     }
 
-    private String generateArrayOperand(ArrayOperand arrayOperand) {
-        StringBuilder code = new StringBuilder();
-
-        code.append(generateOperand(arrayOperand));
-        code.append(generators.apply(arrayOperand.getIndexOperands().get(0)));
-        code.append("iaload").append(NL);
-        updateStack("iaload");
-        return code.toString();
+    private void generateArrayOperand(ArrayOperand arrayOperand, JasminEmitter out) {
+        generateOperand(arrayOperand, out);
+        generators.accept(arrayOperand.getIndexOperands().get(0), out);
+        out.instruction("iaload");
     }
 
-    private String generateOperand(Operand operand) {
+    private void generateOperand(Operand operand, JasminEmitter out) {
         System.out.println("oaaaaaaaaaa + " + operand.getName());
         if (operand.getName().equals("this")) {
-            updateStack("aload");
-            return "aload_0" + NL;
+            out.instruction("aload_0");
+            return;
         }
 
         // get register
@@ -434,115 +341,95 @@ public class JasminGenerator {
         }
 
 
-        var load = load(reg.getVirtualReg(), typeString);
-        return load + NL;
+        load(reg.getVirtualReg(), typeString, out);
     }
 
-    private String generateBinaryOp(BinaryOpInstruction binaryOp) {
-        var code = new StringBuilder();
-
-        // load values on the left and on the right
-
-        boolean islt = false;
-        boolean isge = false;
+    private void generateBinaryOp(BinaryOpInstruction binaryOp, JasminEmitter out) {
+        var opType = binaryOp.getOperation().getOpType();
 
-        if (binaryOp.getOperation().getOpType().equals(LTH)){
-            if (binaryOp.getRightOperand().isLiteral() && ((LiteralElement)binaryOp.getRightOperand()).getLiteral().equals("0")) {
-                islt = true;
-            }
-            else code.append(apply(binaryOp.getLeftOperand()));
+        // Comparisons push 1 if they hold and 0 otherwise
+        if (opType == LTH || opType == GTE) {
+            var labelId = getUniqueLabel();
+            var trueLabel = "j_true_" + labelId;
+            var endLabel = "j_end" + labelId;
 
-            if (binaryOp.getLeftOperand().isLiteral() && ((LiteralElement)binaryOp.getLeftOperand()).getLiteral().equals("0")) {
-                isge = true;
-            }
-            else code.append(apply(binaryOp.getRightOperand()));
-        }
-        else{
-            code.append(apply(binaryOp.getLeftOperand()));
-            code.append(apply(binaryOp.getRightOperand()));
+            out.instruction(generateComparison(binaryOp, out), trueLabel);
+            out.instruction("iconst_0");
+            out.instruction("goto", endLabel);
+            out.label(trueLabel);
+            out.instruction("iconst_1");
+            out.label(endLabel);
+            return;
         }
 
+        // load values on the left and on the right
+        apply(binaryOp.getLeftOperand(), out);
+        apply(binaryOp.getRightOperand(), out);
+
         var typePrefix = "i";
 
         // apply operation
-        var opType = binaryOp.getOperation().getOpType();
         String opCode;
 
         switch (opType) {
             case ADD ->{
-                opCode = typePrefix + "add" + NL;
-                updateStack(typePrefix + "add");
+                opCode = typePrefix + "add";
             }
             case SUB ->{
-                updateStack(typePrefix + "sub");
-                opCode = typePrefix + "sub" + NL;
+                opCode = typePrefix + "sub";
             }
             case MUL -> {
-                updateStack(typePrefix + "mul");
-                opCode = typePrefix + "mul" + NL;
+                opCode = typePrefix + "mul";
             }
             case DIV ->{
-                updateStack(typePrefix + "div");
-                opCode = typePrefix + "div" + NL;
-            }
-
-            case LTH-> {
-                String ifType;
-                if (islt) ifType = "iflt";
-                else if (isge) ifType = "ifge";
-                else ifType = "if_icmplt";
-
-                var labelId = getUniqueLabel();
-                var trueLabel = "j_true_" + labelId;
-                var endLabel = "j_end" + labelId;
-
-                code.append(ifType).append(" ").append(trueLabel).append(NL);
-                code.append("iconst_0").append(NL);
-                code.append("goto ").append(endLabel).append(NL);
-                code.append(trueLabel).append(":").append(NL);
-                code.append("iconst_1").append(NL);
-                code.append(endLabel).append(":").append(NL);
-
-                updateStack(ifType);
-                updateStack("iconst");
-                updateStack("goto");
-                updateStack("iconst");
-
-                return code.toString();
-            }
-            case GTE->{
-                var labelId = getUniqueLabel();
-                var trueLabel = "j_true_" + labelId;
-                var endLabel = "j_end" + labelId;
-
-                code.append("if_icmpge ").append(trueLabel).append(NL);
-                code.append("iconst_0").append(NL);
-                code.append("goto ").append(endLabel).append(NL);
-                code.append(trueLabel).append(":").append(NL);
-                code.append("iconst_1").append(NL);
-                code.append(endLabel).append(":").append(NL);
-
-                updateStack("if_icmpge");
-                updateStack("iconst");
-                updateStack("goto");
-                updateStack("iconst");
-                return code.toString();
+                opCode = typePrefix + "div";
             }
 
             default -> throw new NotImplementedException(opType);
         }
 
-        code.append(opCode);
-        return code.toString();
+        out.instruction(opCode);
+    }
+
+    /**
+     * Loads the operands of a comparison, comparing with zero when one of them is the literal 0.
+     *
+     * @param binaryOp
+     * @param out
+     * @return the branch instruction that jumps if the comparison holds
+     */
+    private String generateComparison(BinaryOpInstruction binaryOp, JasminEmitter out) {
+        var opType = binaryOp.getOperation().getOpType();
+        if (opType != LTH && opType != GTE) {
+            throw new NotImplementedException(opType);
+        }
+
+        boolean lessThan = opType == LTH;
+
+        // x < 0 and x >= 0
+        if (isZero(binaryOp.getRightOperand())) {
+            apply(binaryOp.getLeftOperand(), out);
+            return lessThan ? "iflt" : "ifge";
+        }
+
+        // 0 < x and 0 >= x
+        if (isZero(binaryOp.getLeftOperand())) {
+            apply(binaryOp.getRightOperand(), out);
+            return lessThan ? "ifgt" : "ifle";
+        }
+
+        apply(binaryOp.getLeftOperand(), out);
+        apply(binaryOp.getRightOperand(), out);
+        return lessThan ? "if_icmplt" : "if_icmpge";
     }
 
+    private static boolean isZero(Element element) {
+        return element instanceof LiteralElement literal && literal.getLiteral().equals("0");
+    }
 
-    private String generateReturn(ReturnInstruction returnInst) {
-        var code = new StringBuilder();
 
-        returnInst.getOperand().ifPresent(op -> {
-            code.append(apply(op));
-        });
+    private void generateReturn(ReturnInstruction returnInst, JasminEmitter out) {
+        returnInst.getOperand().ifPresent(op -> apply(op, out));
 
         var type = returnInst.getReturnType().toString();
         //System.out.println("TYPE: " + type);
@@ -553,22 +440,17 @@ public class JasminGenerator {
             default -> "areturn";
         };
         /*if(!children.isEmpty() && children.get(0) instanceof Operand operand) {
-            code.append(apply(operand));
+            apply(operand, out);
         }*/
-        updateStack(retType);
-        code.append(retType).append(NL);
-
-        return code.toString();
+        out.instruction(retType);
     }
 
-    private String generatePutField(PutFieldInstruction putField) {
-        var code = new StringBuilder();
-
+    private void generatePutField(PutFieldInstruction putField, JasminEmitter out) {
         // Carrega o objeto (normalmente "this")
-        code.append(apply(putField.getObject()));
+        apply(putField.getObject(), out);
 
         // Carrega o valor a ser guardado no campo
-        code.append(apply(putField.getValue()));
+        apply(putField.getValue(), out);
 
         // Nome da classe
         var className = ollirResult.getOllirClass().getClassName();
@@ -578,19 +460,12 @@ public class JasminGenerator {
         String fieldName = fieldOperand.getName();
 
 
-        code.append("putfield ").append(className).append("/")
-                .append(fieldName).append(" ")
-                .append(getJasminType(fieldOperand.getType())).append(NL);
-        updateStack("putfield");
-
-        return code.toString();
+        out.fieldInstruction("putfield", className, fieldName, getJasminType(fieldOperand.getType()));
     }
 
-    private String generateGetField(GetFieldInstruction inst) {
-        var code = new StringBuilder();
-
+    private void generateGetField(GetFieldInstruction inst, JasminEmitter out) {
         // Carrega o objeto (geralmente 'this')
-        code.append(apply(inst.getObject()));
+        apply(inst.getObject(), out);
 
         String className = ollirResult.getOllirClass().getClassName();
 
@@ -598,27 +473,18 @@ public class JasminGenerator {
         String fieldName = fieldOperand.getName();
 
 
-        code.append("getfield ")
-                .append(className).append("/")
-                .append(fieldName).append(" ")
-                .append(getJasminType(fieldOperand.getType())).append(NL);
-        updateStack("getfield");
-
-        return code.toString();
+        out.fieldInstruction("getfield", className, fieldName, getJasminType(fieldOperand.getType()));
     }
 
-    private String generateCall(CallInstruction callInst) {
-        var code = new StringBuilder();
-
-
+    private void generateCall(CallInstruction callInst, JasminEmitter out) {
         var invocType = callInst.getInvocationKind();
 
         if (!invocType.equals("InvokeStatic")) {
-            code.append(apply(callInst.getCaller()));
+            apply(callInst.getCaller(), out);
         }
 
         for(var arg: callInst.getArguments()) {
-            code.append(apply(arg));
+            apply(arg, out);
         }
 
         Operand caller = (Operand) callInst.getCaller();
@@ -662,15 +528,19 @@ public class JasminGenerator {
         System.out.println("class name: " + className );
         System.out.println("RET TYPE: " + retType );*/
 
-        switch (invocType) {
-            case "InvokeSpecial" -> code.append("invokespecial "); //nao percebi porque é q às vezes é invokenonvirtual??????
-            case "InvokeVirtual" -> code.append("invokevirtual ");
-            case "InvokeStatic" -> code.append("invokestatic ");
-            case "ArrayLength" -> code.append("arraylength \n");
+        String invoke = switch (invocType) {
+            case "InvokeSpecial" -> "invokespecial"; //nao percebi porque é q às vezes é invokenonvirtual??????
+            case "InvokeVirtual" -> "invokevirtual";
+            case "InvokeStatic" -> "invokestatic";
+            case "ArrayLength" -> "arraylength";
 
             default -> throw new NotImplementedException("Unsupported call type: " + invocType);
+        };
+
+        if(invocType.equals("ArrayLength")) {
+            out.instruction(invoke);
+            return;
         }
-        updateStack(invocType, callInst.getArguments().size());
 
         //tipos dos argumentos
         String argsDescriptor = callInst.getArguments().stream()
@@ -678,28 +548,18 @@ public class JasminGenerator {
                 .collect(Collectors.joining());
 
 
-        if(!invocType.equals("ArrayLength")) {
-            code.append(className).append("/")
-                    .append(methodName).append("(")
-                    .append(argsDescriptor).append(")")
-                    .append(retType).append(NL);
-        }
-
-        return code.toString();
+        out.methodInstruction(invoke, className, methodName, "(" + argsDescriptor + ")" + retType);
     }
 
 
-    private String generateNew(NewInstruction newInst) {
-        var code = new StringBuilder();
-
+    private void generateNew(NewInstruction newInst, JasminEmitter out) {
         var caller = newInst.getCaller();
         var type = caller.getType();
 
         if (type instanceof ClassType classType) {
             // Caso normal: new Test
             String className = classType.getName();
-            code.append("new ").append(className).append(NL);
-            updateStack("new");
+            out.instruction("new", className);
 
         } else if (type instanceof ArrayType arrayType) {
             Element size = newInst.getArguments().get(0);
@@ -707,16 +567,15 @@ public class JasminGenerator {
             if (size instanceof LiteralElement literal) {
                 String lit = literal.getLiteral();
                 int value = Integer.parseInt(lit);
-                code.append(constant(value)).append(NL);
+                constant(value, out);
             }
             else if(size instanceof Operand operand){
                 var reg = currentMethod.getVarTable().get(operand.getName());
-                code.append(load(reg.getVirtualReg(), "INT32")).append(NL);
+                load(reg.getVirtualReg(), "INT32", out);
             }
 
 
-            code.append("newarray int").append(NL);
-            updateStack("newarray");
+            out.instruction("newarray", "int");
         } else {
             throw new NotImplementedException("Expected ClassType or ArrayType, got: " + type.getClass());
         }
@@ -726,86 +585,68 @@ public class JasminGenerator {
         }*/
         //String callerType = callerClass.getName();
 
-        //code.append("new ").append(callerType).append(NL);
-
-
-        return code.toString();
+        //out.instruction("new", callerType);
     }
 
-    private String generateSingleOpCond(SingleOpCondInstruction singleOpCond) {
-        String condition = apply(singleOpCond.getCondition());
-        return condition + "ifne " + singleOpCond.getLabel();
+    private void generateSingleOpCond(SingleOpCondInstruction singleOpCond, JasminEmitter out) {
+        apply(singleOpCond.getCondition(), out);
+        out.instruction("ifne", singleOpCond.getLabel());
     }
 
-    private String generateOpCond(OpCondInstruction opCond) {
-        String condition = apply(opCond.getCondition());
-        return condition + "ifne " + opCond.getLabel();
+    private void generateOpCond(OpCondInstruction opCond, JasminEmitter out) {
+        var condition = opCond.getCondition();
+
+        // Branch on the comparison or the negated operand, without computing the boolean
+        if (condition instanceof BinaryOpInstruction binaryOp
+                && (binaryOp.getOperation().getOpType() == LTH || binaryOp.getOperation().getOpType() == GTE)) {
+            out.instruction(generateComparison(binaryOp, out), opCond.getLabel());
+            return;
+        }
+
+        if (condition instanceof UnaryOpInstruction unaryOp && unaryOp.getOperation().getOpType() == NOTB) {
+            apply(unaryOp.getOperand(), out);
+            out.instruction("ifeq", opCond.getLabel());
+            return;
+        }
+
+        apply(condition, out);
+        out.instruction("ifne", opCond.getLabel());
     }
 
-    private String generateGoTo(GotoInstruction goTo) {
-        return "goto " + goTo.getLabel();
+    private void generateGoTo(GotoInstruction goTo, JasminEmitter out) {
+        out.instruction("goto", goTo.getLabel());
     }
 
-    private String generateField(Field field) {
-        StringBuilder code = new StringBuilder();
-        code.append(".field public  '").append(field.getFieldName()).append("' ").append(getJasminType(field.getFieldType()));
-        return code.toString();
+    private void generateField(Field field, JasminEmitter out) {
+        out.field(field.getFieldName(), getJasminType(field.getFieldType()));
     }
 
-    private String generateUnaryOp(UnaryOpInstruction unaryOpInst) {
-        StringBuilder code = new StringBuilder();
-        code.append(apply(unaryOpInst.getOperand()));
-        code.append("iconst_1").append(NL);
-        code.append("ixor").append(NL);
-        updateStack("iconst");
-        updateStack("ixor");
-        return code.toString();
+    private void generateUnaryOp(UnaryOpInstruction unaryOpInst, JasminEmitter out) {
+        apply(unaryOpInst.getOperand(), out);
+        out.instruction("iconst_1");
+        out.instruction("ixor");
     }
 
     //UTILS
-    private String load(int reg, String type) {
+    private void load(int reg, String type, JasminEmitter out) {
 
-        StringBuilder code = new StringBuilder();
         String prefix = switch (type) {
             case "INT32", "BOOLEAN" -> "i";
             default -> "a";
         };
-        updateStack(prefix+"load");
-        if (reg <= 3) return code.append(prefix).append("load_").append(reg).toString();
-        return code.append(prefix).append("load ").append(reg).toString();
+        out.instruction(prefix + "load", reg);
     }
 
-    private String constant(int value){
-        StringBuilder code = new StringBuilder();
-        if (value == -1){
-            updateStack("iconst");
-            return code.append("iconst_m1").toString();
-        }
-        else if (value >= 0 && value <= 5){
-            updateStack("iconst");
-            return code.append("iconst_").append(value).toString();
-        }
-        else if (value >= Byte.MIN_VALUE && value <= 127){
-            updateStack("bipush");
-            return code.append("bipush ").append(value).toString();
-        }
-        else if (value >= -32768 && value <= 32767){
-            updateStack("sipush");
-            return code.append("sipush ").append(value).toString();
-        }
-        updateStack("ldc");
-        return code.append("ldc ").append(value).toString();
+    private void constant(int value, JasminEmitter out){
+        out.instruction("ldc", String.valueOf(value));
     }
 
-    private String store(int reg, String type) {
+    private void store(int reg, String type, JasminEmitter out) {
         String prefix = switch(type){
             case "INT32", "BOOLEAN" -> "i";
             default -> "a";
         };
-        StringBuilder code = new StringBuilder();
-        updateStack(prefix+"store");
-        if (reg >= 0 && reg <= 3) return code.append(prefix).append("store_").append(reg).toString();
-        return code.append(prefix).append("store ").append(reg).toString();
+        out.instruction(prefix + "store", reg);
     }
 
 
@@ -833,20 +674,4 @@ public class JasminGenerator {
     private String getUniqueLabel() {
         return String.valueOf(labelCounter++);
     }
-
-
-
-    private void updateStack(String instruction) {
-        updateStack(instruction, 0);
-    }
-
-    private void updateStack(String instruction, int argumentsNumber) {
-
-        this.currentStack += this.stackUsage.get(instruction) - argumentsNumber;
-
-        if (this.currentStack > this.maxStack) {
-            this.maxStack = this.currentStack;
-        }
-        System.out.println("CurrentMethod:"+ currentMethod.getMethodName() + instruction + "-> current stack:" + currentStack + "max stack:" + maxStack );
-    }
-}
\ No newline at end of file
+}
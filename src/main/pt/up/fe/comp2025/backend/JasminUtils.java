@@ -19,7 +19,7 @@ public class JasminUtils {
     }
 
 
-    public String getModifier(AccessModifier accessModifier) {
+    public static String getModifier(AccessModifier accessModifier) {
         return accessModifier != AccessModifier.DEFAULT ?
                 accessModifier.name().toLowerCase() + " " :
                 "";
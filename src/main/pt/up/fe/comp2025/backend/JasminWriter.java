@@ -0,0 +1,156 @@
+package pt.up.fe.comp2025.backend;
+
+import org.specs.comp.ollir.AccessModifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes Jasmin code to a {@link Writer} as it is generated, indenting method bodies on the fly.
+ * <p>
+ * Since the limits of a method come before its instructions but are only known after generating them, the body of the
+ * current method is kept in a buffer, which is reused by the next methods.
+ */
+public class JasminWriter implements JasminEmitter {
+
+    private static final String NL = "\n";
+    private static final String TAB = "   ";
+
+    private final Writer out;
+    private final StringBuilder body;
+    private final char[] chunk;
+    private boolean inMethod;
+
+    public JasminWriter(Writer out) {
+        this.out = out;
+        this.body = new StringBuilder();
+        this.chunk = new char[8192];
+        this.inMethod = false;
+    }
+
+    @Override
+    public void beginClass(String className, String superClass) {
+        write(".class " + className + NL + NL);
+        write(".super " + superClass + NL);
+    }
+
+    @Override
+    public void field(String name, String descriptor) {
+        write(".field public  '" + name + "' " + descriptor + NL);
+    }
+
+    @Override
+    public void defaultConstructor(String superClass) {
+        write("""
+                ;default constructor
+                .method public <init>()V
+                    aload_0
+                    invokespecial %s/<init>()V
+                    return
+                .end method
+                """.formatted(superClass));
+    }
+
+    @Override
+    public void beginMethod(AccessModifier access, boolean isStatic, String name, String descriptor) {
+        write(NL + ".method " + JasminUtils.getModifier(access) + (isStatic ? "static " : "") + name + descriptor + NL);
+
+        body.setLength(0);
+        inMethod = true;
+    }
+
+    @Override
+    public void instruction(String opcode) {
+        line(opcode);
+    }
+
+    @Override
+    public void instruction(String opcode, int operand) {
+        line(opcode + " " + operand);
+    }
+
+    @Override
+    public void instruction(String opcode, String operand) {
+        line(opcode + " " + operand);
+    }
+
+    @Override
+    public void iinc(int register, int increment) {
+        line("iinc " + register + " " + increment);
+    }
+
+    @Override
+    public void fieldInstruction(String opcode, String className, String fieldName, String descriptor) {
+        line(opcode + " " + className + "/" + fieldName + " " + descriptor);
+    }
+
+    @Override
+    public void methodInstruction(String opcode, String className, String methodName, String descriptor) {
+        line(opcode + " " + className + "/" + methodName + descriptor);
+    }
+
+    @Override
+    public void label(String label) {
+        line(label + ":");
+    }
+
+    /**
+     * Writes the limits of the current method, followed by its body and the end of the method.
+     *
+     * @param maxStack
+     * @param maxLocals
+     */
+    @Override
+    public void endMethod(int maxStack, int maxLocals) {
+        checkInMethod();
+        inMethod = false;
+
+        write(TAB + ".limit stack " + maxStack + NL);
+        write(TAB + ".limit locals " + maxLocals + NL);
+        writeBody();
+        write(NL);
+        write(".end method" + NL);
+    }
+
+    @Override
+    public void endClass() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write Jasmin code", e);
+        }
+    }
+
+    private void line(String line) {
+        checkInMethod();
+        body.append(TAB).append(line).append(NL);
+    }
+
+    private void checkInMethod() {
+        if (!inMethod) {
+            throw new IllegalStateException("Method body code outside of a method");
+        }
+    }
+
+    // Copies the body in chunks, instead of converting the whole buffer to a String
+    private void writeBody() {
+        try {
+            for (int start = 0; start < body.length(); start += chunk.length) {
+                int end = Math.min(start + chunk.length, body.length());
+                body.getChars(start, end, chunk, 0);
+                out.write(chunk, 0, end - start);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write Jasmin code", e);
+        }
+    }
+
+    private void write(String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write Jasmin code", e);
+        }
+    }
+}
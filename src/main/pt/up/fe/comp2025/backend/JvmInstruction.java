@@ -0,0 +1,187 @@
+package pt.up.fe.comp2025.backend;
+
+/**
+ * Instruction or label of a method, as given to a {@link JasminEmitter}.
+ */
+public sealed interface JvmInstruction {
+
+    /**
+     * Gives this instruction to the emitter.
+     *
+     * @param out
+     */
+    void emit(JasminEmitter out);
+
+    /**
+     * @return the mnemonic of the instruction, or null for labels
+     */
+    String opcode();
+
+    /**
+     * An instruction without operands (e.g., iadd, iload_1).
+     */
+    record Simple(String opcode) implements JvmInstruction {
+        @Override
+        public void emit(JasminEmitter out) {
+            out.instruction(opcode);
+        }
+    }
+
+    /**
+     * An instruction with a numeric operand (e.g., iload 4, bipush 10).
+     */
+    record WithInt(String opcode, int operand) implements JvmInstruction {
+        @Override
+        public void emit(JasminEmitter out) {
+            out.instruction(opcode, operand);
+        }
+    }
+
+    /**
+     * An instruction whose operand is a label, a class name, a primitive type or a constant.
+     */
+    record WithString(String opcode, String operand) implements JvmInstruction {
+        @Override
+        public void emit(JasminEmitter out) {
+            out.instruction(opcode, operand);
+        }
+    }
+
+    record Iinc(int register, int increment) implements JvmInstruction {
+        @Override
+        public void emit(JasminEmitter out) {
+            out.iinc(register, increment);
+        }
+
+        @Override
+        public String opcode() {
+            return "iinc";
+        }
+    }
+
+    record Field(String opcode, String className, String fieldName, String descriptor) implements JvmInstruction {
+        @Override
+        public void emit(JasminEmitter out) {
+            out.fieldInstruction(opcode, className, fieldName, descriptor);
+        }
+    }
+
+    record Invoke(String opcode, String className, String methodName, String descriptor) implements JvmInstruction {
+        @Override
+        public void emit(JasminEmitter out) {
+            out.methodInstruction(opcode, className, methodName, descriptor);
+        }
+    }
+
+    record Label(String name) implements JvmInstruction {
+        @Override
+        public void emit(JasminEmitter out) {
+            out.label(name);
+        }
+
+        @Override
+        public String opcode() {
+            return null;
+        }
+    }
+
+    /**
+     * @param instruction
+     * @return the label the instruction may jump to, or null if it is not a branch
+     */
+    static String getTarget(JvmInstruction instruction) {
+        if (instruction instanceof WithString branch && (branch.opcode().startsWith("if") || branch.opcode().equals("goto"))) {
+            return branch.operand();
+        }
+
+        return null;
+    }
+
+    /**
+     * @param instruction
+     * @return true if the instruction never continues to the next one
+     */
+    static boolean isUnconditional(JvmInstruction instruction) {
+        var opcode = instruction.opcode();
+        return opcode != null && switch (opcode) {
+            case "goto", "return", "ireturn", "areturn", "athrow" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * @param instruction
+     * @return the integer the instruction pushes, or null if it does not push an integer constant
+     */
+    static Integer getConstant(JvmInstruction instruction) {
+        if (instruction instanceof Simple simple && simple.opcode().startsWith("iconst_")) {
+            var value = simple.opcode().substring("iconst_".length());
+            return value.equals("m1") ? -1 : Integer.parseInt(value);
+        }
+
+        if (instruction instanceof WithInt push && (push.opcode().equals("bipush") || push.opcode().equals("sipush"))) {
+            return push.operand();
+        }
+
+        if (instruction instanceof WithString ldc && ldc.opcode().equals("ldc")) {
+            try {
+                return Integer.parseInt(ldc.operand());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param value
+     * @return the shortest instruction that pushes the integer
+     */
+    static JvmInstruction constant(int value) {
+        if (value == -1) {
+            return new Simple("iconst_m1");
+        }
+        if (value >= 0 && value <= 5) {
+            return new Simple("iconst_" + value);
+        }
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            return new WithInt("bipush", value);
+        }
+        if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            return new WithInt("sipush", value);
+        }
+        return new WithString("ldc", String.valueOf(value));
+    }
+
+    /**
+     * @param instruction
+     * @param prefix 'i' or 'a'
+     * @return the register the instruction loads with the given prefix, or -1 if it is not such a load
+     */
+    static int getLoad(JvmInstruction instruction, char prefix) {
+        return getRegister(instruction, prefix + "load");
+    }
+
+    /**
+     * @param instruction
+     * @param prefix 'i' or 'a'
+     * @return the register the instruction stores with the given prefix, or -1 if it is not such a store
+     */
+    static int getStore(JvmInstruction instruction, char prefix) {
+        return getRegister(instruction, prefix + "store");
+    }
+
+    private static int getRegister(JvmInstruction instruction, String opcode) {
+        if (instruction instanceof WithInt withInt && withInt.opcode().equals(opcode)) {
+            return withInt.operand();
+        }
+
+        if (instruction instanceof Simple simple && simple.opcode().length() == opcode.length() + 2
+                && simple.opcode().startsWith(opcode + "_")) {
+            return simple.opcode().charAt(opcode.length() + 1) - '0';
+        }
+
+        return -1;
+    }
+}
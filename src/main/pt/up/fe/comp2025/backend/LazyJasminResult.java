@@ -0,0 +1,50 @@
+package pt.up.fe.comp2025.backend;
+
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.specs.util.SpecsCollections;
+
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * JasminResult whose code is only generated when needed.
+ * <p>
+ * The code can either be requested as a String, which is generated once and kept, or written directly to a
+ * {@link Writer} with {@link #write(Writer)}, which does not keep the whole code in memory. Code that was only written
+ * is generated again if later requested as a String.
+ * <p>
+ * The reports of the generator are only complete after the code has been generated.
+ */
+public class LazyJasminResult extends JasminResult {
+
+    private final JasminGenerator generator;
+    private final List<Report> ollirReports;
+
+    public LazyJasminResult(OllirResult ollirResult, JasminGenerator generator) {
+        super(ollirResult, null, generator.getReports());
+
+        this.generator = generator;
+        this.ollirReports = ollirResult.getReports();
+    }
+
+    @Override
+    public String getJasminCode() {
+        return generator.build();
+    }
+
+    /**
+     * Writes the Jasmin code to the given writer, as it is generated.
+     *
+     * @param writer
+     */
+    public void write(Writer writer) {
+        generator.build(writer);
+    }
+
+    @Override
+    public List<Report> getReports() {
+        return SpecsCollections.concat(ollirReports, generator.getReports());
+    }
+}
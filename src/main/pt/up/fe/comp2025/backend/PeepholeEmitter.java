@@ -0,0 +1,110 @@
+package pt.up.fe.comp2025.backend;
+
+import org.specs.comp.ollir.AccessModifier;
+import pt.up.fe.comp2025.backend.JvmInstruction.Field;
+import pt.up.fe.comp2025.backend.JvmInstruction.Iinc;
+import pt.up.fe.comp2025.backend.JvmInstruction.Invoke;
+import pt.up.fe.comp2025.backend.JvmInstruction.Label;
+import pt.up.fe.comp2025.backend.JvmInstruction.Simple;
+import pt.up.fe.comp2025.backend.JvmInstruction.WithInt;
+import pt.up.fe.comp2025.backend.JvmInstruction.WithString;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the instructions of each method as a list of {@link JvmInstruction}s, optimizes them with a
+ * {@link PeepholeOptimizer} and only then gives them to another {@link JasminEmitter}.
+ */
+public class PeepholeEmitter implements JasminEmitter {
+
+    private final JasminEmitter out;
+    private final PeepholeOptimizer optimizer;
+    private final List<JvmInstruction> instructions;
+
+    public PeepholeEmitter(JasminEmitter out, List<PeepholeRule> rules) {
+        this.out = out;
+        this.optimizer = new PeepholeOptimizer(rules);
+        this.instructions = new ArrayList<>();
+    }
+
+    @Override
+    public void beginClass(String className, String superClass) {
+        out.beginClass(className, superClass);
+    }
+
+    @Override
+    public void field(String name, String descriptor) {
+        out.field(name, descriptor);
+    }
+
+    @Override
+    public void defaultConstructor(String superClass) {
+        out.defaultConstructor(superClass);
+    }
+
+    @Override
+    public void beginMethod(AccessModifier access, boolean isStatic, String name, String descriptor) {
+        instructions.clear();
+        out.beginMethod(access, isStatic, name, descriptor);
+    }
+
+    @Override
+    public void instruction(String opcode) {
+        instructions.add(new Simple(opcode));
+    }
+
+    @Override
+    public void instruction(String opcode, int operand) {
+        instructions.add(new WithInt(opcode, operand));
+    }
+
+    @Override
+    public void instruction(String opcode, String operand) {
+        instructions.add(new WithString(opcode, operand));
+    }
+
+    @Override
+    public void iinc(int register, int increment) {
+        instructions.add(new Iinc(register, increment));
+    }
+
+    @Override
+    public void fieldInstruction(String opcode, String className, String fieldName, String descriptor) {
+        instructions.add(new Field(opcode, className, fieldName, descriptor));
+    }
+
+    @Override
+    public void methodInstruction(String opcode, String className, String methodName, String descriptor) {
+        instructions.add(new Invoke(opcode, className, methodName, descriptor));
+    }
+
+    @Override
+    public void label(String label) {
+        instructions.add(new Label(label));
+    }
+
+    @Override
+    public void endMethod(int maxStack, int maxLocals) {
+        int rewrites = optimizer.getNumRewrites();
+        for (var instruction : optimizer.optimize(instructions)) {
+            instruction.emit(out);
+        }
+        CompilerMetrics.count("peephole", optimizer.getNumRewrites() - rewrites);
+
+        out.endMethod(maxStack, maxLocals);
+    }
+
+    @Override
+    public void endClass() {
+        out.endClass();
+    }
+
+    /**
+     * @return the number of times a rule was applied, in every method emitted so far
+     */
+    public int getNumRewrites() {
+        return optimizer.getNumRewrites();
+    }
+}
@@ -0,0 +1,128 @@
+package pt.up.fe.comp2025.backend;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies a set of {@link PeepholeRule}s to the instructions of a method until none of them applies.
+ * <p>
+ * Each pass visits the instructions in order, trying the rules in the order they were given, and continues after the
+ * instructions that were replaced. Passes are repeated while some rule applies.
+ */
+public class PeepholeOptimizer {
+
+    /**
+     * Instructions of a method in the current pass, with the positions of its labels and how many branches jump to
+     * each of them.
+     */
+    public static class Code {
+
+        private final List<JvmInstruction> instructions;
+        private final Map<String, Integer> positions;
+        private final Map<String, Integer> references;
+
+        private Code(List<JvmInstruction> instructions) {
+            this.instructions = instructions;
+            this.positions = new HashMap<>();
+            this.references = new HashMap<>();
+
+            for (int i = 0; i < instructions.size(); i++) {
+                var instruction = instructions.get(i);
+                if (instruction instanceof JvmInstruction.Label label) {
+                    positions.put(label.name(), i);
+                }
+
+                var target = JvmInstruction.getTarget(instruction);
+                if (target != null) {
+                    references.merge(target, 1, Integer::sum);
+                }
+            }
+        }
+
+        /**
+         * @param index
+         * @return the instruction at the given index, or null if it is past the end of the method
+         */
+        public JvmInstruction get(int index) {
+            return index < instructions.size() ? instructions.get(index) : null;
+        }
+
+        public int getReferences(String label) {
+            return references.getOrDefault(label, 0);
+        }
+
+        /**
+         * @param label
+         * @return the first instruction after the label that is not a label, or null if there is none
+         */
+        public JvmInstruction getTarget(String label) {
+            var position = positions.get(label);
+            if (position == null) {
+                return null;
+            }
+
+            for (int i = position; i < instructions.size(); i++) {
+                if (!(instructions.get(i) instanceof JvmInstruction.Label)) {
+                    return instructions.get(i);
+                }
+            }
+
+            return null;
+        }
+    }
+
+    private final List<PeepholeRule> rules;
+    private int numRewrites;
+
+    public PeepholeOptimizer(List<PeepholeRule> rules) {
+        this.rules = rules;
+        this.numRewrites = 0;
+    }
+
+    public List<JvmInstruction> optimize(List<JvmInstruction> instructions) {
+        var replacement = new ArrayList<JvmInstruction>();
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            var code = new Code(instructions);
+            var optimized = new ArrayList<JvmInstruction>(instructions.size());
+
+            int index = 0;
+            while (index < instructions.size()) {
+                int replaced = 0;
+                for (var rule : rules) {
+                    replacement.clear();
+                    replaced = rule.apply(code, index, replacement);
+                    if (replaced > 0) {
+                        break;
+                    }
+                }
+
+                if (replaced > 0) {
+                    optimized.addAll(replacement);
+                    index += replaced;
+                    numRewrites++;
+                    changed = true;
+                } else {
+                    optimized.add(instructions.get(index));
+                    index++;
+                }
+            }
+
+            instructions = optimized;
+        }
+
+        return instructions;
+    }
+
+    /**
+     * @return the number of times a rule was applied, in every method optimized so far
+     */
+    public int getNumRewrites() {
+        return numRewrites;
+    }
+}
@@ -0,0 +1,20 @@
+package pt.up.fe.comp2025.backend;
+
+import java.util.List;
+
+/**
+ * Rewrites a short sequence of instructions of a method into a better one.
+ */
+@FunctionalInterface
+public interface PeepholeRule {
+
+    /**
+     * Tries to rewrite the instructions starting at the given index.
+     *
+     * @param code the instructions of the method
+     * @param index
+     * @param replacement where the new instructions are added
+     * @return the number of instructions replaced, or 0 if the rule does not apply
+     */
+    int apply(PeepholeOptimizer.Code code, int index, List<JvmInstruction> replacement);
+}
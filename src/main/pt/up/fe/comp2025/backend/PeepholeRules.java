@@ -0,0 +1,264 @@
+package pt.up.fe.comp2025.backend;
+
+import pt.up.fe.comp2025.backend.JvmInstruction.Iinc;
+import pt.up.fe.comp2025.backend.JvmInstruction.Label;
+import pt.up.fe.comp2025.backend.JvmInstruction.Simple;
+import pt.up.fe.comp2025.backend.JvmInstruction.WithInt;
+import pt.up.fe.comp2025.backend.JvmInstruction.WithString;
+
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Peephole rules for the instructions generated by {@link JasminGenerator}.
+ * <p>
+ * The generator always uses the general form of an instruction (e.g., iload 1, ldc 5, or a load, add and store of the
+ * same register), and the rules of {@link #selection()} pick the shorter ones.
+ */
+public final class PeepholeRules {
+
+    private PeepholeRules() {
+    }
+
+    /**
+     * Pushes integer constants with the shortest instruction (iconst, bipush, sipush or ldc).
+     */
+    public static final PeepholeRule CONSTANTS = (code, index, replacement) -> {
+        var value = JvmInstruction.getConstant(code.get(index));
+        if (value == null) {
+            return 0;
+        }
+
+        var constant = JvmInstruction.constant(value);
+        if (constant.equals(code.get(index))) {
+            return 0;
+        }
+
+        replacement.add(constant);
+        return 1;
+    };
+
+    /**
+     * Uses the short forms of loads and stores of the first four registers (e.g., iload_2).
+     */
+    public static final PeepholeRule REGISTERS = (code, index, replacement) -> {
+        if (!(code.get(index) instanceof WithInt instruction) || instruction.operand() < 0 || instruction.operand() > 3) {
+            return 0;
+        }
+
+        return switch (instruction.opcode()) {
+            case "iload", "aload", "istore", "astore" -> {
+                replacement.add(new Simple(instruction.opcode() + "_" + instruction.operand()));
+                yield 1;
+            }
+            default -> 0;
+        };
+    };
+
+    /**
+     * Removes stores of a register to itself, which are left by copies between variables that got the same register,
+     * and increments by zero.
+     */
+    public static final PeepholeRule LOAD_STORE = (code, index, replacement) -> {
+        if (code.get(index) instanceof Iinc iinc && iinc.increment() == 0) {
+            return 1;
+        }
+
+        for (char prefix : new char[]{'i', 'a'}) {
+            int register = JvmInstruction.getLoad(code.get(index), prefix);
+            if (register >= 0 && code.get(index + 1) != null
+                    && JvmInstruction.getStore(code.get(index + 1), prefix) == register) {
+                return 2;
+            }
+        }
+
+        return 0;
+    };
+
+    /**
+     * Replaces adding a constant to a register and storing the result in the same register by an iinc.
+     */
+    public static final PeepholeRule IINC = (code, index, replacement) -> {
+        var first = code.get(index);
+        var second = code.get(index + 1);
+        var operation = code.get(index + 2);
+        var store = code.get(index + 3);
+        if (second == null || operation == null || store == null) {
+            return 0;
+        }
+
+        int register = JvmInstruction.getStore(store, 'i');
+        if (register < 0) {
+            return 0;
+        }
+
+        Integer increment = null;
+        if ("iadd".equals(operation.opcode())) {
+            if (JvmInstruction.getLoad(first, 'i') == register) {
+                increment = JvmInstruction.getConstant(second);
+            } else if (JvmInstruction.getLoad(second, 'i') == register) {
+                increment = JvmInstruction.getConstant(first);
+            }
+        } else if ("isub".equals(operation.opcode()) && JvmInstruction.getLoad(first, 'i') == register) {
+            var constant = JvmInstruction.getConstant(second);
+            increment = constant == null ? null : -constant;
+        }
+
+        if (increment == null || increment < Byte.MIN_VALUE || increment > Byte.MAX_VALUE) {
+            return 0;
+        }
+
+        replacement.add(new Iinc(register, increment));
+        return 4;
+    };
+
+    /**
+     * Replaces branches on constants by a goto, if they are always taken, or removes them.
+     */
+    public static final PeepholeRule CONSTANT_BRANCH = (code, index, replacement) -> {
+        var first = JvmInstruction.getConstant(code.get(index));
+        if (first == null) {
+            return 0;
+        }
+
+        // Compares with zero
+        if (code.get(index + 1) instanceof WithString branch) {
+            var taken = compare(branch.opcode(), "if", first, 0);
+            if (taken != null) {
+                if (taken) {
+                    replacement.add(new WithString("goto", branch.operand()));
+                }
+                return 2;
+            }
+        }
+
+        // Compares two constants
+        var second = code.get(index + 1) == null ? null : JvmInstruction.getConstant(code.get(index + 1));
+        if (second != null && code.get(index + 2) instanceof WithString branch) {
+            var taken = compare(branch.opcode(), "if_icmp", first, second);
+            if (taken != null) {
+                if (taken) {
+                    replacement.add(new WithString("goto", branch.operand()));
+                }
+                return 3;
+            }
+        }
+
+        return 0;
+    };
+
+    /**
+     * Makes branches to a goto jump directly to its target.
+     */
+    public static final PeepholeRule JUMP_THREADING = (code, index, replacement) -> {
+        var instruction = code.get(index);
+        var label = JvmInstruction.getTarget(instruction);
+        if (label == null) {
+            return 0;
+        }
+
+        var visited = new HashSet<String>();
+        visited.add(label);
+
+        var target = label;
+        while (code.getTarget(target) instanceof WithString next && next.opcode().equals("goto")) {
+            target = next.operand();
+
+            // A cycle of gotos, i.e., an empty infinite loop
+            if (!visited.add(target)) {
+                return 0;
+            }
+        }
+
+        if (target.equals(label)) {
+            return 0;
+        }
+
+        replacement.add(new WithString(instruction.opcode(), target));
+        return 1;
+    };
+
+    /**
+     * Removes branches to the next instruction. Conditional branches still pop their operands.
+     */
+    public static final PeepholeRule REDUNDANT_BRANCH = (code, index, replacement) -> {
+        var instruction = code.get(index);
+        var target = JvmInstruction.getTarget(instruction);
+        if (target == null) {
+            return 0;
+        }
+
+        for (int i = index + 1; code.get(i) instanceof Label label; i++) {
+            if (label.name().equals(target)) {
+                if (instruction.opcode().startsWith("if_")) {
+                    replacement.add(new Simple("pop2"));
+                } else if (instruction.opcode().startsWith("if")) {
+                    replacement.add(new Simple("pop"));
+                }
+                return 1;
+            }
+        }
+
+        return 0;
+    };
+
+    /**
+     * Removes the instructions after a goto or return that no branch jumps to.
+     */
+    public static final PeepholeRule DEAD_CODE = (code, index, replacement) -> {
+        var instruction = code.get(index);
+        if (!JvmInstruction.isUnconditional(instruction)) {
+            return 0;
+        }
+
+        int end = index + 1;
+        while (code.get(end) != null && !(code.get(end) instanceof Label)) {
+            end++;
+        }
+
+        if (end == index + 1) {
+            return 0;
+        }
+
+        replacement.add(instruction);
+        return end - index;
+    };
+
+    /**
+     * Removes labels that no branch jumps to.
+     */
+    public static final PeepholeRule UNUSED_LABEL = (code, index, replacement) ->
+            code.get(index) instanceof Label label && code.getReferences(label.name()) == 0 ? 1 : 0;
+
+    /**
+     * @return the rules that choose the short forms of instructions and iinc, applied even without optimizations
+     */
+    public static List<PeepholeRule> selection() {
+        return List.of(CONSTANTS, REGISTERS, IINC);
+    }
+
+    /**
+     * @return all the rules, in the order they should be tried
+     */
+    public static List<PeepholeRule> defaults() {
+        return List.of(CONSTANTS, REGISTERS, LOAD_STORE, IINC, CONSTANT_BRANCH, JUMP_THREADING, REDUNDANT_BRANCH,
+                DEAD_CODE, UNUSED_LABEL);
+    }
+
+    // Returns null if the opcode is not a comparison with the given prefix
+    private static Boolean compare(String opcode, String prefix, int left, int right) {
+        if (!opcode.startsWith(prefix) || opcode.length() != prefix.length() + 2) {
+            return null;
+        }
+
+        return switch (opcode.substring(prefix.length())) {
+            case "eq" -> left == right;
+            case "ne" -> left != right;
+            case "lt" -> left < right;
+            case "ge" -> left >= right;
+            case "gt" -> left > right;
+            case "le" -> left <= right;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,262 @@
+package pt.up.fe.comp2025.backend;
+
+import org.specs.comp.ollir.AccessModifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes the maximum stack size of each method from the instructions given to another {@link JasminEmitter}.
+ * <p>
+ * Like the bytecode verifier, the height of the stack before each instruction is found by following the successors of
+ * the instructions from the start of the method, including the targets of branches, and must be the same in every
+ * path that reaches a label. The max stack given to {@link #endMethod(int, int)} is replaced by the computed one.
+ */
+public class StackHeightEmitter implements JasminEmitter {
+
+    private final JasminEmitter out;
+
+    // Effect of each instruction of the current method on the stack, and the label it may jump to
+    private int[] pops;
+    private int[] pushes;
+    private boolean[] fallsThrough;
+    private final List<String> targets;
+    private final Map<String, Integer> labels;
+    private int size;
+
+    public StackHeightEmitter(JasminEmitter out) {
+        this.out = out;
+        this.pops = new int[64];
+        this.pushes = new int[64];
+        this.fallsThrough = new boolean[64];
+        this.targets = new ArrayList<>();
+        this.labels = new HashMap<>();
+        this.size = 0;
+    }
+
+    @Override
+    public void beginClass(String className, String superClass) {
+        out.beginClass(className, superClass);
+    }
+
+    @Override
+    public void field(String name, String descriptor) {
+        out.field(name, descriptor);
+    }
+
+    @Override
+    public void defaultConstructor(String superClass) {
+        out.defaultConstructor(superClass);
+    }
+
+    @Override
+    public void beginMethod(AccessModifier access, boolean isStatic, String name, String descriptor) {
+        size = 0;
+        targets.clear();
+        labels.clear();
+
+        out.beginMethod(access, isStatic, name, descriptor);
+    }
+
+    @Override
+    public void instruction(String opcode) {
+        switch (opcode) {
+            case "return" -> add(0, 0, null, false);
+            case "ireturn", "areturn", "athrow" -> add(1, 0, null, false);
+            case "iadd", "isub", "imul", "idiv", "irem", "iand", "ior", "ixor", "ishl", "ishr", "iushr", "iaload",
+                 "aaload", "baload" -> add(2, 1);
+            case "iastore", "aastore", "bastore" -> add(3, 0);
+            case "ineg", "arraylength", "i2b", "i2c", "i2s" -> add(1, 1);
+            case "dup" -> add(1, 2);
+            case "dup_x1" -> add(2, 3);
+            case "pop" -> add(1, 0);
+            case "pop2" -> add(2, 0);
+            case "swap" -> add(2, 2);
+            case "nop" -> add(0, 0);
+            case "aconst_null" -> add(0, 1);
+            default -> {
+                if (opcode.startsWith("iconst_") || opcode.startsWith("iload_") || opcode.startsWith("aload_")) {
+                    add(0, 1);
+                } else if (opcode.startsWith("istore_") || opcode.startsWith("astore_")) {
+                    add(1, 0);
+                } else {
+                    throw new RuntimeException("Unknown stack effect of instruction '" + opcode + "'");
+                }
+            }
+        }
+
+        out.instruction(opcode);
+    }
+
+    @Override
+    public void instruction(String opcode, int operand) {
+        switch (opcode) {
+            case "iload", "aload", "bipush", "sipush" -> add(0, 1);
+            case "istore", "astore" -> add(1, 0);
+            default -> throw new RuntimeException("Unknown stack effect of instruction '" + opcode + "'");
+        }
+
+        out.instruction(opcode, operand);
+    }
+
+    @Override
+    public void instruction(String opcode, String operand) {
+        switch (opcode) {
+            case "goto" -> add(0, 0, operand, false);
+            case "ifeq", "ifne", "iflt", "ifge", "ifgt", "ifle", "ifnull", "ifnonnull" -> add(1, 0, operand, true);
+            case "if_icmpeq", "if_icmpne", "if_icmplt", "if_icmpge", "if_icmpgt", "if_icmple", "if_acmpeq",
+                 "if_acmpne" -> add(2, 0, operand, true);
+            case "ldc", "new" -> add(0, 1);
+            case "newarray", "anewarray", "checkcast", "instanceof" -> add(1, 1);
+            default -> throw new RuntimeException("Unknown stack effect of instruction '" + opcode + "'");
+        }
+
+        out.instruction(opcode, operand);
+    }
+
+    @Override
+    public void iinc(int register, int increment) {
+        add(0, 0);
+        out.iinc(register, increment);
+    }
+
+    @Override
+    public void fieldInstruction(String opcode, String className, String fieldName, String descriptor) {
+        int slots = slots(descriptor);
+        switch (opcode) {
+            case "getfield" -> add(1, slots);
+            case "putfield" -> add(1 + slots, 0);
+            case "getstatic" -> add(0, slots);
+            case "putstatic" -> add(slots, 0);
+            default -> throw new RuntimeException("Unknown stack effect of instruction '" + opcode + "'");
+        }
+
+        out.fieldInstruction(opcode, className, fieldName, descriptor);
+    }
+
+    @Override
+    public void methodInstruction(String opcode, String className, String methodName, String descriptor) {
+        int end = descriptor.indexOf(')');
+
+        int arguments = 0;
+        for (int i = 1; i < end; i++) {
+            char c = descriptor.charAt(i);
+            while (c == '[') {
+                c = descriptor.charAt(++i);
+            }
+            if (c == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+            arguments += (c == 'J' || c == 'D') ? 2 : 1;
+        }
+
+        int receiver = opcode.equals("invokestatic") ? 0 : 1;
+        add(receiver + arguments, slots(descriptor.substring(end + 1)));
+
+        out.methodInstruction(opcode, className, methodName, descriptor);
+    }
+
+    @Override
+    public void label(String label) {
+        labels.put(label, size);
+        out.label(label);
+    }
+
+    @Override
+    public void endMethod(int maxStack, int maxLocals) {
+        out.endMethod(computeMaxStack(), maxLocals);
+    }
+
+    @Override
+    public void endClass() {
+        out.endClass();
+    }
+
+    // Number of stack slots used by a value of the given type
+    private static int slots(String descriptor) {
+        return switch (descriptor) {
+            case "V" -> 0;
+            case "J", "D" -> 2;
+            default -> 1;
+        };
+    }
+
+    private void add(int pop, int push) {
+        add(pop, push, null, true);
+    }
+
+    private void add(int pop, int push, String target, boolean next) {
+        if (size == pops.length) {
+            pops = Arrays.copyOf(pops, size * 2);
+            pushes = Arrays.copyOf(pushes, size * 2);
+            fallsThrough = Arrays.copyOf(fallsThrough, size * 2);
+        }
+
+        pops[size] = pop;
+        pushes[size] = push;
+        fallsThrough[size] = next;
+        targets.add(target);
+        size++;
+    }
+
+    private int computeMaxStack() {
+        if (size == 0) {
+            return 0;
+        }
+
+        // Height of the stack before each instruction, -1 if it was not reached yet
+        var heights = new int[size];
+        Arrays.fill(heights, -1);
+        var worklist = new int[size];
+        int pending = 0;
+
+        heights[0] = 0;
+        worklist[pending++] = 0;
+        int max = 0;
+
+        while (pending > 0) {
+            int inst = worklist[--pending];
+            int height = heights[inst] - pops[inst];
+            if (height < 0) {
+                throw new RuntimeException("Stack underflow at instruction " + inst + " of the method");
+            }
+
+            height += pushes[inst];
+            max = Math.max(max, height);
+
+            if (fallsThrough[inst] && inst + 1 < size) {
+                pending = reach(inst + 1, height, heights, worklist, pending);
+            }
+
+            var target = targets.get(inst);
+            if (target != null) {
+                var index = labels.get(target);
+                if (index == null) {
+                    throw new RuntimeException("Undefined label '" + target + "'");
+                }
+
+                // A label at the end of the method has no instruction after it
+                if (index < size) {
+                    pending = reach(index, height, heights, worklist, pending);
+                }
+            }
+        }
+
+        return max;
+    }
+
+    private static int reach(int inst, int height, int[] heights, int[] worklist, int pending) {
+        if (heights[inst] < 0) {
+            heights[inst] = height;
+            worklist[pending++] = inst;
+        } else if (heights[inst] != height) {
+            throw new RuntimeException("Stack height " + height + " does not match the height " + heights[inst]
+                    + " of a previous path at instruction " + inst + " of the method");
+        }
+
+        return pending;
+    }
+}
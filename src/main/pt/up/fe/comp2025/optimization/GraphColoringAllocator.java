@@ -0,0 +1,277 @@
+package pt.up.fe.comp2025.optimization;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Chaitin-Briggs register allocator, which colors an interference graph with k colors.
+ * <p>
+ * Moves are first coalesced conservatively (Briggs test), so that both variables of a copy share a color whenever that
+ * does not make the graph harder to color. Nodes are then simplified in order of increasing degree, using buckets of
+ * nodes with the same degree, and when every node has at least k neighbors the one with the highest degree is removed
+ * optimistically. Nodes that get no color below k when they are selected are spilled: on the JVM local variables are
+ * already memory, so they just get colors after the first k, shared by spilled nodes that do not interfere.
+ * <p>
+ * Coalescing adds edges to the graph.
+ */
+public class GraphColoringAllocator {
+
+    private final InterferenceGraph graph;
+    private final int k;
+    private final int[] alias;
+    private final int[] degrees;
+    private final int[] colors;
+
+    // Doubly linked lists of the nodes with each degree
+    private final int[] buckets;
+    private final int[] next;
+    private final int[] previous;
+
+    private int numColors;
+    private int numCoalesced;
+    private int numSpilled;
+
+    public GraphColoringAllocator(InterferenceGraph graph, int k) {
+        int size = graph.getNumNodes();
+
+        this.graph = graph;
+        this.k = k;
+        this.alias = new int[size];
+        this.degrees = new int[size];
+        this.colors = new int[size];
+        this.buckets = new int[size];
+        this.next = new int[size];
+        this.previous = new int[size];
+
+        for (int node = 0; node < size; node++) {
+            alias[node] = node;
+            degrees[node] = graph.getDegree(node);
+        }
+        Arrays.fill(colors, -1);
+        Arrays.fill(buckets, -1);
+    }
+
+    /**
+     * Colors the graph, optionally coalescing its moves first.
+     *
+     * @param coalesce
+     * @return this allocator
+     */
+    public GraphColoringAllocator allocate(boolean coalesce) {
+        if (coalesce) {
+            coalesce();
+        }
+
+        select(simplify());
+
+        return this;
+    }
+
+    private int find(int node) {
+        while (alias[node] != node) {
+            alias[node] = alias[alias[node]];
+            node = alias[node];
+        }
+        return node;
+    }
+
+    private boolean isActive(int node) {
+        return alias[node] == node;
+    }
+
+    private void coalesce() {
+        var mark = new int[graph.getNumNodes()];
+        int stamp = 0;
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (var move : graph.getMoves()) {
+                int u = find(move[0]);
+                int v = find(move[1]);
+                if (u == v || graph.interferes(u, v)) {
+                    continue;
+                }
+
+                stamp++;
+                if (significantNeighbors(u, v, mark, stamp) + significantNeighbors(v, u, mark, stamp) >= k) {
+                    continue;
+                }
+
+                merge(u, v);
+                numCoalesced++;
+                changed = true;
+            }
+        }
+    }
+
+    // Neighbors of the node not yet counted that would still have at least k neighbors after merging it with the other
+    private int significantNeighbors(int node, int other, int[] mark, int stamp) {
+        int count = 0;
+
+        var neighbors = graph.getNeighbors(node);
+        for (int i = 0; i < graph.getDegree(node); i++) {
+            int t = neighbors[i];
+            if (!isActive(t) || mark[t] == stamp) {
+                continue;
+            }
+            mark[t] = stamp;
+
+            int degree = graph.interferes(t, other) ? degrees[t] - 1 : degrees[t];
+            if (degree >= k) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private void merge(int u, int v) {
+        alias[v] = u;
+
+        var neighbors = graph.getNeighbors(v);
+        for (int i = 0; i < graph.getDegree(v); i++) {
+            int t = neighbors[i];
+            if (!isActive(t)) {
+                continue;
+            }
+
+            if (graph.interferes(u, t)) {
+                // Loses v, already had u
+                degrees[t]--;
+            } else {
+                graph.addEdge(u, t);
+                degrees[u]++;
+            }
+        }
+    }
+
+    private void insert(int node) {
+        int degree = degrees[node];
+        previous[node] = -1;
+        next[node] = buckets[degree];
+        if (buckets[degree] >= 0) {
+            previous[buckets[degree]] = node;
+        }
+        buckets[degree] = node;
+    }
+
+    private void remove(int node) {
+        if (previous[node] >= 0) {
+            next[previous[node]] = next[node];
+        } else {
+            buckets[degrees[node]] = next[node];
+        }
+        if (next[node] >= 0) {
+            previous[next[node]] = previous[node];
+        }
+    }
+
+    // Returns the nodes in the order they were removed
+    private int[] simplify() {
+        int size = graph.getNumNodes();
+        var removed = new boolean[size];
+        var stack = new int[size];
+        int top = 0;
+
+        int remaining = 0;
+        int min = size;
+        int max = 0;
+        for (int node = 0; node < size; node++) {
+            if (isActive(node)) {
+                insert(node);
+                remaining++;
+                min = Math.min(min, degrees[node]);
+                max = Math.max(max, degrees[node]);
+            } else {
+                removed[node] = true;
+            }
+        }
+
+        while (remaining > 0) {
+            while (buckets[min] < 0) {
+                min++;
+            }
+
+            int node;
+            if (min < k) {
+                node = buckets[min];
+            } else {
+                // Every node has at least k neighbors, remove the one that constrains the most and hope for the best
+                while (buckets[max] < 0) {
+                    max--;
+                }
+                node = buckets[max];
+            }
+
+            remove(node);
+            removed[node] = true;
+            stack[top++] = node;
+            remaining--;
+
+            var neighbors = graph.getNeighbors(node);
+            for (int i = 0; i < graph.getDegree(node); i++) {
+                int t = neighbors[i];
+                if (removed[t]) {
+                    continue;
+                }
+
+                remove(t);
+                degrees[t]--;
+                insert(t);
+                min = Math.min(min, degrees[t]);
+            }
+        }
+
+        return Arrays.copyOf(stack, top);
+    }
+
+    private void select(int[] stack) {
+        var used = new BitSet();
+
+        for (int i = stack.length - 1; i >= 0; i--) {
+            int node = stack[i];
+
+            used.clear();
+            var neighbors = graph.getNeighbors(node);
+            for (int j = 0; j < graph.getDegree(node); j++) {
+                int t = neighbors[j];
+                if (isActive(t) && colors[t] >= 0) {
+                    used.set(colors[t]);
+                }
+            }
+
+            int color = used.nextClearBit(0);
+            if (color >= k) {
+                numSpilled++;
+            }
+
+            colors[node] = color;
+            numColors = Math.max(numColors, color + 1);
+        }
+    }
+
+    /**
+     * @param node
+     * @return the color of the node, the same as the node it was coalesced with, if any
+     */
+    public int getColor(int node) {
+        return colors[find(node)];
+    }
+
+    /**
+     * @return the number of colors used, including the ones given to spilled nodes
+     */
+    public int getNumColors() {
+        return numColors;
+    }
+
+    public int getNumCoalesced() {
+        return numCoalesced;
+    }
+
+    public int getNumSpilled() {
+        return numSpilled;
+    }
+}
@@ -0,0 +1,191 @@
+package pt.up.fe.comp2025.optimization;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.inst.AssignInstruction;
+import org.specs.comp.ollir.inst.SingleOpInstruction;
+import pt.up.fe.comp2025.optimization.dataflow.Liveness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interference graph of the local variables of a method, where two variables interfere if one of them is defined
+ * while the other is live.
+ * <p>
+ * Edges are kept both in a bit matrix, to test them in constant time, and in adjacency lists, to visit the neighbors
+ * of a node in time proportional to its degree. Copies between two variables (moves) do not make them interfere by
+ * themselves, so that the allocator can try to give both the same register.
+ */
+public class InterferenceGraph {
+
+    private final List<String> variables;
+    private final Map<String, Integer> indexes;
+    private final BitSet[] matrix;
+    private final int[][] adjacency;
+    private final int[] degrees;
+    private final List<int[]> moves;
+
+    private InterferenceGraph(List<String> variables) {
+        this.variables = variables;
+        this.indexes = new HashMap<>();
+        this.matrix = new BitSet[variables.size()];
+        this.adjacency = new int[variables.size()][];
+        this.degrees = new int[variables.size()];
+        this.moves = new ArrayList<>();
+
+        for (int i = 0; i < variables.size(); i++) {
+            indexes.put(variables.get(i), i);
+            matrix[i] = new BitSet();
+            adjacency[i] = new int[4];
+        }
+    }
+
+    /**
+     * @param method
+     * @return the variables in the var table of the method, except for 'this' and the parameters, which have fixed
+     * registers
+     */
+    public static Set<String> getAllocatableVariables(Method method) {
+        var excluded = new HashSet<String>();
+        excluded.add("this");
+        for (var param : method.getParams()) {
+            excluded.add(((Operand) param).getName());
+        }
+
+        var variables = new LinkedHashSet<String>();
+        for (var variable : method.getVarTable().keySet()) {
+            if (!excluded.contains(variable)) {
+                variables.add(variable);
+            }
+        }
+
+        return variables;
+    }
+
+    /**
+     * Builds the graph of the allocatable variables of the method.
+     *
+     * @param method
+     * @param liveness
+     * @return the interference graph of the method
+     */
+    public static InterferenceGraph build(Method method, Liveness liveness) {
+        var variables = new ArrayList<>(getAllocatableVariables(method));
+
+        var graph = new InterferenceGraph(variables);
+
+        // Number of each liveness variable in the graph, or -1 if it is not a node
+        var nodes = new int[liveness.getNumVariables()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = graph.getIndex(liveness.getVariable(i));
+        }
+
+        for (var inst : method.getInstructions()) {
+            var defs = liveness.getDefs(inst);
+            if (defs.isEmpty()) {
+                continue;
+            }
+
+            int source = -1;
+            if (inst instanceof AssignInstruction assign && assign.getRhs() instanceof SingleOpInstruction singleOp
+                    && singleOp.getSingleOperand() instanceof Operand operand && !operand.isLiteral()
+                    && !(operand instanceof ArrayOperand)) {
+                source = graph.getIndex(operand.getName());
+            }
+
+            var out = liveness.getLiveOut(inst);
+            for (int i = defs.nextSetBit(0); i >= 0; i = defs.nextSetBit(i + 1)) {
+                int a = nodes[i];
+                if (a < 0) {
+                    continue;
+                }
+
+                for (int j = out.nextSetBit(0); j >= 0; j = out.nextSetBit(j + 1)) {
+                    int b = nodes[j];
+                    if (b >= 0 && b != source) {
+                        graph.addEdge(a, b);
+                    }
+                }
+
+                if (source >= 0 && source != a) {
+                    graph.moves.add(new int[]{a, source});
+                }
+            }
+        }
+
+        return graph;
+    }
+
+    public int getNumNodes() {
+        return variables.size();
+    }
+
+    public String getVariable(int node) {
+        return variables.get(node);
+    }
+
+    /**
+     * @param variable
+     * @return the node of the variable, or -1 if it is not in the graph
+     */
+    public int getIndex(String variable) {
+        return indexes.getOrDefault(variable, -1);
+    }
+
+    /**
+     * Adds an edge between two nodes, if they are different and not yet connected.
+     *
+     * @param a
+     * @param b
+     */
+    public void addEdge(int a, int b) {
+        if (a == b || matrix[a].get(b)) {
+            return;
+        }
+
+        matrix[a].set(b);
+        matrix[b].set(a);
+        addNeighbor(a, b);
+        addNeighbor(b, a);
+    }
+
+    private void addNeighbor(int node, int neighbor) {
+        if (degrees[node] == adjacency[node].length) {
+            adjacency[node] = Arrays.copyOf(adjacency[node], degrees[node] * 2);
+        }
+
+        adjacency[node][degrees[node]++] = neighbor;
+    }
+
+    public boolean interferes(int a, int b) {
+        return matrix[a].get(b);
+    }
+
+    public int getDegree(int node) {
+        return degrees[node];
+    }
+
+    /**
+     * @param node
+     * @return the neighbors of the node, only the first {@link #getDegree(int)} entries are valid
+     */
+    public int[] getNeighbors(int node) {
+        return adjacency[node];
+    }
+
+    /**
+     * @return the copies between two variables of the graph, as pairs of destination and source nodes
+     */
+    public List<int[]> getMoves() {
+        return moves;
+    }
+}
@@ -12,6 +12,9 @@ import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.ReportType;
 import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.optimization.dataflow.Liveness;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
 import org.specs.comp.ollir.Method;
 
 import java.util.*;
@@ -21,26 +24,38 @@ public class JmmOptimizationImpl implements JmmOptimization {
     private JmmSemanticsResult savedSemanticsResult;
     @Override
     public OllirResult toOllir(JmmSemanticsResult semanticsResult) {
+        try (var timer = CompilerMetrics.time("ollir")) {
 
-        // Create visitor that will generate the OLLIR code
-        var visitor = new OllirGeneratorVisitor(semanticsResult.getSymbolTable());
+            // Create visitor that will generate the OLLIR code
+            // With optimizations, conditions branch directly instead of computing booleans
+            var visitor = new OllirGeneratorVisitor(semanticsResult.getSymbolTable(),
+                    CompilerConfig.getOptimize(semanticsResult.getConfig()));
 
-        // Visit the AST and obtain OLLIR code
-        var ollirCode = visitor.visit(semanticsResult.getRootNode());
-
-        //System.out.println("\nOLLIR:\n\n" + ollirCode);
-
-        return new OllirResult(semanticsResult, ollirCode, Collections.emptyList());
+            // Visit the AST and build the OLLIR class, which the backend uses without printing and parsing it
+            try (var generationTimer = CompilerMetrics.time("generation")) {
+                var ollirClass = visitor.build(semanticsResult.getRootNode());
+                return new LazyOllirResult(semanticsResult, ollirClass, Collections.emptyList());
+            }
+        }
     }
 
-    public record Triple<A, B, C>(A first, B second, C third) {}
-
     @Override
     public JmmSemanticsResult optimize(JmmSemanticsResult semanticsResult) {
 
         this.savedSemanticsResult = semanticsResult;
         //TODO: Do your AST-based optimizations here
         if (CompilerConfig.getOptimize(semanticsResult.getConfig())) {
+            try (var timer = CompilerMetrics.time("astOptimization")) {
+                optimizeAst(semanticsResult);
+            }
+        }
+
+        return semanticsResult;
+
+    }
+
+    private void optimizeAst(JmmSemanticsResult semanticsResult) {
+        {
             var constantPropVisitor = new OllirConstPropVisitor();
             var constantFoldingVisitor = new OllirConstFoldingVisitor();
 
@@ -50,11 +65,11 @@ public class JmmOptimizationImpl implements JmmOptimization {
                 if (!constantFolded && !constantPropagated) {
                     break;
                 }
+
+                // The AST changed, previously computed expression types may no longer hold
+                ((JmmSymbolTable) semanticsResult.getSymbolTable()).clearTypeCache();
             }
         }
-
-        return semanticsResult;
-
     }
 
     @Override
@@ -62,21 +77,33 @@ public class JmmOptimizationImpl implements JmmOptimization {
         //System.out.println("Registering allocation");
         var config = ollirResult.getConfig();
         int k = CompilerConfig.getRegisterAllocation(config);
+        boolean linearScan = CompilerConfig.getLinearScan(config);
         //System.out.println("print n"+k);
 
         if (k == -1) {
+            // Register allocation already shares registers between temporaries
+            if (CompilerConfig.getOptimize(config) && savedSemanticsResult != null) {
+                try (var timer = CompilerMetrics.time("temporaryReuse")) {
+                    reuseTemporaries(ollirResult);
+                }
+            }
+
             return ollirResult;
         }
 
-        ollirResult.getOllirClass().buildCFGs();
+        try (var timer = CompilerMetrics.time("registerAllocation")) {
+            try (var cfgTimer = CompilerMetrics.time("cfg")) {
+                ollirResult.getOllirClass().buildCFGs();
+            }
 
-        for (var method : ollirResult.getOllirClass().getMethods()) {
             if (k == 0) k = Integer.MAX_VALUE;
-            inOutReg(method, k);
+            for (var method : ollirResult.getOllirClass().getMethods()) {
+                try (var methodTimer = CompilerMetrics.time("method:" + method.getMethodName())) {
+                    inOutReg(method, k, linearScan);
+                }
+            }
         }
 
-        int max = 0;
-
         // 4 registos
         // 0 -> this
         // 1 -> args
@@ -88,6 +115,7 @@ public class JmmOptimizationImpl implements JmmOptimization {
 
         for (var method : ollirResult.getOllirClass().getMethods()) {
             var VT = method.getVarTable();
+            int max = -1;
             for (var reg : VT.keySet()) {
                 int val = VT.get(reg).getVirtualReg();
                 max = Math.max(max, val);
@@ -98,7 +126,7 @@ public class JmmOptimizationImpl implements JmmOptimization {
                 //max=max-1-method.getParams().size();
                 max = Math.max(max, val);*/
             }
-            int regs = max + 1 - 1 - method.getParams().size();
+            int regs = max + 1 - firstRegister(method);
 
             if (regs > k){
                 List<Report> newReports = new ArrayList<>(ollirResult.getReports());
@@ -139,239 +167,87 @@ public class JmmOptimizationImpl implements JmmOptimization {
         return ollirResult;
     }
 
-    private void inOutReg(Method m, int k){
-        int sz = m.getInstructions().size();
-
-        Map<Instruction, Set<String>>IN = new HashMap<>();
-        Map<Instruction, Set<String>>OUT = new HashMap<>();
-        Map<Instruction, Set<String>>OLD_IN = new HashMap<>();
-        Map<Instruction, Set<String>>OLD_OUT = new HashMap<>();
-        Map<Instruction, Set<String>>DEF = new HashMap<>();
-        Map<Instruction, Set<String>>USE = new HashMap<>();
-
-        for (int i = 0; i < sz; i++) {
-            Instruction inst = m.getInstructions().get(i);
-            DEF.put(inst, getDefs(inst));
-            USE.put(inst, getUses(inst));
-            IN.put(inst, new HashSet<>());
-            OUT.put(inst, new HashSet<>());
+    private void reuseTemporaries(OllirResult ollirResult) {
+        try (var cfgTimer = CompilerMetrics.time("cfg")) {
+            ollirResult.getOllirClass().buildCFGs();
         }
 
-        while(true){
-            for(var inst: m.getInstructions()){
-                OLD_IN.put(inst, IN.get(inst));
-                OLD_OUT.put(inst, OUT.get(inst));
-
-                Set<String> aux = new HashSet<>();
-                for (var succ : inst.getSuccessors()) {
-                    if (IN.get(succ) != null) {
-                        aux.addAll(IN.get(succ));
-                    }
-                }
-                OUT.put(inst, aux);
-
-                Set<String> aux2 = new HashSet<>(OUT.get(inst));
-                aux2.removeAll(DEF.get(inst));
-                Set<String> inSet = new HashSet<>(USE.get(inst));
-                inSet.addAll(aux2);
-                IN.put(inst, inSet);
-
-            }
-
-            if(OLD_IN.equals(IN) && OLD_OUT.equals(OUT)){break;}
-
-
-        }
-
-        Map<String, Set<String>> interferenceGraph = new HashMap<>();
-
-        for (String var : m.getVarTable().keySet()){
-            interferenceGraph.put(var, new HashSet<>());
-        }
-
-        for(var p : m.getParams()){
-            interferenceGraph.remove(((Operand) p).getName());
-        }
-        interferenceGraph.remove("this");
-
-        for (Instruction inst : m.getInstructions()) {
-            for(String a : DEF.get(inst)){
-                for(String b : OUT.get(inst)){
-                    if(!a.equals(b)){
-                        if (interferenceGraph.containsKey(a) && interferenceGraph.containsKey(b)){
-                            interferenceGraph.get(a).add(b);
-                            interferenceGraph.get(b).add(a);
-                        }
-                    }
-                }
+        var symbolTable = savedSemanticsResult.getSymbolTable();
+        for (var method : ollirResult.getOllirClass().getMethods()) {
+            // Variables that are not in the symbol table were introduced by the compiler
+            var temporaries = InterferenceGraph.getAllocatableVariables(method);
+            if (!method.isConstructMethod()) {
+                symbolTable.getLocalVariablesTry(method.getMethodName())
+                        .ifPresent(locals -> locals.forEach(local -> temporaries.remove(local.getName())));
             }
 
+            CompilerMetrics.count("reused", new TemporaryReuse(method, temporaries).apply());
         }
+    }
 
+    private void inOutReg(Method m, int k, boolean linearScan){
+        var liveness = new Liveness(m);
 
-        Stack<Triple<String, Set<String>, Integer>> stack = new Stack<>();
-        Map<String, Integer> colorMap = new HashMap<>();
-        Set<String> spilled = new HashSet<>();
-
-        while(true) {
-            Set<String> oldSpilled = new HashSet<>(spilled);
-
-            while (!interferenceGraph.isEmpty()) {
-                boolean flag = false;
-                List<String> toRemove = new ArrayList<>();
-                for (var node : new HashSet<>(interferenceGraph.keySet())) {
-                    if (interferenceGraph.get(node).size() < k) {
-                        Triple<String, Set<String>, Integer> vars = new Triple<>(node, interferenceGraph.get(node), -1);
-                        stack.push(vars);
-                        toRemove.add(node);
-                        for (String node2 : toRemove) {
-                            interferenceGraph.remove(node2);
-                            for (String other : interferenceGraph.keySet()) {
-                                interferenceGraph.get(other).remove(node2);
-                            }
-                        }
-                        flag = true;
-                    }
-                }
-                if (!flag) {
-                    for (var node : new HashSet<>(interferenceGraph.keySet())) {
-                        Triple<String, Set<String>, Integer> vars = new Triple<>(node, interferenceGraph.get(node), 0);
-                        stack.push(vars);
-                        interferenceGraph.remove(node);
-                        for (var node2 : interferenceGraph.keySet()) {
-                            interferenceGraph.get(node2).remove(node);
-                        }
-                    }
-                }
+        var colors = linearScan ? linearScan(m, liveness, k) : graphColoring(m, liveness, k);
 
-            }
+        updateVarTable(m, colors);
+    }
 
-            while (!stack.isEmpty()) {
-                Triple<String, Set<String>, Integer> vars = stack.pop();
-                Set<Integer> usedColors = new HashSet<>();
-                for (String neighbor : vars.second) {
-                    if (colorMap.containsKey(neighbor)) {
-                        usedColors.add(colorMap.get(neighbor));
-                    }
-                }
-                if (vars.third.equals(-1)) {
-                    interferenceGraph.put(vars.first, vars.second);
-
-                    int color = 1 + m.getParams().size();
-                    while (usedColors.contains(color)) {
-                        color++;
-                    }
-
-                    colorMap.put(vars.first, color);
-                } else if (vars.third.equals(0)) {
-                    if (usedColors.size() < k) {
-                        interferenceGraph.put(vars.first, vars.second);
-
-                        int color = 1 + m.getParams().size();
-                        while (usedColors.contains(color)) {
-                            color++;
-                        }
-
-                        colorMap.put(vars.first, color);
-                    } else {
-                        spilled.add(vars.first);
-                    }
-                }
-            }
+    private static Map<String, Integer> linearScan(Method m, Liveness liveness, int k) {
+        var allocator = new LinearScanAllocator(m, liveness, k).allocate();
+        CompilerMetrics.count("spilled", allocator.getNumSpilled());
 
-            if(oldSpilled.equals(spilled)){break;}
+        return allocator.getColors();
+    }
 
+    private static Map<String, Integer> graphColoring(Method m, Liveness liveness, int k) {
+        var graph = InterferenceGraph.build(m, liveness);
 
+        // Coalescing is only conservative for a finite k, use as many registers as needed without it
+        if (k == Integer.MAX_VALUE) {
+            k = new GraphColoringAllocator(graph, k).allocate(false).getNumColors();
         }
 
-        //System.out.println("\n--- Alocação de Registradores ---");
-        for (var entry : colorMap.entrySet()) {
-            String var = entry.getKey();
-            int reg = entry.getValue();
-            if (reg >= 0) {
-                //System.out.println(var + " → r" + reg);
-            }
-        }
+        var allocator = new GraphColoringAllocator(graph, k).allocate(true);
+        CompilerMetrics.count("coalesced", allocator.getNumCoalesced());
+        CompilerMetrics.count("spilled", allocator.getNumSpilled());
 
-        for(var s: spilled){
-            //System.out.println("SPILLED "+s);
+        Map<String, Integer> colors = new HashMap<>();
+        for (int node = 0; node < graph.getNumNodes(); node++) {
+            colors.put(graph.getVariable(node), allocator.getColor(node));
         }
 
+        return colors;
+    }
 
-        var VT = m.getVarTable();
+    // 'this' and the parameters come first, in their fixed registers
+    private static int firstRegister(Method m) {
+        return (m.isStaticMethod() ? 0 : 1) + m.getParams().size();
+    }
 
-        for (var color : colorMap.keySet()) {
-            VT.put(color, new Descriptor(colorMap.get(color)));
-        }
+    private static void updateVarTable(Method m, Map<String, Integer> colors) {
+        var VT = m.getVarTable();
 
-        int number = colorMap.size();
-        for (var s : spilled) {
-            number++;
-            //System.out.println("number spilled" + number);
-            VT.put(s, new Descriptor(number));
+        int number = 0;
+        if (!m.isStaticMethod()) {
+            setRegister(VT, "this", number++);
         }
 
-
-        VT.put("this", new Descriptor(0));
-
-        number = 1;
-        for(var p : m.getParams()){
-            //System.out.println("number param" + number);
-            VT.put(((Operand) p).getName(), new Descriptor(number));
-            number++;
+        for (var p : m.getParams()) {
+            setRegister(VT, ((Operand) p).getName(), number++);
         }
-    }
 
-    private Set<String> getDefs(Instruction instruction) {
-        Set<String> defs = new HashSet<>();
-        if (instruction instanceof AssignInstruction assign) {
-            if (assign.getDest() instanceof Operand dest) {
-                defs.add(dest.getName());
-            }
+        for (var color : colors.entrySet()) {
+            setRegister(VT, color.getKey(), number + color.getValue());
         }
-        return defs;
     }
 
-    private Set<String> getUses(Instruction instruction) {
-        Set<String> uses = new HashSet<>();
-
-        if (instruction instanceof AssignInstruction assign) {
-            var rhs = assign.getRhs();
-
-            if (rhs instanceof BinaryOpInstruction binOp) {
-                Element left = binOp.getLeftOperand();
-                Element right = binOp.getRightOperand();
-
-                if (left instanceof Operand lOp && !lOp.isLiteral()) {
-                    uses.add(lOp.getName());
-                }
-                if (right instanceof Operand rOp && !rOp.isLiteral()) {
-                    uses.add(rOp.getName());
-                }
-            }
-
-            else if (rhs instanceof SingleOpInstruction singleOp) {
-                Element single = singleOp.getSingleOperand();
-
-                if (single instanceof Operand op && !op.isLiteral()) {
-                    uses.add(op.getName());
-                }
-            }
-
+    private static void setRegister(Map<String, Descriptor> VT, String variable, int register) {
+        var descriptor = VT.get(variable);
+        if (descriptor == null) {
+            VT.put(variable, new Descriptor(register));
+        } else {
+            descriptor.setVirtualReg(register);
         }
-        else if (instruction instanceof GetFieldInstruction gf) {
-            uses.add(gf.getField().getName());
-        }
-        else if (instruction instanceof ReturnInstruction ret) {
-            ret.getOperand().ifPresent(elem -> {
-                if (elem instanceof Operand op && !op.isLiteral()) {
-                    uses.add(op.getName());
-                }
-            });
-
-        }
-        return uses;
     }
-
-
 }
@@ -0,0 +1,43 @@
+package pt.up.fe.comp2025.optimization;
+
+import org.specs.comp.ollir.ClassUnit;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.report.Report;
+
+import java.util.List;
+
+/**
+ * OllirResult for a class that was built directly as OLLIR objects, whose code is only printed when needed.
+ * <p>
+ * OllirResult always parses the code it receives, so the parent is given a minimal class instead, which is never
+ * used.
+ */
+public class LazyOllirResult extends OllirResult {
+
+    private static final String STUB_CODE = "Stub {}";
+
+    private final ClassUnit ollirClass;
+    private String ollirCode;
+
+    public LazyOllirResult(JmmSemanticsResult semanticsResult, ClassUnit ollirClass, List<Report> reports) {
+        super(semanticsResult, STUB_CODE, reports);
+
+        this.ollirClass = ollirClass;
+        this.ollirCode = null;
+    }
+
+    @Override
+    public ClassUnit getOllirClass() {
+        return ollirClass;
+    }
+
+    @Override
+    public String getOllirCode() {
+        if (ollirCode == null) {
+            ollirCode = OllirPrinter.print(ollirClass);
+        }
+
+        return ollirCode;
+    }
+}
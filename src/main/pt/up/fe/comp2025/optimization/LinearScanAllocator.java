@@ -0,0 +1,137 @@
+package pt.up.fe.comp2025.optimization;
+
+import org.specs.comp.ollir.Method;
+import pt.up.fe.comp2025.optimization.dataflow.Liveness;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Linear scan register allocator, faster than coloring the interference graph but usually with more registers.
+ * <p>
+ * Each variable gets a single live interval, from the first to the last point where it is live in the order of the
+ * instructions of the method. Point 2i is before instruction i and point 2i+1 after it, so a variable last used by an
+ * instruction can share its register with the variable the instruction defines. Intervals are visited by start, and
+ * each one gets the lowest register not used by the active intervals that overlap it. Intervals that get no register
+ * below k are spilled, like in {@link GraphColoringAllocator}.
+ */
+public class LinearScanAllocator {
+
+    private final Method method;
+    private final Liveness liveness;
+    private final Set<String> variables;
+    private final int k;
+    private final Map<String, Integer> colors;
+
+    private int numColors;
+    private int numSpilled;
+
+    public LinearScanAllocator(Method method, Liveness liveness, int k) {
+        this(method, liveness, InterferenceGraph.getAllocatableVariables(method), k);
+    }
+
+    /**
+     * @param method
+     * @param liveness
+     * @param variables the variables to allocate, the others keep their registers
+     * @param k
+     */
+    public LinearScanAllocator(Method method, Liveness liveness, Set<String> variables, int k) {
+        this.method = method;
+        this.liveness = liveness;
+        this.variables = variables;
+        this.k = k;
+        this.colors = new HashMap<>();
+    }
+
+    public LinearScanAllocator allocate() {
+        int size = liveness.getNumVariables();
+        var starts = new int[size];
+        var ends = new int[size];
+        Arrays.fill(starts, -1);
+
+        int point = 0;
+        for (var inst : method.getInstructions()) {
+            extend(liveness.getLiveIn(inst), point, starts, ends);
+            extend(liveness.getDefs(inst), point + 1, starts, ends);
+            extend(liveness.getLiveOut(inst), point + 1, starts, ends);
+            point += 2;
+        }
+
+        // Sorts the intervals by start, keeping the number of the variable in the lower bits
+        var intervals = new long[size];
+        int numIntervals = 0;
+        for (int i = 0; i < size; i++) {
+            if (starts[i] >= 0 && variables.contains(liveness.getVariable(i))) {
+                intervals[numIntervals++] = ((long) starts[i] << 32) | i;
+            }
+        }
+        Arrays.sort(intervals, 0, numIntervals);
+
+        // Active intervals by end
+        var active = new PriorityQueue<Long>();
+        var used = new BitSet();
+        var registers = new int[size];
+
+        for (int i = 0; i < numIntervals; i++) {
+            int variable = (int) intervals[i];
+
+            while (!active.isEmpty() && (int) (active.peek() >>> 32) < starts[variable]) {
+                used.clear(registers[(int) (long) active.poll()]);
+            }
+
+            int register = used.nextClearBit(0);
+            if (register >= k) {
+                numSpilled++;
+            }
+
+            used.set(register);
+            registers[variable] = register;
+            active.add(((long) ends[variable] << 32) | variable);
+
+            colors.put(liveness.getVariable(variable), register);
+            numColors = Math.max(numColors, register + 1);
+        }
+
+        // Variables that are never live still need a register
+        for (var variable : variables) {
+            if (!colors.containsKey(variable)) {
+                colors.put(variable, 0);
+                numColors = Math.max(numColors, 1);
+            }
+        }
+
+        return this;
+    }
+
+    private static void extend(BitSet variables, int point, int[] starts, int[] ends) {
+        for (int i = variables.nextSetBit(0); i >= 0; i = variables.nextSetBit(i + 1)) {
+            if (starts[i] < 0) {
+                starts[i] = point;
+            }
+            ends[i] = point;
+        }
+    }
+
+    /**
+     * @return the register of each variable, counting from the first one after 'this' and the parameters
+     */
+    public Map<String, Integer> getColors() {
+        return colors;
+    }
+
+    /**
+     * @return the number of registers used, including the ones given to spilled intervals
+     */
+    public int getNumColors() {
+        return numColors;
+    }
+
+    public int getNumSpilled() {
+        return numSpilled;
+    }
+}
@@ -0,0 +1,71 @@
+package pt.up.fe.comp2025.optimization;
+
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.inst.Instruction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A sequence of OLLIR instructions, where any instruction can be preceded by labels.
+ * <p>
+ * Labels at the end of a sequence belong to the first instruction that is added after them.
+ */
+public class OllirCode {
+
+    private record Entry(String label, Instruction instruction) {
+    }
+
+    private final List<Entry> entries;
+
+    public OllirCode() {
+        this.entries = new ArrayList<>();
+    }
+
+    public OllirCode add(Instruction instruction) {
+        entries.add(new Entry(null, instruction));
+        return this;
+    }
+
+    public OllirCode label(String label) {
+        entries.add(new Entry(label, null));
+        return this;
+    }
+
+    public OllirCode append(OllirCode code) {
+        entries.addAll(code.entries);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Adds the instructions to the given method, associating each label with the instruction after it.
+     *
+     * @param method
+     */
+    public void addTo(Method method) {
+        var labels = new ArrayList<String>();
+
+        for (var entry : entries) {
+            if (entry.label() != null) {
+                labels.add(entry.label());
+                continue;
+            }
+
+            for (var label : labels) {
+                method.addLabel(label, entry.instruction());
+            }
+            labels.clear();
+
+            method.addInstr(entry.instruction());
+        }
+
+        if (!labels.isEmpty()) {
+            throw new RuntimeException("Labels " + labels + " at the end of method '" + method.getMethodName()
+                    + "' are not followed by an instruction");
+        }
+    }
+}
@@ -1,27 +1,27 @@
 package pt.up.fe.comp2025.optimization;
 
 import pt.up.fe.comp.jmm.ast.AJmmNode;
-import pt.up.fe.comp.jmm.ast.AJmmVisitor;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp2025.ast.AKindVisitor;
 
 import java.util.List;
 
-import static pt.up.fe.comp2025.ast.Kind.BINARY_EXPR;
+import static pt.up.fe.comp2025.ast.Kind.*;
 
-public class OllirConstFoldingVisitor extends AJmmVisitor<Void, Boolean> {
+public class OllirConstFoldingVisitor extends AKindVisitor<Void, Boolean> {
     @Override
     protected void buildVisitor(){
-        addVisit("BinaryExpr", this::visitBinaryExpr);
-        addVisit("ParenExpr", this::visitParenExpr);
-        addVisit("UnaryExpr", this::visitUnaryExpr);
+        addVisit(BINARY_EXPR, this::visitBinaryExpr);
+        addVisit(PAREN_EXPR, this::visitParenExpr);
+        addVisit(UNARY_EXPR, this::visitUnaryExpr);
         setDefaultVisit(this::defaultVisit);
     }
 
     private boolean visitUnaryExpr(JmmNode node, Void unused) {
         JmmNode expr = node.getChild(0);
 
-        if (expr.getKind().equals("Identifier")) {
+        if (IDENTIFIER.check(expr)) {
             JmmNode newNode = null;
             boolean value = Boolean.parseBoolean(expr.get("value"));
             value = !value;
@@ -37,7 +37,7 @@ public class OllirConstFoldingVisitor extends AJmmVisitor<Void, Boolean> {
     private boolean visitParenExpr(JmmNode node, Void unused) {
         JmmNode expr = node.getChild(0);
 
-        if (expr.getKind().equals("IntegerLiteral") || expr.getKind().equals("Identifier")) {
+        if (INTEGER_LITERAL.check(expr) || IDENTIFIER.check(expr)) {
             node.replace(expr);
             return true;
         }
@@ -49,7 +49,7 @@ public class OllirConstFoldingVisitor extends AJmmVisitor<Void, Boolean> {
         var left = node.getChild(0);
         var right = node.getChild(1);
 
-        if((left.getKind().equals("IntegerLiteral") && right.getKind().equals("IntegerLiteral")) || (left.getKind().equals("Identifier") && right.getKind().equals("Identifier"))){
+        if((INTEGER_LITERAL.check(left) && INTEGER_LITERAL.check(right)) || (IDENTIFIER.check(left) && IDENTIFIER.check(right))){
             boolean boolResult;
             JmmNode newNode = null;
             int opResult;
@@ -1,7 +1,7 @@
 package pt.up.fe.comp2025.optimization;
 
-import pt.up.fe.comp.jmm.ast.AJmmVisitor;
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.AKindVisitor;
 import pt.up.fe.comp2025.ast.Kind;
 
 import java.util.HashMap;
@@ -9,7 +9,7 @@ import java.util.Map;
 
 import static pt.up.fe.comp2025.ast.Kind.*;
 
-public class OllirConstPropVisitor extends AJmmVisitor<Map<String, JmmNode>, Boolean> {
+public class OllirConstPropVisitor extends AKindVisitor<Map<String, JmmNode>, Boolean> {
     //private final Map<String, JmmNode> fieldConstMap = new HashMap<>();
 
     @Override
@@ -18,9 +18,9 @@ public class OllirConstPropVisitor extends AJmmVisitor<Map<String, JmmNode>, Boo
         addVisit(VAR_REF_EXPR, this::visitVarRefExpr);
         addVisit(ASSIGN_STMT, this::visitAssignStmt);
         addVisit(METHOD_DECL, this::visitMethodDecl);
-        addVisit("LoopStmt", this::visitLoopStmt);
-        addVisit("IfStmt", this::visitIfStmt);
-        //addVisit("BinaryExpr", this::visitBinaryOp);
+        addVisit(LOOP_STMT, this::visitLoopStmt);
+        addVisit(IF_STMT, this::visitIfStmt);
+        //addVisit(BINARY_EXPR, this::visitBinaryOp);
 
 
         //addVisit(METHOD_DECL, this::visitVarRefExpr);
@@ -104,13 +104,13 @@ public class OllirConstPropVisitor extends AJmmVisitor<Map<String, JmmNode>, Boo
         System.out.println("Visiting AssignStmt: " + varName + " = " + valueExpr);
         System.out.println("Before propagation, ConstMap = " + localConstMap);
 
-        if (valueExpr.getKind().equals("IntegerLiteral") || valueExpr.getKind().equals("Identifier")) {
+        if (INTEGER_LITERAL.check(valueExpr) || IDENTIFIER.check(valueExpr)) {
             localConstMap.put(varName, valueExpr);
         } else {
             localConstMap.remove(varName);
         }
 
-        if (valueExpr.getKind().equals("IntegerLiteral")) {
+        if (INTEGER_LITERAL.check(valueExpr)) {
             localConstMap.put(varName, valueExpr);
 
             //localConstMap.remove(varName);
@@ -1,26 +1,34 @@
 package pt.up.fe.comp2025.optimization;
 
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.Operation;
+import org.specs.comp.ollir.OperationType;
+import org.specs.comp.ollir.inst.*;
+import org.specs.comp.ollir.type.BuiltinKind;
+import org.specs.comp.ollir.type.BuiltinType;
+import org.specs.comp.ollir.type.ClassKind;
+import org.specs.comp.ollir.type.ClassType;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
-import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
+import pt.up.fe.comp2025.ast.PreorderKindVisitor;
 import pt.up.fe.comp2025.ast.TypeUtils;
 
-import java.util.Optional;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static pt.up.fe.comp2025.ast.Kind.*;
 
 /**
- * Generates OLLIR code from JmmNodes that are expressions.
+ * Generates OLLIR instructions from JmmNodes that are expressions.
  */
-public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExprResult> {
-
-    private static final String SPACE = " ";
-    private static final String ASSIGN = ":=";
-    private static final String INT_TYPE = ".i32";
-    private final String END_STMT = ";\n";
+public class OllirExprGeneratorVisitor extends PreorderKindVisitor<Void, OllirExprResult> {
 
     private final SymbolTable table;
     private String currentMethod;
@@ -28,6 +36,8 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
     private final TypeUtils types;
     public final OptUtils ollirTypes;
 
+    // Values computed before a loop, by the comparison operand they replace
+    private final Map<JmmNode, Element> invariants = new HashMap<>();
 
     public OllirExprGeneratorVisitor(SymbolTable table) {
         this.table = table;
@@ -41,16 +51,16 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         addVisit(VAR_REF_EXPR, this::visitVarRef);
         addVisit(BINARY_EXPR, this::visitBinExpr);
         addVisit(INTEGER_LITERAL, this::visitInteger);
-        addVisit("ParenExpr", this::visitParenExpr);
-        addVisit("Identifier", this::visitIdentifier);
-        addVisit("NewExpr", this::visitNewObjectExpr);
-        addVisit("NewArrayExpr", this::visitNewArrayExpr);
-        addVisit("ArrayAcessExpr", this::visitArrayAcessExpr);
-        addVisit("ArrayExpr", this::visitArrayExpr);
-        addVisit("UnaryExpr", this::visitUnaryExpr);
-        addVisit("MethodCallExpr", this::visitMethodCallExpr);
-        addVisit("LengthExpr", this::visitLengthExpr);
-        addVisit("ThisExpr", this::visitThisExpr);
+        addVisit(PAREN_EXPR, this::visitParenExpr);
+        addVisit(IDENTIFIER, this::visitIdentifier);
+        addVisit(NEW_EXPR, this::visitNewObjectExpr);
+        addVisit(NEW_ARRAY_EXPR, this::visitNewArrayExpr);
+        addVisit(ARRAY_ACESS_EXPR, this::visitArrayAcessExpr);
+        addVisit(ARRAY_EXPR, this::visitArrayExpr);
+        addVisit(UNARY_EXPR, this::visitUnaryExpr);
+        addVisit(METHOD_CALL_EXPR, this::visitMethodCallExpr);
+        addVisit(LENGTH_EXPR, this::visitLengthExpr);
+        addVisit(THIS_EXPR, this::visitThisExpr);
 
 
 //        setDefaultVisit(this::defaultVisit);
@@ -59,53 +69,50 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
 
     private OllirExprResult visitInteger(JmmNode node, Void unused) {
         var intType = TypeUtils.newIntType();
-        String ollirIntType = ollirTypes.toOllirType(intType);
-        String code = node.get("value") + ollirIntType;
+        var code = new LiteralElement(node.get("value"), ollirTypes.toType(intType));
         return new OllirExprResult(code);
     }
 
 
     private OllirExprResult visitBinExpr(JmmNode node, Void unused) {
 
-        StringBuilder computation = new StringBuilder();
+        var computation = new OllirCode();
         var lhs = visit(node.getChild(0));
         var rhs = visit(node.getChild(1));
-        StringBuilder code = new StringBuilder();
+        Element code;
 
         if (node.get("op").equals("&&")) {
             var then = ollirTypes.nextTemp("then");
             var end = ollirTypes.nextTemp("endif");
             var andTmp = ollirTypes.nextTemp("andTmp");
+            var boolType = new BuiltinType(BuiltinKind.BOOLEAN);
 
             computation.append(lhs.getComputation());
 
-            computation.append("if (").append(lhs.getCode()).append(") goto ").append(then).append(";\n");
-            computation.append(andTmp).append(".bool :=.bool 0.bool;\n");
-            computation.append("goto ").append(end).append(";\n");
+            var condition = new SingleOpCondInstruction(new SingleOpInstruction(lhs.getCode()));
+            condition.setLabel(then);
+            computation.add(condition);
+            computation.add(assign(new Operand(andTmp, boolType), new SingleOpInstruction(new LiteralElement("0", boolType))));
+            computation.add(new GotoInstruction(end));
 
-            computation.append(then).append(":\n");
+            computation.label(then);
 
             computation.append(rhs.getComputation());
-            computation.append(andTmp).append(".bool").append(SPACE).append(ASSIGN).append(".bool").append(SPACE).append(rhs.getCode()).append(";\n");
+            computation.add(assign(new Operand(andTmp, boolType), new SingleOpInstruction(rhs.getCode())));
 
-            computation.append(end).append(":\n");
-            code.append(andTmp).append(".bool");
+            computation.label(end);
+            code = new Operand(andTmp, boolType);
         }
 
 
 
         else{
             Type resType = types.getExprType(node, table, currentMethod);
-            String resOllirType = ollirTypes.toOllirType(resType);
+            var resOllirType = ollirTypes.toType(resType);
             if (((node.getChild(0).isInstance(VAR_REF_EXPR) && node.getChild(1).isInstance(INTEGER_LITERAL)) ||
                     (node.getChild(0).isInstance(INTEGER_LITERAL) && node.getChild(1).isInstance(VAR_REF_EXPR))) &&
                             node.getParent().isInstance(ASSIGN_STMT)) {
-                code.append(lhs.getCode())
-                        .append(SPACE)
-                        .append(node.get("op"))
-                        .append(resOllirType)
-                        .append(SPACE)
-                        .append(rhs.getCode());
+                return OllirExprResult.ofOperation(binaryOp(lhs.getCode(), node.get("op"), resOllirType, rhs.getCode()));
             }
             else{
                 // code to compute the children
@@ -113,36 +120,179 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
                 computation.append(rhs.getComputation());
 
                 // code to compute self
-                code.append(ollirTypes.nextTemp()).append(resOllirType);
-
-                computation.append(code).append(SPACE)
-                        .append(ASSIGN).append(resOllirType).append(SPACE)
-                        .append(lhs.getCode()).append(SPACE);
+                code = new Operand(ollirTypes.nextTemp(), resOllirType);
 
                 Type type = types.getExprType(node, table, currentMethod);
-                computation.append(node.get("op")).append(ollirTypes.toOllirType(type)).append(SPACE)
-                        .append(rhs.getCode()).append(END_STMT);
+                computation.add(assign(code, binaryOp(lhs.getCode(), node.get("op"), ollirTypes.toType(type), rhs.getCode())));
+            }
+        }
+
+        return new OllirExprResult(code, computation);
+    }
+
+    /**
+     * Generates the code that jumps to the label if the condition evaluates to the given value, and continues to the
+     * next instruction otherwise. Comparisons, negations and && branch directly, without computing a boolean.
+     *
+     * @param node
+     * @param label
+     * @param value
+     * @return
+     */
+    public OllirCode branch(JmmNode node, String label, boolean value) {
+        var code = new OllirCode();
+        var boolType = new BuiltinType(BuiltinKind.BOOLEAN);
+
+        if (PAREN_EXPR.check(node)) {
+            return branch(node.getChild(0), label, value);
+        }
+        else if (UNARY_EXPR.check(node) && node.get("op").equals("!")) {
+            return branch(node.getChild(0), label, !value);
+        }
+        else if (IDENTIFIER.check(node)) {
+            if (node.get("value").equals("true") == value) {
+                code.add(new GotoInstruction(label));
+            }
+        }
+        else if (node.isInstance(BINARY_EXPR) && node.get("op").equals("&&")) {
+            if (value) {
+                var end = ollirTypes.nextTemp("endif");
+                code.append(branch(node.getChild(0), end, false));
+                code.append(branch(node.getChild(1), label, true));
+                code.label(end);
+            } else {
+                code.append(branch(node.getChild(0), label, false));
+                code.append(branch(node.getChild(1), label, false));
+            }
+        }
+        else if (node.isInstance(BINARY_EXPR) && node.get("op").equals("<")) {
+            var lhs = visitOperand(node.getChild(0));
+            var rhs = visitOperand(node.getChild(1));
+            code.append(lhs.getComputation());
+            code.append(rhs.getComputation());
+
+            var condition = new OpCondInstruction(binaryOp(lhs.getCode(), value ? "<" : ">=", boolType, rhs.getCode()));
+            condition.setLabel(label);
+            code.add(condition);
+        }
+        else {
+            var expr = visit(node);
+            code.append(expr.getComputation());
+
+            CondBranchInstruction condition = value ?
+                    new SingleOpCondInstruction(new SingleOpInstruction(expr.getCode())) :
+                    new OpCondInstruction(new UnaryOpInstruction(new Operation(OperationType.NOTB, boolType), expr.getCode()));
+            condition.setLabel(label);
+            code.add(condition);
+        }
+
+        return code;
+    }
+
+    /**
+     * Generates the code that computes, once, the operands of comparisons in the condition of a loop that do not
+     * change while it runs, such as a.length or n - 1. Later calls to
+     * {@link #branch(JmmNode, String, boolean)} with the condition use the computed values.
+     * <p>
+     * Only comparisons that are always evaluated when the condition is tested are considered, so nothing that would
+     * not be evaluated (and could throw) is moved. An operand is only moved if the operands evaluated before it are
+     * moved too, or only read local variables, so it is never computed before a call it used to follow.
+     *
+     * @param condition
+     * @param assigned the variables assigned in the loop
+     * @return
+     */
+    public OllirCode hoistInvariants(JmmNode condition, Set<String> assigned) {
+        var code = new OllirCode();
+
+        if (PAREN_EXPR.check(condition) || UNARY_EXPR.check(condition)) {
+            code.append(hoistInvariants(condition.getChild(0), assigned));
+        }
+        else if (condition.isInstance(BINARY_EXPR) && condition.get("op").equals("&&")) {
+            // The right operand is not evaluated if the left one is false
+            code.append(hoistInvariants(condition.getChild(0), assigned));
+        }
+        else if (condition.isInstance(BINARY_EXPR) && condition.get("op").equals("<")) {
+            for (var operand : condition.getChildren()) {
+                boolean invariant = isInvariant(operand, assigned);
+
+                // Variables and literals are not worth a temporary
+                boolean computed = operand.getDescendantsAndSelfStream()
+                        .anyMatch(child -> BINARY_EXPR.check(child) || LENGTH_EXPR.check(child));
+                if (computed && invariant) {
+                    var value = visit(operand);
+                    code.append(value.getComputation());
+                    invariants.put(operand, value.getCode());
+                }
+
+                // The next operands stay in the loop if this one is evaluated there and has effects
+                if (!invariant && !readsLocals(operand)) {
+                    break;
+                }
             }
         }
 
-        return new OllirExprResult(code.toString(), computation);
+        return code;
+    }
+
+    // Arithmetic without side effects or exceptions, on local variables that are not assigned
+    private boolean isInvariant(JmmNode node, Set<String> assigned) {
+        if (node.isInstance(INTEGER_LITERAL)) {
+            return true;
+        }
+        else if (node.isInstance(VAR_REF_EXPR)) {
+            var name = node.get("name");
+            return !assigned.contains(name) && !types.isField(name, table, currentMethod);
+        }
+        else if (PAREN_EXPR.check(node)) {
+            return isInvariant(node.getChild(0), assigned);
+        }
+        else if (LENGTH_EXPR.check(node)) {
+            return node.getChild(0).isInstance(VAR_REF_EXPR) && isInvariant(node.getChild(0), assigned);
+        }
+        else if (node.isInstance(BINARY_EXPR)) {
+            return List.of("+", "-", "*").contains(node.get("op"))
+                    && isInvariant(node.getChild(0), assigned) && isInvariant(node.getChild(1), assigned);
+        }
+
+        return false;
+    }
+
+    // Arithmetic without side effects or exceptions, on local variables that may be assigned
+    private boolean readsLocals(JmmNode node) {
+        if (node.isInstance(INTEGER_LITERAL)) {
+            return true;
+        }
+        else if (node.isInstance(VAR_REF_EXPR)) {
+            return !types.isField(node.get("name"), table, currentMethod);
+        }
+        else if (PAREN_EXPR.check(node)) {
+            return readsLocals(node.getChild(0));
+        }
+        else if (node.isInstance(BINARY_EXPR)) {
+            return List.of("+", "-", "*").contains(node.get("op"))
+                    && readsLocals(node.getChild(0)) && readsLocals(node.getChild(1));
+        }
+
+        return false;
+    }
+
+    private OllirExprResult visitOperand(JmmNode node) {
+        var invariant = invariants.get(node);
+        return invariant != null ? new OllirExprResult(invariant) : visit(node);
     }
 
     private OllirExprResult visitVarRef(JmmNode node, Void unused) {
         var id = node.get("name");
 
         if(types.isField(id, table, currentMethod)) {
-            StringBuilder code = new StringBuilder();
-            StringBuilder computation = new StringBuilder();
+            var computation = new OllirCode();
 
             Type fieldType = types.getFieldType(id, table);
-            var ollirType = ollirTypes.toOllirType(fieldType);
+            var code = new Operand(ollirTypes.nextTemp(), ollirTypes.toType(fieldType));
 
-            code.append(ollirTypes.nextTemp()).append(ollirType);
-
-            computation.append(code).append(SPACE).append(ASSIGN).append(ollirType).append(SPACE).append("getfield(this, ").append(id).append(ollirType);
-            computation.append(")").append(ollirType).append(END_STMT);
-            return new OllirExprResult(code.toString(), computation.toString());
+            computation.add(assign(code, getField(id, ollirTypes.toType(fieldType))));
+            return new OllirExprResult(code, computation);
 
         }
 
@@ -151,8 +301,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
             type = new Type("unknown", false);
         }
 
-        String ollirType = ollirTypes.toOllirType(type);
-        String code = id + ollirType;
+        var code = new Operand(id, ollirTypes.toType(type));
 
         return new OllirExprResult(code);
     }
@@ -161,100 +310,103 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
     }
     private OllirExprResult visitIdentifier(JmmNode node, Void unused) {
         Type booleanType = TypeUtils.newBooleanType();
-        String ollirBooleanType = ollirTypes.toOllirType(booleanType);
+        var ollirBooleanType = ollirTypes.toType(booleanType);
         String value = node.get("value");
         if(value.equals("true")) {
-            return new OllirExprResult(1 + ollirBooleanType);
+            return new OllirExprResult(new LiteralElement("1", ollirBooleanType));
         }
-        return new OllirExprResult(0 + ollirBooleanType);
+        return new OllirExprResult(new LiteralElement("0", ollirBooleanType));
     }
     private OllirExprResult visitNewObjectExpr(JmmNode node, Void unused) {
-        StringBuilder computation = new StringBuilder();
+        var computation = new OllirCode();
         String temp = ollirTypes.nextTemp();
         Type type = types.getExprType(node, table, currentMethod);
-        String ollirType = ollirTypes.toOllirType(type);
+        var ollirType = ollirTypes.toType(type);
 
-        String code = temp + ollirType;
-        computation.append(code).append(SPACE).append(ASSIGN).append(ollirType).append(SPACE).append("new(").append(type.getName()).append(")").append(ollirType).append(END_STMT);
-        computation.append("invokespecial(").append(temp).append(ollirType).append(", \"<init>\").V").append(END_STMT);
+        var code = new Operand(temp, ollirType);
+        var className = new Operand(type.getName(), new ClassType(ClassKind.CLASS, type.getName()));
+        computation.add(assign(code, new NewInstruction(className, new ArrayList<>(), ollirType, false)));
+        computation.add(invokeSpecial(new Operand(temp, ollirType)));
 
-        return new OllirExprResult(code, computation.toString());
+        return new OllirExprResult(code, computation);
 
     }
 
 
     private OllirExprResult visitNewArrayExpr(JmmNode node, Void unused){
-        StringBuilder computation = new StringBuilder();
+        var computation = new OllirCode();
         String temp = ollirTypes.nextTemp();
 
         Type type = types.getExprType(node, table, currentMethod);
-        String ollirType = ollirTypes.toOllirType(type);
+        var ollirType = ollirTypes.toType(type);
 
-        String code = temp + ollirType;
+        var code = new Operand(temp, ollirType);
 
         JmmNode sizeExpr = node.getChild(0);
         OllirExprResult sizeResult = visit(sizeExpr);
 
-        computation.append(code).append(SPACE).append(ASSIGN).append(ollirType).append(SPACE).append("new(array, ").append(sizeResult.getCode()).append(")").append(ollirType).append(END_STMT);
+        computation.add(assign(code, newArray(ollirType, sizeResult.getCode())));
 
-        return new OllirExprResult(code, computation.toString());
+        return new OllirExprResult(code, computation);
     }
 
     private OllirExprResult visitArrayAcessExpr(JmmNode node, Void unused){
-        StringBuilder computation = new StringBuilder();
+        var computation = new OllirCode();
         String temp = ollirTypes.nextTemp();
 
         Type type = types.getExprType(node, table, currentMethod);
-        String ollirType = ollirTypes.toOllirType(type);
+        var ollirType = ollirTypes.toType(type);
 
-        String code = temp + ollirType;
+        var code = new Operand(temp, ollirType);
 
         OllirExprResult arrayResult = visit(node.getChild(0));
         OllirExprResult indexResult = visit(node.getChild(1));
 
         computation.append(indexResult.getComputation());
-        computation.append(code).append(SPACE).append(ASSIGN).append(ollirType).append(SPACE).append(arrayResult.getCode()).append("[").append(indexResult.getCode()).append("]").append(ollirType).append(END_STMT);
+        var arrayName = ((Operand) arrayResult.getCode()).getName();
+        computation.add(assign(code, new SingleOpInstruction(
+                new ArrayOperand(arrayName, ollirType, List.of(indexResult.getCode())))));
 
 
-        return new OllirExprResult(code, computation.toString());
+        return new OllirExprResult(code, computation);
     }
 
     private OllirExprResult visitArrayExpr(JmmNode node, Void unused){
-        StringBuilder computation = new StringBuilder();
+        var computation = new OllirCode();
         String temp = ollirTypes.nextTemp();
 
         Type type = types.getExprType(node, table, currentMethod);
-        String ollirType = ollirTypes.toOllirType(type);
+        var ollirType = ollirTypes.toType(type);
 
-        String code = temp + ollirType;
+        var code = new Operand(temp, ollirType);
 
         int arraySize = node.getNumChildren();
 
-        computation.append(code).append(SPACE).append(ASSIGN).append(ollirType).append(SPACE).append("new(array, ").append(arraySize).append(INT_TYPE).append(")").append(ollirType).append(END_STMT);
+        computation.add(assign(code, newArray(ollirType, intLiteral(arraySize))));
 
         for(int i =0; i<arraySize; i++){
             JmmNode elem = node.getChild(i);
             OllirExprResult result = visit(elem);
 
-            computation.append(temp).append("[").append(i).append(INT_TYPE).append("]").append(INT_TYPE).append(SPACE).append(ASSIGN).append(INT_TYPE).append(SPACE).append(result.getCode()).append(END_STMT);
+            var element = new ArrayOperand(temp, intType(), List.of(intLiteral(i)));
+            computation.add(assign(element, new SingleOpInstruction(result.getCode())));
         }
 
-        return new OllirExprResult(code, computation.toString());
+        return new OllirExprResult(code, computation);
     }
 
     private OllirExprResult visitUnaryExpr(JmmNode node, Void unused) {
         var expr = visit(node.getChild(0));
 
-        StringBuilder computation = new StringBuilder();
+        var computation = new OllirCode();
         computation.append(expr.getComputation());
 
         Type resType = types.getExprType(node, table, currentMethod);
-        String resOllirType = ollirTypes.toOllirType(resType);
-        String code = ollirTypes.nextTemp() + resOllirType;
+        var resOllirType = ollirTypes.toType(resType);
+        var code = new Operand(ollirTypes.nextTemp(), resOllirType);
 
-        computation.append(code).append(SPACE).append(ASSIGN).append(resOllirType).append(SPACE)
-                .append(node.get("op")).append(resOllirType).append(SPACE).append(expr.getCode())
-                .append(END_STMT);
+        var operation = new Operation(OptUtils.toOperationType(node.get("op")), resOllirType);
+        computation.add(assign(code, new UnaryOpInstruction(operation, expr.getCode())));
 
         return new OllirExprResult(code, computation);
     }
@@ -273,13 +425,13 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         var object = visit(node.getChild(0));
         var objectCode = object.getCode();
 
-        StringBuilder computation = new StringBuilder();
+        var computation = new OllirCode();
         computation.append(object.getComputation());
 
         Type returnType = types.getExprType(node, table, currentMethod);
-        var ollirObjectType = ollirTypes.toOllirType(returnType);
+        var ollirObjectType = ollirTypes.toType(returnType);
 
-        List<String> codes = new ArrayList<>();
+        List<Element> codes = new ArrayList<>();
         var params = table.getParameters(node.get("name"));
 
         int n_varargs;
@@ -298,113 +450,109 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
 
         if (n_varargs > 0){
             var array = ollirTypes.nextTemp();
-            computation.append(array).append(".array.i32 :=.array.i32 new(array, ").append(n_varargs)
-                    .append(".i32).array.i32").append(END_STMT);
+            var arrayType = OptUtils.arrayOf(intType());
+            computation.add(assign(new Operand(array, arrayType), newArray(arrayType, intLiteral(n_varargs))));
             for (int i = 0; i < n_varargs; i++){
-                computation.append(array).append("[").append(i).append(".i32].i32 :=.i32 ")
-                        .append(node.getChild(params.size() + i).get("value")).append(".i32").append(END_STMT);
+                var element = new ArrayOperand(array, intType(), List.of(intLiteral(i)));
+                var value = new LiteralElement(node.getChild(params.size() + i).get("value"), intType());
+                computation.add(assign(element, new SingleOpInstruction(value)));
             }
-            codes.add(array + ".array.i32");
+            codes.add(new Operand(array, arrayType));
         }
 
-        /*
-        for (int i = 1; i < node.getChildren().size(); i++) {
-            OllirExprResult argResult = visit(node.getChild(i));
-            computation.append(argResult.getComputation());
-            codes.add(argResult.getCode());
-        }*/
-
         boolean isStatic = table.getImports().contains(first);
 
-        String methodCallCode;
-        if (isStatic) {
-            methodCallCode = invokeStatic(first, second, codes);
-        } else {
-            methodCallCode = invokeVirtual(objectCode, second, codes);
-        }
-
         // Se o método retorna void
         if (returnType.getName().equals("void")) {
-            computation.append(methodCallCode).append(ollirObjectType).append(END_STMT);
-            return new OllirExprResult("", computation.toString());
+            computation.add(isStatic ?
+                    invokeStatic(first, second, codes, ollirObjectType, true) :
+                    invokeVirtual(objectCode, second, codes, ollirObjectType, true));
+            return new OllirExprResult(null, computation);
         } else {
-            String temp = ollirTypes.nextTemp();
-            computation.append(temp).append(ollirObjectType)
-                    .append(SPACE).append(ASSIGN).append(ollirObjectType).append(SPACE)
-                    .append(methodCallCode).append(ollirObjectType).append(END_STMT);
-            return new OllirExprResult(temp + ollirObjectType, computation.toString());
-        }
-        //String code = ollirTypes.nextTemp() + ollirObjectType;
-
-        // Static
-        /*if (table.getImports().contains(varName)) {
-            computation.append(code).append(SPACE).append(ASSIGN).append(ollirObjectType).append(SPACE)
-                    .append(invokeStatic(varName, op, codes)).append(ollirObjectType).append(END_STMT);
+            var methodCall = isStatic ?
+                    invokeStatic(first, second, codes, ollirObjectType, false) :
+                    invokeVirtual(objectCode, second, codes, ollirObjectType, false);
+            var temp = new Operand(ollirTypes.nextTemp(), ollirObjectType);
+            computation.add(assign(temp, methodCall));
+            return new OllirExprResult(temp, computation);
         }
-
-        // Virtual
-        else{
-            computation.append(code).append(SPACE).append(ASSIGN).append(ollirObjectType).append(SPACE)
-                    .append(invokeVirtual(object.getCode(), op, codes)).append(ollirObjectType).append(END_STMT);
-        }*/
-
-
-        //return new OllirExprResult(code, computation);
     }
 
     private OllirExprResult visitLengthExpr(JmmNode node, Void unused) {
         String temp = ollirTypes.nextTemp();
-        String code = temp + ".i32";
-        StringBuilder computation = new StringBuilder();
+        var code = new Operand(temp, intType());
+        var computation = new OllirCode();
         String name = node.getChild(0).get("name");
-        computation.append(code).append(SPACE).append(ASSIGN).append(".i32").append(SPACE)
-                .append("arraylength(").append(name).append(".array.i32).i32").append(END_STMT);
+        var array = new Operand(name, OptUtils.arrayOf(intType()));
+        computation.add(assign(code, new ArrayLengthInstruction(array, intType())));
 
         return new OllirExprResult(code, computation);
     }
 
     private OllirExprResult visitThisExpr(JmmNode node, Void unused) {
-        String code = "this." + table.getClassName();
+        var code = new Operand("this", new ClassType(ClassKind.OBJECTREF, table.getClassName()));
         return new OllirExprResult(code);
     }
 
-    private String invokeSpecial(String code) {
-        return """ 
-                    invokespecial(%s, "<init>").V;
-                }
-                """.formatted(code);
+    public AssignInstruction assign(Element dest, Instruction rhs) {
+        return new AssignInstruction(dest, dest.getType(), rhs);
     }
 
-    public String invokeVirtual(String code, String op, List<String> params) {
-        boolean isParamsEmpty = params.isEmpty();
-        String paramPlaceholders = String.join(", ", params.stream().map(p -> "%s").toList());
-        String template = """
-            invokevirtual(%s, "%s", %s)
-            """.formatted(code, op, paramPlaceholders);
-        if (isParamsEmpty) {
-            template = """
-            invokevirtual(%s, "%s")
-            """.formatted(code, op);
-        }
-        return template.formatted(params.toArray());
+    public Operand thisRef() {
+        return new Operand("this", new ClassType(ClassKind.THIS, table.getClassName()));
     }
 
-    public String invokeStatic(String code, String op, List<String> params) {
-        boolean isParamsEmpty = params.isEmpty();
+    public GetFieldInstruction getField(String field, org.specs.comp.ollir.type.Type type) {
+        return new GetFieldInstruction(thisRef(), new Operand(field, type), type);
+    }
 
-        String paramPlaceholders = String.join(", ", params.stream().map(p -> "%s").toList());
+    private InvokeSpecialInstruction invokeSpecial(Operand object) {
+        return new InvokeSpecialInstruction(object, methodName("<init>"), null, new ArrayList<>(),
+                new BuiltinType(BuiltinKind.VOID), true);
+    }
+
+    public CallInstruction invokeVirtual(Element object, String op, List<Element> params,
+                                         org.specs.comp.ollir.type.Type returnType, boolean isStatement) {
+        return new InvokeVirtualInstruction(objectRef(object), methodName(op), params, returnType, isStatement);
+    }
 
-        String template = """
-        invokestatic(%s, "%s", %s)
-        """;
+    public CallInstruction invokeStatic(String className, String op, List<Element> params,
+                                        org.specs.comp.ollir.type.Type returnType, boolean isStatement) {
+        // The type of the class operand of invokestatic is always the current class
+        var classOperand = new Operand(className, new ClassType(ClassKind.CLASS, table.getClassName()));
+        return new InvokeStaticInstruction(classOperand, methodName(op), params, returnType, isStatement);
+    }
 
-        if (isParamsEmpty) {
-            template = """
-            invokestatic("%s", "%s")
-            """;
+    // 'this' as the object of a call has its own kind of type
+    private Element objectRef(Element object) {
+        if (object instanceof Operand operand && operand.getName().equals("this")) {
+            var className = operand.getType() instanceof ClassType classType ?
+                    classType.getName() : table.getClassName();
+            return new Operand("this", new ClassType(ClassKind.THIS, className));
         }
 
-        return template.formatted(code, op, paramPlaceholders).formatted(params.toArray());
+        return object;
+    }
+
+    private static LiteralElement methodName(String name) {
+        return new LiteralElement(name, new BuiltinType(BuiltinKind.STRING));
+    }
+
+    private static NewInstruction newArray(org.specs.comp.ollir.type.Type arrayType, Element size) {
+        return new NewInstruction(new Operand("array", arrayType), new ArrayList<>(List.of(size)), arrayType, false);
+    }
+
+    private static BinaryOpInstruction binaryOp(Element lhs, String op, org.specs.comp.ollir.type.Type type,
+                                                Element rhs) {
+        return new BinaryOpInstruction(lhs, new Operation(OptUtils.toOperationType(op), type), rhs);
+    }
+
+    private static LiteralElement intLiteral(int value) {
+        return new LiteralElement(String.valueOf(value), intType());
+    }
+
+    private static BuiltinType intType() {
+        return new BuiltinType(BuiltinKind.INT32);
     }
 
 
@@ -1,38 +1,77 @@
 package pt.up.fe.comp2025.optimization;
 
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.inst.Instruction;
+import org.specs.comp.ollir.inst.SingleOpInstruction;
+
+/**
+ * Result of generating OLLIR for an expression: the instructions that compute it, and the element that holds its value
+ * afterwards.
+ * <p>
+ * Simple operations assigned directly to a variable are not computed into a temporary, in that case the result keeps
+ * the operation instead of an element.
+ */
 public class OllirExprResult {
 
-    public static final OllirExprResult EMPTY = new OllirExprResult("", "");
+    public static final OllirExprResult EMPTY = new OllirExprResult((Element) null);
 
-    private final String computation;
-    private final String code;
+    private final OllirCode computation;
+    private final Element code;
+    private final Instruction operation;
 
-    public OllirExprResult(String code, String computation) {
+    private OllirExprResult(Element code, Instruction operation, OllirCode computation) {
         this.code = code;
+        this.operation = operation;
         this.computation = computation;
     }
 
-    public OllirExprResult(String code) {
-        this(code, "");
+    public OllirExprResult(Element code, OllirCode computation) {
+        this(code, null, computation);
+    }
+
+    public OllirExprResult(Element code) {
+        this(code, new OllirCode());
     }
 
-    public OllirExprResult(String code, StringBuilder computation) {
-        this(code, computation.toString());
+    /**
+     * A result whose value is the given operation, which was not computed into a temporary.
+     *
+     * @param operation
+     * @return
+     */
+    public static OllirExprResult ofOperation(Instruction operation) {
+        return new OllirExprResult(null, operation, new OllirCode());
     }
 
-    public String getComputation() {
+    public OllirCode getComputation() {
         return computation;
     }
 
-    public String getCode() {
+    /**
+     * @return the element with the value of the expression, or null if the expression has no value (e.g., a call to a
+     * void method) or is kept as an operation
+     */
+    public Element getCode() {
         return code;
     }
 
+    public boolean isOperation() {
+        return operation != null;
+    }
+
+    /**
+     * @return the instruction that produces the value of the expression, to be used as the right-hand side of an
+     * assignment
+     */
+    public Instruction toInstruction() {
+        return operation != null ? operation : new SingleOpInstruction(code);
+    }
+
     @Override
     public String toString() {
         return "OllirNodeResult{" +
                 "computation='" + computation + '\'' +
-                ", code='" + code + '\'' +
+                ", code='" + (operation != null ? operation : code) + '\'' +
                 '}';
     }
 }
@@ -1,9 +1,24 @@
 package pt.up.fe.comp2025.optimization;
 
+import org.specs.comp.ollir.AccessModifier;
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.ClassUnit;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.Field;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.Operation;
+import org.specs.comp.ollir.OperationType;
+import org.specs.comp.ollir.inst.*;
+import org.specs.comp.ollir.type.BuiltinKind;
+import org.specs.comp.ollir.type.BuiltinType;
+import org.specs.comp.ollir.type.ClassKind;
+import org.specs.comp.ollir.type.ClassType;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
-import pt.up.fe.comp.jmm.ast.AJmmVisitor;
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.ast.AKindVisitor;
 import pt.up.fe.comp2025.ast.TypeUtils;
 
 import java.util.ArrayList;
@@ -13,33 +28,57 @@ import java.util.stream.Collectors;
 import static pt.up.fe.comp2025.ast.Kind.*;
 
 /**
- * Generates OLLIR code from JmmNodes that are not expressions.
+ * Generates the OLLIR class from JmmNodes that are not expressions.
+ * <p>
+ * The class is built directly as OLLIR objects, see {@link #build(JmmNode)}. Statements return the instructions they
+ * generate, which are added to their method.
  */
-public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
-
-    private static final String SPACE = " ";
-    private static final String ASSIGN = ":=";
-    private final String END_STMT = ";\n";
-    private final String NL = "\n";
-    private final String L_BRACKET = " {\n";
-    private final String R_BRACKET = "}\n";
+public class OllirGeneratorVisitor extends AKindVisitor<Void, OllirCode> {
 
 
     private final SymbolTable table;
     private String currentMethod;
     private final TypeUtils types;
     private final OptUtils ollirTypes;
+    private ClassUnit classUnit;
 
 
     private final OllirExprGeneratorVisitor exprVisitor;
+    private final boolean lowerConditions;
 
     public OllirGeneratorVisitor(SymbolTable table) {
+        this(table, false);
+    }
+
+    /**
+     * @param table
+     * @param lowerConditions if true, the conditions of ifs and whiles jump directly to their labels instead of being
+     *                        computed as booleans, see {@link OllirExprGeneratorVisitor#branch(JmmNode, String, boolean)}
+     */
+    public OllirGeneratorVisitor(SymbolTable table, boolean lowerConditions) {
         this.table = table;
         this.types = new TypeUtils(table);
         this.ollirTypes = new OptUtils(types);
+        this.lowerConditions = lowerConditions;
         exprVisitor = new OllirExprGeneratorVisitor(table);
     }
 
+    /**
+     * Builds the OLLIR class of the given program.
+     *
+     * @param root
+     * @return
+     */
+    public ClassUnit build(JmmNode root) {
+        classUnit = new ClassUnit();
+        visit(root);
+
+        // The OLLIR parser also builds them after parsing
+        classUnit.buildVarTables();
+
+        return classUnit;
+    }
+
 
     @Override
     protected void buildVisitor() {
@@ -47,26 +86,23 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
         addVisit(PROGRAM, this::visitProgram);
         addVisit(CLASS_DECL, this::visitClass);
         addVisit(METHOD_DECL, this::visitMethodDecl);
-        addVisit(PARAM, this::visitParam);
         addVisit(RETURN_STMT, this::visitReturn);
         addVisit(VAR_DECL, this::visitField);
-        addVisit("AssignStmt", this::visitAssignStmt);
-        addVisit("SimpleStmt", this::visitSimpleStmt);
-        addVisit("IfStmt", this::visitIfStmt);
-        addVisit("BlockStmt", this::visitBlockStmt);
-        addVisit("ArrayStmt", this::visitArrayStmt);
-        addVisit("LoopStmt", this::visitWhileStmt);
-        addVisit("Import", this::visitImport);
+        addVisit(ASSIGN_STMT, this::visitAssignStmt);
+        addVisit(SIMPLE_STMT, this::visitSimpleStmt);
+        addVisit(IF_STMT, this::visitIfStmt);
+        addVisit(BLOCK_STMT, this::visitBlockStmt);
+        addVisit(ARRAY_STMT, this::visitArrayStmt);
+        addVisit(LOOP_STMT, this::visitWhileStmt);
+        addVisit(IMPORT, this::visitImport);
 
         setDefaultVisit(this::defaultVisit);
     }
 
 
-    private String visitAssignStmt(JmmNode node, Void unused) {
+    private OllirCode visitAssignStmt(JmmNode node, Void unused) {
 
-        var rhs = exprVisitor.visit(node.getChild(0));
-
-        StringBuilder code = new StringBuilder();
+        var code = new OllirCode();
 
         var left = node.get("name");
         Type thisType;
@@ -76,256 +112,231 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
         else{
             thisType = types.getVarType(table, left, currentMethod);
         }
-        String typeString = ollirTypes.toOllirType(thisType);
-        String leftOllirType = ollirTypes.toOllirType(types.getExprType(node.getChild(0), table, currentMethod));
+        var ollirType = ollirTypes.toType(thisType);
 
-        String rhsComp = rhs.getComputation();
-        String rhsCode = rhs.getCode();
-        rhsComp = rhsComp.replace(".assume", typeString);
-        rhsCode = rhsCode.replace(".assume", typeString);
+        // Values of assumed type take the type of the variable they are assigned to
+        exprVisitor.ollirTypes.setAssumedType(ollirType);
+        var rhs = exprVisitor.visit(node.getChild(0));
+        exprVisitor.ollirTypes.setAssumedType(null);
+        var rhsOllirType = ollirTypes.toType(types.getExprType(node.getChild(0), table, currentMethod));
 
         // code to compute the children
-        code.append(rhsComp);
+        code.append(rhs.getComputation());
 
         // code to compute self
         // statement has type of lhs
 
         if(types.isField(left, table, currentMethod)) {
-            code.append("putfield(this, ").append(left).append(leftOllirType).append(',').append(SPACE).append(rhsCode).append(").V").append(END_STMT);
-        }
-        else{
-            var varCode = left + typeString;
-            code.append(varCode);
-            code.append(SPACE);
-
-            code.append(ASSIGN);
-            code.append(typeString);
-            code.append(SPACE);
+            Element value = rhs.getCode();
 
-            code.append(rhsCode);
+            // putfield only takes simple values
+            if (rhs.isOperation()) {
+                value = new Operand(exprVisitor.ollirTypes.nextTemp(), rhsOllirType);
+                code.add(exprVisitor.assign(value, rhs.toInstruction()));
+            }
 
-            code.append(END_STMT);
+            code.add(new PutFieldInstruction(exprVisitor.thisRef(), new Operand(left, rhsOllirType), value,
+                    new BuiltinType(BuiltinKind.VOID)));
+        }
+        else{
+            code.add(new AssignInstruction(new Operand(left, ollirType), ollirType, rhs.toInstruction()));
         }
 
-        return code.toString();
+        return code;
     }
 
-    private String visitArrayStmt(JmmNode node, Void unused) {
+    private OllirCode visitArrayStmt(JmmNode node, Void unused) {
 
         var lhs = exprVisitor.visit(node.getChild(0));
         var rhs = exprVisitor.visit(node.getChild(1));
 
-        StringBuilder code = new StringBuilder();
+        var code = new OllirCode();
         code.append(lhs.getComputation()).append(rhs.getComputation());
 
         var varName = node.get("name");
+        var intType = new BuiltinType(BuiltinKind.INT32);
 
         if (types.isField(varName, table, currentMethod)) {
             String tempArray = exprVisitor.ollirTypes.nextTemp("arr");
-            String arrayType = ".array.i32";
-
-            code.append(tempArray).append(arrayType)
-                    .append(SPACE).append(ASSIGN).append(arrayType).append(SPACE)
-                    .append("getfield(this, ").append(varName).append(arrayType).append(")").append(arrayType).append(END_STMT);
+            var arrayType = OptUtils.arrayOf(intType);
 
-            code.append(tempArray).append("[").append(lhs.getCode()).append("]").append(".i32")
-                    .append(SPACE).append(ASSIGN).append(".i32").append(SPACE)
-                    .append(rhs.getCode()).append(END_STMT);
-        } else {
-            code.append(varName).append("[").append(lhs.getCode()).append("]").append(".i32")
-                    .append(SPACE).append(ASSIGN).append(".i32").append(SPACE)
-                    .append(rhs.getCode()).append(END_STMT);
+            code.add(exprVisitor.assign(new Operand(tempArray, arrayType), exprVisitor.getField(varName, arrayType)));
+            varName = tempArray;
         }
 
-        return code.toString();
+        var element = new ArrayOperand(varName, intType, List.of(lhs.getCode()));
+        code.add(exprVisitor.assign(element, new SingleOpInstruction(rhs.getCode())));
+
+        return code;
     }
 
 
-    private String visitReturn(JmmNode node, Void unused) {
+    private OllirCode visitReturn(JmmNode node, Void unused) {
         Type retType  = table.getReturnType(currentMethod);
 
-        StringBuilder code = new StringBuilder();
+        var code = new OllirCode();
 
         var expr = node.getNumChildren() > 0 ? exprVisitor.visit(node.getChild(0)) : OllirExprResult.EMPTY;
 
-
         code.append(expr.getComputation());
-        code.append("ret");
-        code.append(ollirTypes.toOllirType(retType));
-        code.append(SPACE);
+        code.add(ret(expr.getCode(), ollirTypes.toType(retType)));
 
-        code.append(expr.getCode());
+        return code;
+    }
 
-        code.append(END_STMT);
+    private static ReturnInstruction ret(Element value, org.specs.comp.ollir.type.Type type) {
+        var instruction = value != null ? new ReturnInstruction(value) : new ReturnInstruction();
+        instruction.setReturnType(type);
 
-        return code.toString();
+        return instruction;
     }
 
 
-    private String visitParam(JmmNode node, Void unused) {
+    private Operand buildParam(JmmNode node) {
 
         JmmNode type = node.getChild(0);
-        String typeCode;
-        if (type.getKind().equals("VarArgs")){
-            typeCode = ".array.i32";
+        org.specs.comp.ollir.type.Type ollirType;
+        if (VAR_ARGS.check(type)){
+            ollirType = OptUtils.arrayOf(new BuiltinType(BuiltinKind.INT32));
         }
         else{
-            typeCode = ollirTypes.toOllirType(node.getChild(0));
+            ollirType = ollirTypes.toType(node.getChild(0));
         }
         var id = node.get("name");
 
-        return id + typeCode;
+        return new Operand(id, ollirType);
     }
 
 
-    private String visitMethodDecl(JmmNode node, Void unused) {
+    private OllirCode visitMethodDecl(JmmNode node, Void unused) {
 
-        StringBuilder code = new StringBuilder(".method ");
+        var method = new Method(classUnit);
 
         boolean isPublic = node.getBoolean("isPublic", false);
 
         if (isPublic) {
-            code.append("public ");
+            method.setMethodAccessModifier(AccessModifier.PUBLIC);
         }
 
         boolean isStatic = node.getBoolean("isStatic", false);
 
         if (isStatic) {
-            code.append("static ");
+            method.setStaticMethod();
         }
 
         // name
         var name = node.get("name");
-        code.append(name);
         currentMethod = name;
         exprVisitor.setCurrentMethod(name);
 
         // params
-        // TODO: Hardcoded for a single parameter, needs to be expanded(ja ta )
-
-        String methodName = node.get("name");
-
-        if (methodName.equals("main")) {
+        List<Operand> params = new ArrayList<>();
 
+        if (name.equals("main")) {
             String paramName = node.get("paramName");
-            code.append("(").append(paramName).append(".array.String)");
-
+            params.add(new Operand(paramName, OptUtils.arrayOf(new BuiltinType(BuiltinKind.STRING))));
         } else {
-            var paramsCode = node.getChildren(PARAM).stream()
-                    .map(this::visit)
-                    .collect(Collectors.joining(", "));
-
-            code.append("(").append(paramsCode).append(")");
+            for (var param : node.getChildren(PARAM)) {
+                params.add(buildParam(param));
+            }
         }
 
+        // Parameters are numbered from 1 in instance methods, 0 is 'this'
+        int paramId = isStatic ? 0 : 1;
+        for (var param : params) {
+            param.setParamId(paramId++);
+            method.addParam(param);
+        }
 
-        // TODO: Hardcoded for int, needs to be expanded
-        int childrenSize = node.getChildren().size();
-
-        String retType;
-        if (!node.hasAttribute("void_")){
-            var retTypeNode = node.getChild(0);
-            //Type type = types.getExprType(node, table, currentMethod);
-            retType = ollirTypes.toOllirType(retTypeNode);
-            code.append(retType);
-            code.append(L_BRACKET);
+        boolean isVoid = node.hasAttribute("void_");
+        org.specs.comp.ollir.type.Type retType;
+        if (!isVoid){
+            retType = ollirTypes.toType(node.getChild(0));
         }
         else{
-            retType =".V";
-            code.append(retType);
-            code.append(L_BRACKET);
+            retType = new BuiltinType(BuiltinKind.VOID);
         }
 
         // rest of its children stmts
-        var stmtsCode = node.getChildren().stream()
-                .filter(child -> child.getKind().endsWith("Statement") || child.getKind().endsWith("Stmt"))
+        var code = new OllirCode();
+        node.getChildren().stream()
+                .filter(child -> STMT.check(child) || RETURN_STMT.check(child))
                 .map(this::visit)
-                .collect(Collectors.joining("\n   ", "   ", ""));
-
-        code.append(stmtsCode);
+                .forEach(code::append);
 
-        if (retType.equals(".V")) {
-            code.append("   ret.V").append(END_STMT);  // Add return statement for void methods
+        if (isVoid) {
+            code.add(ret(null, retType));  // Add return statement for void methods
         }
 
-        code.append(R_BRACKET);
-        code.append(NL);
-
-        return code.toString();
-    }
+        code.addTo(method);
 
+        method.setReturnType(retType);
+        method.setMethodName(name);
+        classUnit.addMethod(method);
 
-    private String visitClass(JmmNode node, Void unused) {
+        return code;
+    }
 
-        StringBuilder code = new StringBuilder();
 
-        code.append(NL);
-        code.append(table.getClassName());
+    private OllirCode visitClass(JmmNode node, Void unused) {
 
+        classUnit.setClassName(table.getClassName());
 
         String superClass = table.getSuper();
         if (superClass != null && !superClass.isEmpty()) {
-            code.append(" extends ").append(superClass);
+            classUnit.setSuperClass(superClass);
         }
-        
-        code.append(L_BRACKET);
-        code.append(NL);
-        code.append(NL);
 
         for (var child : node.getChildren(VAR_DECL)) {
-            var result = visit(child);
-            code.append(result);
+            visit(child);
         }
-        code.append(NL);
-
-        code.append(buildConstructor());
-        code.append(NL);
 
+        buildConstructor();
 
         for (var child : node.getChildren(METHOD_DECL)) {
-            var result = visit(child);
-            code.append(result);
+            visit(child);
         }
 
-        code.append(R_BRACKET);
-
-        return code.toString();
+        return new OllirCode();
     }
 
-    private String buildConstructor() {
+    private void buildConstructor() {
 
-        return """
-                .construct %s().V {
-                    invokespecial(this, "<init>").V;
-                }
-                """.formatted(table.getClassName());
-    }
+        var constructor = new Method(classUnit);
+        constructor.setConstructMethod();
 
+        var object = new Operand("this", new ClassType(ClassKind.THIS, table.getClassName()));
+        constructor.addInstr(new InvokeSpecialInstruction(object,
+                new LiteralElement("<init>", new BuiltinType(BuiltinKind.STRING)), null, new ArrayList<>(),
+                new BuiltinType(BuiltinKind.VOID), true));
+
+        constructor.setReturnType(new BuiltinType(BuiltinKind.VOID));
+        constructor.setMethodName(table.getClassName());
+        classUnit.addMethod(constructor);
+    }
 
-    private String visitProgram(JmmNode node, Void unused) {
 
-        StringBuilder code = new StringBuilder();
+    private OllirCode visitProgram(JmmNode node, Void unused) {
 
         for (JmmNode child : node.getChildren()) {
-            code.append(visit(child));
+            visit(child);
         }
 
-
-        return code.toString();
+        return new OllirCode();
     }
-    private String visitSimpleStmt(JmmNode node, Void unused) {
+    private OllirCode visitSimpleStmt(JmmNode node, Void unused) {
         var childNode = node.getChild(0);
 
-        if (childNode.isInstance("MethodCallExpr")) {
+        if (METHOD_CALL_EXPR.check(childNode)) {
             String op = childNode.get("name");
-            List<String> codes = new ArrayList<>();
-            StringBuilder computation = new StringBuilder();
+            List<Element> codes = new ArrayList<>();
+            var computation = new OllirCode();
+            var voidType = new BuiltinType(BuiltinKind.VOID);
 
             // Process the caller object first
             JmmNode callerNode = childNode.getChild(0);
             OllirExprResult callerResult = exprVisitor.visit(callerNode);
             computation.append(callerResult.getComputation());
-            String callerCode = callerResult.getCode();
 
             // Process all the arguments
             for (int i = 1; i < childNode.getChildren().size(); i++) {
@@ -334,119 +345,159 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
                 codes.add(argResult.getCode());
             }
 
-            String object;
             // This method
             if (callerNode.hasAttribute("value") && callerNode.get("value").equals("this")){
-                object = "this." + table.getClassName();
-                return computation + exprVisitor.invokeVirtual(object, op, codes) + ".V" + END_STMT;
+                var object = new Operand("this", new ClassType(ClassKind.OBJECTREF, table.getClassName()));
+                return computation.add(exprVisitor.invokeVirtual(object, op, codes, voidType, true));
             }
 
             // Static method
             else if (table.getImports().contains(callerNode.get("name"))) {
-                object = callerNode.get("name");
-                return computation.toString() + exprVisitor.invokeStatic(object, op, codes) + ".V" + END_STMT;
+                var object = callerNode.get("name");
+                return computation.add(exprVisitor.invokeStatic(object, op, codes, voidType, true));
             }
 
             // Virtual method
             else{
-                object = callerNode.get("name") + "." + TypeUtils.getVarType(table, callerNode.get("name"), currentMethod).getName();
-                return computation + exprVisitor.invokeVirtual(object, op, codes) + ".V" + END_STMT;
+                var callerName = callerNode.get("name");
+                var callerType = TypeUtils.getVarType(table, callerName, currentMethod).getName();
+                var object = new Operand(callerName, ollirTypes.toType(new Type(callerType, false)));
+                return computation.add(exprVisitor.invokeVirtual(object, op, codes, voidType, true));
             }
         }
 
-        // Handle non-method call expressions
+        // Handle non-method call expressions, only their computation has effects
         OllirExprResult child = exprVisitor.visit(childNode);
-        return child.getComputation() + child.getCode() + END_STMT;
+        return new OllirCode().append(child.getComputation());
     }
-    private String visitWhileStmt(JmmNode node, Void unused) {
-        StringBuilder result = new StringBuilder();
+    private OllirCode visitWhileStmt(JmmNode node, Void unused) {
+        if (lowerConditions) {
+            return visitLoweredWhileStmt(node);
+        }
+
+        var code = new OllirCode();
         OllirExprResult childExpr = exprVisitor.visit(node.getChild(0));
-        String stmt = visit(node.getChild(1));
+        var stmt = visit(node.getChild(1));
         String temp = exprVisitor.ollirTypes.nextTemp("");
         String endif = exprVisitor.ollirTypes.nextTemp("endif");
 
-        result.append("while").append(temp).append(":").append(NL);
-        result.append(childExpr.getComputation());
-        result.append("if (!.bool").append(SPACE).append(childExpr.getCode()).append(")").append(SPACE).append("goto").append(SPACE).append(endif).append(END_STMT);
-        result.append(stmt).append(NL);
-        result.append("goto while").append(temp).append(END_STMT);
-        result.append(endif).append(":").append(NL);
-        return result.toString();
+        var negated = new UnaryOpInstruction(
+                new Operation(OperationType.NOTB, new BuiltinType(BuiltinKind.BOOLEAN)), childExpr.getCode());
+        var exit = new OpCondInstruction(negated);
+        exit.setLabel(endif);
 
+        code.label("while" + temp);
+        code.append(childExpr.getComputation());
+        code.add(exit);
+        code.append(stmt);
+        code.add(new GotoInstruction("while" + temp));
+        code.label(endif);
+        return code;
 
+
+    }
+
+    private OllirCode visitLoweredWhileStmt(JmmNode node) {
+        var code = new OllirCode();
+        String temp = exprVisitor.ollirTypes.nextTemp("");
+        String condition = exprVisitor.ollirTypes.nextTemp("cond");
+
+        // Operands of the condition that the loop does not change are computed before it
+        var assigned = node.getChild(1).getDescendantsAndSelfStream()
+                .filter(stmt -> ASSIGN_STMT.check(stmt))
+                .map(stmt -> stmt.get("name"))
+                .collect(Collectors.toSet());
+        code.append(exprVisitor.hoistInvariants(node.getChild(0), assigned));
+
+        // The condition is tested after the body, so each iteration only takes one conditional branch
+        code.add(new GotoInstruction(condition));
+        code.label("while" + temp);
+        code.append(visit(node.getChild(1)));
+        code.label(condition);
+        code.append(exprVisitor.branch(node.getChild(0), "while" + temp, true));
+        return code;
     }
 
-    private String visitIfStmt(JmmNode node, Void unused){
-        StringBuilder code = new StringBuilder();
+    private OllirCode visitIfStmt(JmmNode node, Void unused){
+        if (lowerConditions) {
+            return visitLoweredIfStmt(node);
+        }
+
+        var code = new OllirCode();
         OllirExprResult exprResult = exprVisitor.visit(node.getChild(0));
-        String thenCode = visit(node.getChild(1));
-        String elseCode = visit(node.getChild(2));
+        var thenCode = visit(node.getChild(1));
+        var elseCode = visit(node.getChild(2));
         String then = exprVisitor.ollirTypes.nextTemp("then");
         String endif = exprVisitor.ollirTypes.nextTemp("endif");
 
+        var condition = new SingleOpCondInstruction(new SingleOpInstruction(exprResult.getCode()));
+        condition.setLabel(then);
+
         code.append(exprResult.getComputation());
-        code.append("if(").append(exprResult.getCode()).append(") goto ").append(then).append(END_STMT);
+        code.add(condition);
 
         code.append(elseCode);
-        code.append("goto ").append(endif).append(END_STMT);
-        code.append(then).append(":\n");
+        code.add(new GotoInstruction(endif));
+        code.label(then);
         code.append(thenCode);
-        code.append(endif).append(":\n");
+        code.label(endif);
+
 
+        return code;
+    }
+
+    private OllirCode visitLoweredIfStmt(JmmNode node) {
+        var code = new OllirCode();
+        String then = exprVisitor.ollirTypes.nextTemp("then");
+        String endif = exprVisitor.ollirTypes.nextTemp("endif");
 
-        return code.toString();
+        code.append(exprVisitor.branch(node.getChild(0), then, true));
+        code.append(visit(node.getChild(2)));
+        code.add(new GotoInstruction(endif));
+        code.label(then);
+        code.append(visit(node.getChild(1)));
+        code.label(endif);
+
+        return code;
     }
 
-    private String visitBlockStmt(JmmNode node, Void unused) {
-        StringBuilder code = new StringBuilder();
+    private OllirCode visitBlockStmt(JmmNode node, Void unused) {
+        var code = new OllirCode();
         for (JmmNode stmt : node.getChildren()) {
             var child = visit(stmt);
             code.append(child);
         }
-        return code.toString();
+        return code;
     }
-    private String visitImport(JmmNode node, Void unused) {
-        StringBuilder result = new StringBuilder();
-        result.append("import ");
+    private OllirCode visitImport(JmmNode node, Void unused) {
         List<String> imports = node.getObjectAsList("name", String.class);
-        if(imports.size() == 1){
-            result.append(imports.get(0));
-        }
-        else {
-            for (int i = 0; i < imports.size(); i++) {
-                result.append(imports.get(i));
-                if (i < imports.size() - 1) {
-                    result.append(".");
-                }
-            }
-        }
-        result.append(END_STMT);
-        return result.toString();
+        classUnit.addImport(String.join(".", imports));
+        return new OllirCode();
     }
-    private String visitField(JmmNode node, Void unused) {
-        if (node.getParent().getKind().equals(CLASS_DECL.toString())) { // penso que é desnecessario mas é para garantir
-            StringBuilder result = new StringBuilder();
-            result.append("field public ");
-            String name = node.get("name");
-            String type = ollirTypes.toOllirType(node.getChild(0));
-            return ".field public " + name + type + END_STMT;
+    private OllirCode visitField(JmmNode node, Void unused) {
+        if (CLASS_DECL.check(node.getParent())) { // penso que é desnecessario mas é para garantir
+            var field = new Field();
+            field.setFieldAccessModifier(AccessModifier.PUBLIC);
+            field.setFieldName(node.get("name"));
+            field.setFieldType(ollirTypes.toType(node.getChild(0)));
+            classUnit.addField(field);
         }
-        return "";
+        return new OllirCode();
     }
 
     /**
-     * Default visitor. Visits every child node and return an empty string.
+     * Default visitor. Visits every child node and returns empty code.
      *
      * @param node
      * @param unused
      * @return
      */
-    private String defaultVisit(JmmNode node, Void unused) {
+    private OllirCode defaultVisit(JmmNode node, Void unused) {
 
         for (var child : node.getChildren()) {
             visit(child);
         }
 
-        return "";
+        return new OllirCode();
     }
 }
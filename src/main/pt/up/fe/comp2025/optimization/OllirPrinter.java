@@ -0,0 +1,230 @@
+package pt.up.fe.comp2025.optimization;
+
+import org.specs.comp.ollir.AccessModifier;
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.ClassUnit;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.Operation;
+import org.specs.comp.ollir.inst.*;
+import org.specs.comp.ollir.type.ArrayType;
+import org.specs.comp.ollir.type.BuiltinKind;
+import org.specs.comp.ollir.type.BuiltinType;
+import org.specs.comp.ollir.type.ClassKind;
+import org.specs.comp.ollir.type.ClassType;
+import org.specs.comp.ollir.type.Type;
+import pt.up.fe.specs.util.exceptions.NotImplementedException;
+
+import java.util.stream.Collectors;
+
+/**
+ * Prints an OLLIR class as OLLIR code that can be parsed back into the same class.
+ */
+public class OllirPrinter {
+
+    private static final String NL = "\n";
+    private static final String INDENT = "    ";
+
+    private final ClassUnit classUnit;
+    private final StringBuilder code;
+
+    public OllirPrinter(ClassUnit classUnit) {
+        this.classUnit = classUnit;
+        this.code = new StringBuilder();
+    }
+
+    public static String print(ClassUnit classUnit) {
+        return new OllirPrinter(classUnit).print();
+    }
+
+    public String print() {
+        code.setLength(0);
+
+        for (var importName : classUnit.getImports()) {
+            code.append("import ").append(importName).append(";").append(NL);
+        }
+
+        code.append(NL).append(classUnit.getClassName());
+        if (classUnit.getSuperClass() != null) {
+            code.append(" extends ").append(classUnit.getSuperClass());
+        }
+        code.append(" {").append(NL).append(NL);
+
+        for (var field : classUnit.getFields()) {
+            code.append(".field ").append(access(field.getFieldAccessModifier()))
+                    .append(field.getFieldName()).append(type(field.getFieldType())).append(";").append(NL);
+        }
+        code.append(NL);
+
+        for (var method : classUnit.getMethods()) {
+            printMethod(method);
+            code.append(NL);
+        }
+
+        code.append("}").append(NL);
+
+        return code.toString();
+    }
+
+    private void printMethod(Method method) {
+        if (method.isConstructMethod()) {
+            code.append(".construct ");
+        } else {
+            code.append(".method ").append(access(method.getMethodAccessModifier()));
+            if (method.isStaticMethod()) {
+                code.append("static ");
+            }
+        }
+
+        var params = method.getParams().stream()
+                .map(this::element)
+                .collect(Collectors.joining(", "));
+
+        code.append(method.getMethodName()).append("(").append(params).append(")")
+                .append(type(method.getReturnType())).append(" {").append(NL);
+
+        for (var instruction : method.getInstructions()) {
+            for (var label : method.getLabels(instruction)) {
+                code.append(label).append(":").append(NL);
+            }
+
+            code.append(INDENT).append(instruction(instruction)).append(";").append(NL);
+        }
+
+        code.append("}").append(NL);
+    }
+
+    private String instruction(Instruction instruction) {
+        if (instruction instanceof AssignInstruction assign) {
+            var type = type(assign.getTypeOfAssign());
+            return element(assign.getDest()) + " :=" + type + " " + instruction(assign.getRhs());
+        }
+
+        if (instruction instanceof SingleOpInstruction singleOp) {
+            return element(singleOp.getSingleOperand());
+        }
+
+        if (instruction instanceof BinaryOpInstruction binaryOp) {
+            return element(binaryOp.getLeftOperand()) + " " + operation(binaryOp.getOperation()) + " "
+                    + element(binaryOp.getRightOperand());
+        }
+
+        if (instruction instanceof UnaryOpInstruction unaryOp) {
+            return operation(unaryOp.getOperation()) + " " + element(unaryOp.getOperand());
+        }
+
+        if (instruction instanceof CallInstruction call) {
+            return call(call);
+        }
+
+        if (instruction instanceof GetFieldInstruction getField) {
+            return "getfield(" + element(getField.getObject()) + ", " + element(getField.getField()) + ")"
+                    + type(getField.getFieldType());
+        }
+
+        if (instruction instanceof PutFieldInstruction putField) {
+            return "putfield(" + element(putField.getObject()) + ", " + element(putField.getField()) + ", "
+                    + element(putField.getValue()) + ").V";
+        }
+
+        if (instruction instanceof GotoInstruction gotoInstruction) {
+            return "goto " + gotoInstruction.getLabel();
+        }
+
+        if (instruction instanceof CondBranchInstruction condBranch) {
+            return "if (" + instruction(condBranch.getCondition()) + ") goto " + condBranch.getLabel();
+        }
+
+        if (instruction instanceof ReturnInstruction ret) {
+            return "ret" + type(ret.getReturnType())
+                    + ret.getOperand().map(operand -> " " + element(operand)).orElse("");
+        }
+
+        throw new NotImplementedException(instruction.getClass());
+    }
+
+    private String call(CallInstruction call) {
+        var arguments = new StringBuilder(element(call.getCaller()));
+
+        call.getMethodNameTry().ifPresent(name -> arguments.append(", ").append(element(name)));
+        for (var argument : call.getArguments()) {
+            arguments.append(", ").append(element(argument));
+        }
+
+        return call.getInvocationKind().toLowerCase() + "(" + arguments + ")" + type(call.getReturnType());
+    }
+
+    private String element(Element element) {
+        if (element instanceof LiteralElement literal) {
+            // Method names are the only string literals
+            if (BuiltinType.is(literal.getType(), BuiltinKind.STRING)) {
+                return "\"" + literal.getLiteral() + "\"";
+            }
+
+            return literal.getLiteral() + type(literal.getType());
+        }
+
+        var operand = (Operand) element;
+
+        // Classes of static calls and 'new', and the 'array' of new arrays, have no type
+        if (ClassType.is(operand.getType(), ClassKind.CLASS) || operand.getName().equals("array")) {
+            return operand.getName();
+        }
+
+        if (operand instanceof ArrayOperand arrayOperand) {
+            var indexes = arrayOperand.getIndexOperands().stream()
+                    .map(this::element)
+                    .collect(Collectors.joining("]["));
+
+            return operand.getName() + "[" + indexes + "]" + type(operand.getType());
+        }
+
+        return operand.getName() + type(operand.getType());
+    }
+
+    private String operation(Operation operation) {
+        var symbol = switch (operation.getOpType()) {
+            case ADD -> "+";
+            case SUB -> "-";
+            case MUL -> "*";
+            case DIV -> "/";
+            case REM -> "%";
+            case LTH -> "<";
+            case GTH -> ">";
+            case LTE -> "<=";
+            case GTE -> ">=";
+            case EQ -> "==";
+            case NEQ -> "!=";
+            case ANDB -> "&&";
+            case ORB -> "||";
+            case NOTB -> "!";
+            default -> throw new NotImplementedException(operation.getOpType());
+        };
+
+        return symbol + type(operation.getTypeInfo());
+    }
+
+    private static String type(Type type) {
+        if (type instanceof ArrayType arrayType) {
+            return ".array" + type(arrayType.getElementType());
+        }
+
+        if (type instanceof ClassType classType) {
+            return "." + classType.getName();
+        }
+
+        var kind = ((BuiltinType) type).getKind();
+        return switch (kind) {
+            case INT32 -> ".i32";
+            case BOOLEAN -> ".bool";
+            case STRING -> ".String";
+            case VOID -> ".V";
+        };
+    }
+
+    private static String access(AccessModifier access) {
+        return access == AccessModifier.DEFAULT ? "" : access.name().toLowerCase() + " ";
+    }
+}
@@ -1,5 +1,11 @@
 package pt.up.fe.comp2025.optimization;
 
+import org.specs.comp.ollir.OperationType;
+import org.specs.comp.ollir.type.ArrayType;
+import org.specs.comp.ollir.type.BuiltinKind;
+import org.specs.comp.ollir.type.BuiltinType;
+import org.specs.comp.ollir.type.ClassKind;
+import org.specs.comp.ollir.type.ClassType;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp2025.ast.TypeUtils;
@@ -18,9 +24,22 @@ public class OptUtils {
 
     private final TypeUtils types;
 
+    private org.specs.comp.ollir.type.Type assumedType;
+
     public OptUtils(TypeUtils types) {
         this.types = types;
         this.temporaries = new AccumulatorMap<>();
+        this.assumedType = null;
+    }
+
+    /**
+     * Sets the type used for expressions whose type is assumed (e.g., calls to methods of imported classes), or null
+     * if it is not known.
+     *
+     * @param assumedType
+     */
+    public void setAssumedType(org.specs.comp.ollir.type.Type assumedType) {
+        this.assumedType = assumedType;
     }
 
 
@@ -48,34 +67,61 @@ public class OptUtils {
     }
 
 
-    public String toOllirType(JmmNode typeNode) {
+    public org.specs.comp.ollir.type.Type toType(JmmNode typeNode) {
 
         TYPE.checkOrThrow(typeNode);
 
-        return toOllirType(types.convertType(typeNode));
+        return toType(types.convertType(typeNode));
     }
 
-    public String toOllirType(Type type) {
-        String baseType = toOllirType(type.getName());
+    public org.specs.comp.ollir.type.Type toType(Type type) {
+        var baseType = toType(type.getName());
         if (type.isArray()) {
-            return ".array" + baseType;
+            return arrayOf(baseType);
         } else {
             return baseType;
         }
     }
 
+    public static ArrayType arrayOf(org.specs.comp.ollir.type.Type elementType) {
+        var arrayType = new ArrayType(1);
+        arrayType.setElementType(elementType);
+
+        return arrayType;
+    }
+
 
-    private String toOllirType(String typeName) {
+    private org.specs.comp.ollir.type.Type toType(String typeName) {
 
-        String type = "." + switch (typeName) {
-            case "int" -> "i32";
-            case "boolean" -> "bool";
-            case "void" -> "V";
-            case "String" -> "String";
-            default -> typeName;
+        return switch (typeName) {
+            case "int" -> new BuiltinType(BuiltinKind.INT32);
+            case "boolean" -> new BuiltinType(BuiltinKind.BOOLEAN);
+            case "void" -> new BuiltinType(BuiltinKind.VOID);
+            case "String" -> new BuiltinType(BuiltinKind.STRING);
+            case "assume" -> assumedType != null ? assumedType : new ClassType(ClassKind.OBJECTREF, typeName);
+            default -> new ClassType(ClassKind.OBJECTREF, typeName);
         };
+    }
 
-        return type;
+    public static OperationType toOperationType(String op) {
+
+        return switch (op) {
+            case "+" -> OperationType.ADD;
+            case "-" -> OperationType.SUB;
+            case "*" -> OperationType.MUL;
+            case "/" -> OperationType.DIV;
+            case "%" -> OperationType.REM;
+            case "<" -> OperationType.LTH;
+            case ">" -> OperationType.GTH;
+            case "<=" -> OperationType.LTE;
+            case ">=" -> OperationType.GTE;
+            case "==" -> OperationType.EQ;
+            case "!=" -> OperationType.NEQ;
+            case "&&" -> OperationType.ANDB;
+            case "||" -> OperationType.ORB;
+            case "!" -> OperationType.NOTB;
+            default -> throw new NotImplementedException("Operator '" + op + "'");
+        };
     }
 
 
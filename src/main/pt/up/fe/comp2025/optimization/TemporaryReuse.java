@@ -0,0 +1,143 @@
+package pt.up.fe.comp2025.optimization;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.Descriptor;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.inst.*;
+import pt.up.fe.comp2025.optimization.dataflow.Liveness;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reuses temporaries of the same type whose live intervals do not overlap, renaming their operands in the
+ * instructions of the method and removing the temporaries that are no longer used from the var table.
+ * <p>
+ * Unlike register allocation, the variables of the source code keep their own registers, and temporaries only share a
+ * register with temporaries of the same type. The CFG of the method must have been built.
+ */
+public class TemporaryReuse {
+
+    private final Method method;
+    private final Set<String> temporaries;
+    private final Map<String, String> renames;
+
+    /**
+     * @param method
+     * @param temporaries the variables of the method that were introduced by the compiler
+     */
+    public TemporaryReuse(Method method, Set<String> temporaries) {
+        this.method = method;
+        this.temporaries = temporaries;
+        this.renames = new HashMap<>();
+    }
+
+    /**
+     * @return the number of temporaries that were removed
+     */
+    public int apply() {
+        var varTable = method.getVarTable();
+
+        // Temporaries with the same type, in the order of their registers
+        Map<String, Set<String>> groups = new LinkedHashMap<>();
+        varTable.entrySet().stream()
+                .filter(entry -> temporaries.contains(entry.getKey()))
+                .sorted(Comparator.comparingInt(entry -> entry.getValue().getVirtualReg()))
+                .forEach(entry -> groups.computeIfAbsent(entry.getValue().getVarType().toString(),
+                        type -> new LinkedHashSet<>()).add(entry.getKey()));
+
+        var liveness = new Liveness(method);
+        for (var group : groups.values()) {
+            var colors = new LinearScanAllocator(method, liveness, group, Integer.MAX_VALUE).allocate().getColors();
+
+            // The first temporary with each color keeps its name
+            Map<Integer, String> names = new HashMap<>();
+            for (var temporary : group) {
+                var name = names.putIfAbsent(colors.get(temporary), temporary);
+                if (name != null) {
+                    renames.put(temporary, name);
+                }
+            }
+        }
+
+        if (renames.isEmpty()) {
+            return 0;
+        }
+
+        for (var inst : method.getInstructions()) {
+            rename(inst);
+        }
+
+        varTable.keySet().removeAll(renames.keySet());
+        compactRegisters(varTable);
+
+        return renames.size();
+    }
+
+    private void rename(Instruction instruction) {
+        if (instruction instanceof AssignInstruction assign) {
+            rename(assign.getDest());
+            rename(assign.getRhs());
+        }
+        else if (instruction instanceof SingleOpInstruction singleOp) {
+            rename(singleOp.getSingleOperand());
+        }
+        else if (instruction instanceof UnaryOpInstruction unaryOp) {
+            rename(unaryOp.getOperand());
+        }
+        else if (instruction instanceof BinaryOpInstruction binOp) {
+            rename(binOp.getLeftOperand());
+            rename(binOp.getRightOperand());
+        }
+        else if (instruction instanceof CallInstruction call) {
+            rename(call.getCaller());
+            call.getArguments().forEach(this::rename);
+        }
+        else if (instruction instanceof CondBranchInstruction branch) {
+            rename(branch.getCondition());
+        }
+        else if (instruction instanceof PutFieldInstruction pf) {
+            rename(pf.getObject());
+            rename(pf.getValue());
+        }
+        else if (instruction instanceof GetFieldInstruction gf) {
+            rename(gf.getObject());
+        }
+        else if (instruction instanceof ReturnInstruction ret) {
+            ret.getOperand().ifPresent(this::rename);
+        }
+    }
+
+    private void rename(Element element) {
+        if (!(element instanceof Operand op) || op.isLiteral()) {
+            return;
+        }
+
+        var name = renames.get(op.getName());
+        if (name != null) {
+            op.setName(name);
+        }
+
+        if (op instanceof ArrayOperand array) {
+            array.getIndexOperands().forEach(this::rename);
+        }
+    }
+
+    // Registers are numbered again from 0, in the same order
+    private static void compactRegisters(Map<String, Descriptor> varTable) {
+        var descriptors = new ArrayList<>(varTable.values());
+        descriptors.sort(Comparator.comparingInt(Descriptor::getVirtualReg));
+
+        int register = 0;
+        for (var descriptor : descriptors) {
+            descriptor.setVirtualReg(register++);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package pt.up.fe.comp2025.optimization.dataflow;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.inst.AssignInstruction;
+import org.specs.comp.ollir.inst.BinaryOpInstruction;
+import org.specs.comp.ollir.inst.Instruction;
+import org.specs.comp.ollir.inst.OpInstruction;
+import org.specs.comp.ollir.inst.UnaryOpInstruction;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expressions whose value is available before and after each instruction of a method, i.e., that were computed in
+ * every path to the instruction and whose operands did not change since.
+ * <p>
+ * Expressions are the operations assigned to variables, and two operations are the same expression if they have the
+ * same operator and operands.
+ */
+public class AvailableExpressions extends BitVectorAnalysis {
+
+    private final Map<String, Integer> indexes;
+    private final List<OpInstruction> expressions;
+    private final Map<String, BitSet> expressionsByVariable;
+
+    public AvailableExpressions(Method method) {
+        super("availableExpressions", Direction.FORWARD, Meet.INTERSECTION);
+
+        this.indexes = new HashMap<>();
+        this.expressions = new ArrayList<>();
+        this.expressionsByVariable = new HashMap<>();
+
+        for (var instruction : method.getInstructions()) {
+            if (!(instruction instanceof AssignInstruction assign) || !(assign.getRhs() instanceof OpInstruction op)) {
+                continue;
+            }
+
+            var key = key(op);
+            if (key == null || indexes.containsKey(key)) {
+                continue;
+            }
+
+            int index = expressions.size();
+            indexes.put(key, index);
+            expressions.add(op);
+
+            for (var operand : op.getOperands()) {
+                if (operand instanceof Operand variable) {
+                    expressionsByVariable.computeIfAbsent(variable.getName(), name -> new BitSet()).set(index);
+                }
+            }
+        }
+
+        solve(method);
+    }
+
+    // Operations on array elements are not tracked
+    private static String key(OpInstruction op) {
+        var key = new StringBuilder(op.getOperation().getOpType().name());
+
+        List<Element> operands;
+        if (op instanceof BinaryOpInstruction binaryOp) {
+            operands = List.of(binaryOp.getLeftOperand(), binaryOp.getRightOperand());
+        } else if (op instanceof UnaryOpInstruction unaryOp) {
+            operands = List.of(unaryOp.getOperand());
+        } else {
+            return null;
+        }
+
+        for (var operand : operands) {
+            if (operand instanceof LiteralElement literal) {
+                key.append(" #").append(literal.getLiteral());
+            } else if (operand instanceof Operand variable && !(variable instanceof ArrayOperand)) {
+                key.append(' ').append(variable.getName());
+            } else {
+                return null;
+            }
+        }
+
+        return key.toString();
+    }
+
+    @Override
+    protected int size() {
+        return expressions.size();
+    }
+
+    @Override
+    protected BitSet computeGen(Instruction instruction) {
+        var gen = new BitSet();
+
+        if (instruction instanceof AssignInstruction assign && assign.getRhs() instanceof OpInstruction op) {
+            var index = getIndex(op);
+            if (index >= 0 && !computeKill(instruction).get(index)) {
+                gen.set(index);
+            }
+        }
+
+        return gen;
+    }
+
+    @Override
+    protected BitSet computeKill(Instruction instruction) {
+        var variable = ReachingDefinitions.getDefinedVariable(instruction);
+        if (variable == null) {
+            return new BitSet();
+        }
+
+        // Shared between instructions, it is never modified
+        return expressionsByVariable.getOrDefault(variable, new BitSet());
+    }
+
+    /**
+     * @param op
+     * @return the number of the expression computed by the operation, or -1 if it is not tracked
+     */
+    public int getIndex(OpInstruction op) {
+        var key = key(op);
+        return key == null ? -1 : indexes.getOrDefault(key, -1);
+    }
+
+    /**
+     * @param index
+     * @return the first operation in the method that computes the expression
+     */
+    public OpInstruction getExpression(int index) {
+        return expressions.get(index);
+    }
+
+    /**
+     * @param instruction
+     * @param op
+     * @return true if the expression computed by the operation is available before the instruction executes
+     */
+    public boolean isAvailable(Instruction instruction, OpInstruction op) {
+        var index = getIndex(op);
+        return index >= 0 && getIn(instruction).get(index);
+    }
+}
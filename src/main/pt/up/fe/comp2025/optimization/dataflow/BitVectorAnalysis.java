@@ -0,0 +1,94 @@
+package pt.up.fe.comp2025.optimization.dataflow;
+
+import org.specs.comp.ollir.inst.Instruction;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dataflow analysis whose facts are sets of numbered elements (e.g., variables or definitions), where each instruction
+ * removes the elements it kills and adds the elements it generates.
+ */
+public abstract class BitVectorAnalysis extends DataflowAnalysis<BitSet> {
+
+    public enum Meet {
+        UNION,
+        INTERSECTION
+    }
+
+    private final Meet meet;
+    private final Map<Instruction, BitSet> gens;
+    private final Map<Instruction, BitSet> kills;
+
+    protected BitVectorAnalysis(String name, Direction direction, Meet meet) {
+        super(name, direction);
+
+        this.meet = meet;
+        this.gens = new IdentityHashMap<>();
+        this.kills = new IdentityHashMap<>();
+    }
+
+    /**
+     * @return the number of elements, only needed by analyses whose meet is the intersection
+     */
+    protected abstract int size();
+
+    protected abstract BitSet computeGen(Instruction instruction);
+
+    protected abstract BitSet computeKill(Instruction instruction);
+
+    @Override
+    protected void prepare(List<Instruction> instructions) {
+        for (var instruction : instructions) {
+            gens.put(instruction, computeGen(instruction));
+            kills.put(instruction, computeKill(instruction));
+        }
+    }
+
+    @Override
+    protected BitSet top() {
+        var top = new BitSet();
+
+        if (meet == Meet.INTERSECTION) {
+            top.set(0, size());
+        }
+
+        return top;
+    }
+
+    @Override
+    protected BitSet boundary() {
+        return new BitSet();
+    }
+
+    @Override
+    protected void meet(BitSet target, BitSet fact) {
+        switch (meet) {
+            case UNION -> target.or(fact);
+            case INTERSECTION -> target.and(fact);
+        }
+    }
+
+    @Override
+    protected void assign(BitSet target, BitSet source) {
+        target.clear();
+        target.or(source);
+    }
+
+    @Override
+    protected void transfer(Instruction instruction, BitSet input, BitSet output) {
+        assign(output, input);
+        output.andNot(kills.get(instruction));
+        output.or(gens.get(instruction));
+    }
+
+    public BitSet getGen(Instruction instruction) {
+        return gens.get(instruction);
+    }
+
+    public BitSet getKill(Instruction instruction) {
+        return kills.get(instruction);
+    }
+}
@@ -0,0 +1,153 @@
+package pt.up.fe.comp2025.optimization.dataflow;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.LiteralElement;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.inst.AssignInstruction;
+import org.specs.comp.ollir.inst.BinaryOpInstruction;
+import org.specs.comp.ollir.inst.Instruction;
+import org.specs.comp.ollir.inst.SingleOpInstruction;
+import org.specs.comp.ollir.inst.UnaryOpInstruction;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * Integer and boolean variables that hold a constant value before and after each instruction of a method.
+ * <p>
+ * A fact maps variables to their value. Variables that are not in the map have not been assigned yet, and variables
+ * mapped to null are not constant. Booleans are 0 or 1.
+ */
+public class ConstantPropagation extends DataflowAnalysis<Map<String, Integer>> {
+
+    private final Method method;
+
+    public ConstantPropagation(Method method) {
+        super("constantPropagation", Direction.FORWARD);
+
+        this.method = method;
+
+        solve(method);
+    }
+
+    @Override
+    protected Map<String, Integer> top() {
+        return new HashMap<>();
+    }
+
+    // Parameters are not constant
+    @Override
+    protected Map<String, Integer> boundary() {
+        var boundary = new HashMap<String, Integer>();
+
+        for (var param : method.getParams()) {
+            if (param instanceof Operand operand) {
+                boundary.put(operand.getName(), null);
+            }
+        }
+
+        return boundary;
+    }
+
+    @Override
+    protected void meet(Map<String, Integer> target, Map<String, Integer> fact) {
+        for (var entry : fact.entrySet()) {
+            var variable = entry.getKey();
+
+            if (!target.containsKey(variable)) {
+                target.put(variable, entry.getValue());
+            } else if (!Objects.equals(target.get(variable), entry.getValue())) {
+                target.put(variable, null);
+            }
+        }
+    }
+
+    @Override
+    protected void assign(Map<String, Integer> target, Map<String, Integer> source) {
+        target.clear();
+        target.putAll(source);
+    }
+
+    @Override
+    protected void transfer(Instruction instruction, Map<String, Integer> input, Map<String, Integer> output) {
+        assign(output, input);
+
+        var variable = ReachingDefinitions.getDefinedVariable(instruction);
+        if (variable != null) {
+            output.put(variable, evaluate(((AssignInstruction) instruction).getRhs(), input));
+        }
+    }
+
+    // Returns null if the value is not constant
+    private static Integer evaluate(Instruction rhs, Map<String, Integer> values) {
+        if (rhs instanceof SingleOpInstruction singleOp) {
+            return value(singleOp.getSingleOperand(), values);
+        }
+
+        if (rhs instanceof UnaryOpInstruction unaryOp) {
+            var operand = value(unaryOp.getOperand(), values);
+            return switch (unaryOp.getOperation().getOpType()) {
+                case NOTB -> operand == null ? null : 1 - operand;
+                default -> null;
+            };
+        }
+
+        if (rhs instanceof BinaryOpInstruction binaryOp) {
+            var left = value(binaryOp.getLeftOperand(), values);
+            var right = value(binaryOp.getRightOperand(), values);
+            if (left == null || right == null) {
+                return null;
+            }
+
+            return switch (binaryOp.getOperation().getOpType()) {
+                case ADD -> left + right;
+                case SUB -> left - right;
+                case MUL -> left * right;
+                case DIV -> right == 0 ? null : left / right;
+                case REM -> right == 0 ? null : left % right;
+                case LTH -> left < right ? 1 : 0;
+                case GTH -> left > right ? 1 : 0;
+                case LTE -> left <= right ? 1 : 0;
+                case GTE -> left >= right ? 1 : 0;
+                case EQ -> left.equals(right) ? 1 : 0;
+                case NEQ -> !left.equals(right) ? 1 : 0;
+                case ANDB -> left & right;
+                case ORB -> left | right;
+                default -> null;
+            };
+        }
+
+        // Calls, fields, arrays...
+        return null;
+    }
+
+    private static Integer value(Element element, Map<String, Integer> values) {
+        if (element instanceof LiteralElement literal) {
+            try {
+                return Integer.parseInt(literal.getLiteral());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        if (element instanceof Operand operand && !(operand instanceof ArrayOperand)) {
+            return values.get(operand.getName());
+        }
+
+        return null;
+    }
+
+    /**
+     * @param instruction
+     * @param variable
+     * @return the value of the variable before the instruction executes, if it is constant
+     */
+    public OptionalInt getConstant(Instruction instruction, String variable) {
+        var value = getIn(instruction).get(variable);
+        return value == null ? OptionalInt.empty() : OptionalInt.of(value);
+    }
+}
@@ -0,0 +1,282 @@
+package pt.up.fe.comp2025.optimization.dataflow;
+
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Node;
+import org.specs.comp.ollir.inst.Instruction;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dataflow analysis over the instructions of an OLLIR method, solved with a worklist.
+ * <p>
+ * Subclasses define the facts of the analysis, their top value, the meet of two facts and the transfer function of
+ * each instruction. Facts are updated in place, so that solving does not allocate a new fact for each visit.
+ * <p>
+ * The analysis uses the CFG of the method, which must have been built (e.g., with
+ * {@link org.specs.comp.ollir.ClassUnit#buildCFGs()}). The worklist visits instructions in reverse postorder for forward
+ * analyses and in postorder for backward analyses, so that an instruction is usually visited after the instructions
+ * that flow into it.
+ *
+ * @param <F> type of the facts
+ */
+public abstract class DataflowAnalysis<F> {
+
+    public enum Direction {
+        FORWARD,
+        BACKWARD
+    }
+
+    private final String name;
+    private final Direction direction;
+
+    // Instructions in the order they are visited, and their position in it
+    private List<Instruction> order;
+    private Map<Instruction, Integer> positions;
+
+    // Facts before and after the transfer function of each instruction, in the direction of the analysis
+    private List<F> inputs;
+    private List<F> outputs;
+
+    private int iterations;
+
+    protected DataflowAnalysis(String name, Direction direction) {
+        this.name = name;
+        this.direction = direction;
+        this.order = List.of();
+        this.positions = Map.of();
+        this.inputs = List.of();
+        this.outputs = List.of();
+        this.iterations = 0;
+    }
+
+    /**
+     * @return a new fact with the initial value of every instruction, which is the identity of the meet
+     */
+    protected abstract F top();
+
+    /**
+     * @return a new fact with the value that enters the method (forward) or leaves it (backward)
+     */
+    protected abstract F boundary();
+
+    /**
+     * Updates the target with the meet of the target and the given fact.
+     *
+     * @param target
+     * @param fact
+     */
+    protected abstract void meet(F target, F fact);
+
+    /**
+     * Makes the target equal to the source.
+     *
+     * @param target
+     * @param source
+     */
+    protected abstract void assign(F target, F source);
+
+    /**
+     * Sets the output to the result of applying the given instruction to the input.
+     *
+     * @param instruction
+     * @param input
+     * @param output
+     */
+    protected abstract void transfer(Instruction instruction, F input, F output);
+
+    /**
+     * Called before solving, with the instructions of the method in the order they are visited.
+     *
+     * @param instructions
+     */
+    protected void prepare(List<Instruction> instructions) {
+    }
+
+    /**
+     * Solves the analysis for the given method. Facts must be compared with {@link Object#equals(Object)}.
+     *
+     * @param method
+     */
+    protected void solve(Method method) {
+        order = order(method);
+        positions = new IdentityHashMap<>();
+        for (int i = 0; i < order.size(); i++) {
+            positions.put(order.get(i), i);
+        }
+
+        prepare(order);
+
+        inputs = new ArrayList<>(order.size());
+        outputs = new ArrayList<>(order.size());
+        for (int i = 0; i < order.size(); i++) {
+            inputs.add(top());
+            outputs.add(top());
+        }
+
+        iterations = 0;
+
+        try (var timer = CompilerMetrics.time(name)) {
+            iterate();
+            CompilerMetrics.count("iterations", iterations);
+        }
+    }
+
+    private void iterate() {
+        var topFact = top();
+        var boundaryFact = boundary();
+        var scratch = top();
+
+        // Instructions still to visit, by position
+        var worklist = new BitSet(order.size());
+        worklist.set(0, order.size());
+
+        for (int i = worklist.nextSetBit(0); i >= 0; i = worklist.nextSetBit(0)) {
+            worklist.clear(i);
+            iterations++;
+
+            var instruction = order.get(i);
+            var input = inputs.get(i);
+
+            assign(input, topFact);
+            var incoming = incoming(instruction);
+            if (incoming.isEmpty()) {
+                meet(input, boundaryFact);
+            }
+            for (var node : incoming) {
+                if (node == null) {
+                    continue;
+                }
+
+                var position = position(node);
+                meet(input, position >= 0 ? outputs.get(position) : boundaryFact);
+            }
+
+            transfer(instruction, input, scratch);
+
+            if (scratch.equals(outputs.get(i))) {
+                continue;
+            }
+
+            // The previous output is reused as the scratch fact of the next visit
+            var previous = outputs.get(i);
+            outputs.set(i, scratch);
+            scratch = previous;
+
+            for (var node : outgoing(instruction)) {
+                var position = position(node);
+                if (position >= 0) {
+                    worklist.set(position);
+                }
+            }
+        }
+    }
+
+    private List<Node> incoming(Instruction instruction) {
+        return direction == Direction.FORWARD ? instruction.getPredecessors() : instruction.getSuccessors();
+    }
+
+    private List<Node> outgoing(Instruction instruction) {
+        return direction == Direction.FORWARD ? instruction.getSuccessors() : instruction.getPredecessors();
+    }
+
+    private List<Instruction> order(Method method) {
+        var postorder = postorder(method);
+
+        if (direction == Direction.FORWARD) {
+            Collections.reverse(postorder);
+        }
+
+        return postorder;
+    }
+
+    // Instructions reachable from the beginning of the method come first, followed by the unreachable ones
+    private static List<Instruction> postorder(Method method) {
+        var order = new ArrayList<Instruction>();
+        var visited = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+
+        var roots = new ArrayList<Node>();
+        roots.add(method.getBeginNode());
+        roots.addAll(method.getInstructions());
+
+        for (var root : roots) {
+            if (root == null || !visited.add(root)) {
+                continue;
+            }
+
+            // Iterative DFS, each entry is a node and the index of its next successor to visit
+            var nodes = new ArrayList<Node>();
+            var next = new ArrayList<Integer>();
+            nodes.add(root);
+            next.add(0);
+
+            while (!nodes.isEmpty()) {
+                int top = nodes.size() - 1;
+                var node = nodes.get(top);
+                var successors = node.getSuccessors();
+                int index = next.get(top);
+
+                if (index < successors.size()) {
+                    next.set(top, index + 1);
+                    var successor = successors.get(index);
+                    if (successor != null && visited.add(successor)) {
+                        nodes.add(successor);
+                        next.add(0);
+                    }
+                    continue;
+                }
+
+                nodes.remove(top);
+                next.remove(top);
+                if (node instanceof Instruction instruction) {
+                    order.add(instruction);
+                }
+            }
+        }
+
+        return order;
+    }
+
+    /**
+     * @param node
+     * @return the position of the node in the order instructions are visited, or -1 if it is not an instruction of
+     * the method
+     */
+    protected int position(Node node) {
+        if (!(node instanceof Instruction instruction)) {
+            return -1;
+        }
+
+        return positions.getOrDefault(instruction, -1);
+    }
+
+    /**
+     * @param instruction
+     * @return the fact before the instruction executes
+     */
+    public F getIn(Instruction instruction) {
+        var position = positions.get(instruction);
+        return direction == Direction.FORWARD ? inputs.get(position) : outputs.get(position);
+    }
+
+    /**
+     * @param instruction
+     * @return the fact after the instruction executes
+     */
+    public F getOut(Instruction instruction) {
+        var position = positions.get(instruction);
+        return direction == Direction.FORWARD ? outputs.get(position) : inputs.get(position);
+    }
+
+    /**
+     * @return the number of times an instruction was visited until the analysis converged
+     */
+    public int getIterations() {
+        return iterations;
+    }
+}
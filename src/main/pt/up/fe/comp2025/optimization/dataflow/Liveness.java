@@ -0,0 +1,153 @@
+package pt.up.fe.comp2025.optimization.dataflow;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.Element;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.inst.AssignInstruction;
+import org.specs.comp.ollir.inst.BinaryOpInstruction;
+import org.specs.comp.ollir.inst.CallInstruction;
+import org.specs.comp.ollir.inst.CondBranchInstruction;
+import org.specs.comp.ollir.inst.GetFieldInstruction;
+import org.specs.comp.ollir.inst.Instruction;
+import org.specs.comp.ollir.inst.PutFieldInstruction;
+import org.specs.comp.ollir.inst.ReturnInstruction;
+import org.specs.comp.ollir.inst.SingleOpInstruction;
+import org.specs.comp.ollir.inst.UnaryOpInstruction;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Variables that are live before and after each instruction of a method.
+ * <p>
+ * Variables are numbered densely, in the order they are found. Besides local variables, the names of classes used
+ * as callers of static calls are also found, they are never defined.
+ */
+public class Liveness extends BitVectorAnalysis {
+
+    private final Map<String, Integer> indexes;
+    private final List<String> variables;
+
+    public Liveness(Method method) {
+        super("liveness", Direction.BACKWARD, Meet.UNION);
+
+        this.indexes = new HashMap<>();
+        this.variables = new ArrayList<>();
+
+        solve(method);
+    }
+
+    @Override
+    protected int size() {
+        return variables.size();
+    }
+
+    private int index(String variable) {
+        return indexes.computeIfAbsent(variable, name -> {
+            variables.add(name);
+            return variables.size() - 1;
+        });
+    }
+
+    @Override
+    protected BitSet computeKill(Instruction instruction) {
+        var defs = new BitSet();
+
+        // Assignments to elements of arrays use the array variable instead
+        var variable = ReachingDefinitions.getDefinedVariable(instruction);
+        if (variable != null) {
+            defs.set(index(variable));
+        }
+
+        return defs;
+    }
+
+    @Override
+    protected BitSet computeGen(Instruction instruction) {
+        var uses = new BitSet();
+        addUses(uses, instruction);
+        return uses;
+    }
+
+    private void addUses(BitSet uses, Instruction instruction) {
+        if (instruction instanceof AssignInstruction assign) {
+            if (assign.getDest() instanceof ArrayOperand dest) {
+                addUse(uses, dest);
+            }
+            addUses(uses, assign.getRhs());
+        }
+        else if (instruction instanceof SingleOpInstruction singleOp) {
+            addUse(uses, singleOp.getSingleOperand());
+        }
+        else if (instruction instanceof UnaryOpInstruction unaryOp) {
+            addUse(uses, unaryOp.getOperand());
+        }
+        else if (instruction instanceof BinaryOpInstruction binOp) {
+            addUse(uses, binOp.getLeftOperand());
+            addUse(uses, binOp.getRightOperand());
+        }
+        else if (instruction instanceof CallInstruction call) {
+            addUse(uses, call.getCaller());
+            call.getArguments().forEach(argument -> addUse(uses, argument));
+        }
+        else if (instruction instanceof CondBranchInstruction branch) {
+            addUses(uses, branch.getCondition());
+        }
+        else if (instruction instanceof PutFieldInstruction pf) {
+            addUse(uses, pf.getObject());
+            addUse(uses, pf.getValue());
+        }
+        else if (instruction instanceof GetFieldInstruction gf) {
+            addUse(uses, gf.getObject());
+        }
+        else if (instruction instanceof ReturnInstruction ret) {
+            ret.getOperand().ifPresent(elem -> addUse(uses, elem));
+        }
+    }
+
+    private void addUse(BitSet uses, Element element) {
+        if (element instanceof Operand op && !op.isLiteral()) {
+            uses.set(index(op.getName()));
+
+            if (op instanceof ArrayOperand array) {
+                array.getIndexOperands().forEach(index -> addUse(uses, index));
+            }
+        }
+    }
+
+    public int getNumVariables() {
+        return variables.size();
+    }
+
+    public String getVariable(int index) {
+        return variables.get(index);
+    }
+
+    /**
+     * @param variable
+     * @return the number of the variable, or -1 if it does not appear in the method
+     */
+    public int getIndex(String variable) {
+        return indexes.getOrDefault(variable, -1);
+    }
+
+    public BitSet getDefs(Instruction instruction) {
+        return getKill(instruction);
+    }
+
+    public BitSet getUses(Instruction instruction) {
+        return getGen(instruction);
+    }
+
+    public BitSet getLiveIn(Instruction instruction) {
+        return getIn(instruction);
+    }
+
+    public BitSet getLiveOut(Instruction instruction) {
+        return getOut(instruction);
+    }
+}
@@ -0,0 +1,109 @@
+package pt.up.fe.comp2025.optimization.dataflow;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.inst.AssignInstruction;
+import org.specs.comp.ollir.inst.Instruction;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Definitions of variables that reach each instruction of a method.
+ * <p>
+ * Definitions are the assignments to variables, numbered in the order they appear in the method. Assignments to
+ * elements of arrays do not define the array variable.
+ */
+public class ReachingDefinitions extends BitVectorAnalysis {
+
+    private final List<AssignInstruction> definitions;
+    private final Map<Instruction, Integer> numbers;
+    private final Map<String, BitSet> definitionsByVariable;
+
+    public ReachingDefinitions(Method method) {
+        super("reachingDefinitions", Direction.FORWARD, Meet.UNION);
+
+        this.definitions = new ArrayList<>();
+        this.numbers = new IdentityHashMap<>();
+        this.definitionsByVariable = new HashMap<>();
+
+        for (var instruction : method.getInstructions()) {
+            var variable = getDefinedVariable(instruction);
+            if (variable == null) {
+                continue;
+            }
+
+            definitionsByVariable.computeIfAbsent(variable, name -> new BitSet()).set(definitions.size());
+            numbers.put(instruction, definitions.size());
+            definitions.add((AssignInstruction) instruction);
+        }
+
+        solve(method);
+    }
+
+    /**
+     * @param instruction
+     * @return the name of the variable the instruction defines, or null if it does not define one
+     */
+    public static String getDefinedVariable(Instruction instruction) {
+        if (instruction instanceof AssignInstruction assign && assign.getDest() instanceof Operand dest
+                && !(dest instanceof ArrayOperand)) {
+            return dest.getName();
+        }
+
+        return null;
+    }
+
+    @Override
+    protected int size() {
+        return definitions.size();
+    }
+
+    @Override
+    protected BitSet computeGen(Instruction instruction) {
+        var gen = new BitSet();
+
+        var definition = numbers.get(instruction);
+        if (definition != null) {
+            gen.set(definition);
+        }
+
+        return gen;
+    }
+
+    @Override
+    protected BitSet computeKill(Instruction instruction) {
+        var variable = getDefinedVariable(instruction);
+        if (variable == null) {
+            return new BitSet();
+        }
+
+        // Kills all definitions of the variable, its own is generated again. The set is shared, it is never modified
+        return definitionsByVariable.get(variable);
+    }
+
+    public AssignInstruction getDefinition(int index) {
+        return definitions.get(index);
+    }
+
+    /**
+     * @param variable
+     * @return the numbers of the definitions of the given variable
+     */
+    public BitSet getDefinitions(String variable) {
+        return definitionsByVariable.getOrDefault(variable, new BitSet());
+    }
+
+    /**
+     * @param instruction
+     * @return the definitions that reach the instruction, before it executes
+     */
+    public List<AssignInstruction> getReaching(Instruction instruction) {
+        return getIn(instruction).stream().mapToObj(definitions::get).toList();
+    }
+}
@@ -0,0 +1,174 @@
+package pt.up.fe.comp2025.parser;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2025.JavammParser.*;
+import pt.up.fe.comp2025.ast.AstNode;
+import pt.up.fe.comp2025.ast.Kind;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the AST of a Javamm parse tree.
+ * <p>
+ * Creates the same tree as {@link pt.up.fe.comp.jmm.ast.antlr.AntlrToJmmNodeConverter}, but with {@link AstNode}s and
+ * without reflection: the kind and the attributes of each node come from the labels of the grammar. Equal names are
+ * kept as a single string, and integer literals are parsed once.
+ */
+public class AstBuilder {
+
+    private static final String[] NO_LABELS = AstNode.layout();
+    private static final String[] NAME = AstNode.layout("name");
+    private static final String[] OP = AstNode.layout("op");
+    private static final String[] VALUE = AstNode.layout("value");
+    private static final String[] DATA_TYPE = AstNode.layout("dataType");
+    private static final String[] IMPORT = AstNode.layout("ID", "name");
+    private static final String[] CLASS_DECL = AstNode.layout("name", "superName");
+    private static final String[] METHOD_DECL = AstNode.layout("isPublic", "isStatic", "public_", "name", "void_",
+            "paramName");
+
+    private final Map<String, String> names;
+
+    private AstBuilder() {
+        this.names = new HashMap<>();
+    }
+
+    /**
+     * @param tree the parse tree of a rule of the Javamm grammar
+     * @return the root of the AST
+     */
+    public static JmmNode build(ParserRuleContext tree) {
+        return new AstBuilder().convert(tree);
+    }
+
+    private AstNode convert(ParserRuleContext context) {
+        var node = newNode(context);
+        node.setPosition(context.start.getLine(), context.start.getCharPositionInLine(),
+                context.stop.getLine(), context.stop.getCharPositionInLine());
+
+        // Tokens are only kept as attributes
+        for (int i = 0; i < context.getChildCount(); i++) {
+            if (context.getChild(i) instanceof ParserRuleContext child) {
+                node.add(convert(child));
+            }
+        }
+
+        return node;
+    }
+
+    private AstNode newNode(ParserRuleContext context) {
+        if (context instanceof VarRefExprContext varRef) {
+            return newNode(Kind.VAR_REF_EXPR, NAME, "name", varRef.name);
+        } else if (context instanceof IntegerLiteralContext literal) {
+            var node = newNode(Kind.INTEGER_LITERAL, VALUE, "value", literal.value);
+            parseInt(node, literal.value.getText());
+            return node;
+        } else if (context instanceof BinaryExprContext binary) {
+            return newNode(Kind.BINARY_EXPR, OP, "op", binary.op);
+        } else if (context instanceof MethodCallExprContext call) {
+            return newNode(Kind.METHOD_CALL_EXPR, NAME, "name", call.name);
+        } else if (context instanceof ArrayAcessExprContext) {
+            return new AstNode(Kind.ARRAY_ACESS_EXPR, NO_LABELS);
+        } else if (context instanceof ParenExprContext) {
+            return new AstNode(Kind.PAREN_EXPR, NO_LABELS);
+        } else if (context instanceof UnaryExprContext unary) {
+            return newNode(Kind.UNARY_EXPR, OP, "op", unary.op);
+        } else if (context instanceof IdentifierContext identifier) {
+            return newNode(Kind.IDENTIFIER, VALUE, "value", identifier.value);
+        } else if (context instanceof ThisExprContext thisExpr) {
+            return newNode(Kind.THIS_EXPR, VALUE, "value", thisExpr.value);
+        } else if (context instanceof LengthExprContext length) {
+            return newNode(Kind.LENGTH_EXPR, NAME, "name", length.name);
+        } else if (context instanceof NewExprContext newExpr) {
+            return newNode(Kind.NEW_EXPR, NAME, "name", newExpr.name);
+        } else if (context instanceof NewArrayExprContext) {
+            return new AstNode(Kind.NEW_ARRAY_EXPR, NO_LABELS);
+        } else if (context instanceof ArrayExprContext) {
+            return new AstNode(Kind.ARRAY_EXPR, NO_LABELS);
+        } else if (context instanceof AssignStmtContext assign) {
+            return newNode(Kind.ASSIGN_STMT, NAME, "name", assign.name);
+        } else if (context instanceof ArrayStmtContext arrayStmt) {
+            return newNode(Kind.ARRAY_STMT, NAME, "name", arrayStmt.name);
+        } else if (context instanceof SimpleStmtContext) {
+            return new AstNode(Kind.SIMPLE_STMT, NO_LABELS);
+        } else if (context instanceof BlockStmtContext) {
+            return new AstNode(Kind.BLOCK_STMT, NO_LABELS);
+        } else if (context instanceof IfStmtContext) {
+            return new AstNode(Kind.IF_STMT, NO_LABELS);
+        } else if (context instanceof LoopStmtContext) {
+            return new AstNode(Kind.LOOP_STMT, NO_LABELS);
+        } else if (context instanceof ReturnStatementContext) {
+            return new AstNode(Kind.RETURN_STATEMENT, NO_LABELS);
+        } else if (context instanceof VarDeclContext varDecl) {
+            return newNode(Kind.VAR_DECL, NAME, "name", varDecl.name);
+        } else if (context instanceof IntContext type) {
+            return newNode(Kind.INT, DATA_TYPE, "dataType", type.dataType);
+        } else if (context instanceof IdContext type) {
+            return newNode(Kind.ID, DATA_TYPE, "dataType", type.dataType);
+        } else if (context instanceof BooleanContext type) {
+            return newNode(Kind.BOOLEAN, DATA_TYPE, "dataType", type.dataType);
+        } else if (context instanceof VarArgsContext type) {
+            return newNode(Kind.VAR_ARGS, DATA_TYPE, "dataType", type.dataType);
+        } else if (context instanceof ArrayContext) {
+            return new AstNode(Kind.ARRAY, NO_LABELS);
+        } else if (context instanceof ParamContext param) {
+            return newNode(Kind.PARAM, NAME, "name", param.name);
+        } else if (context instanceof MethodDeclContext method) {
+            var node = new AstNode(Kind.METHOD_DECL, METHOD_DECL);
+            node.putObject("isPublic", method.isPublic);
+            node.putObject("isStatic", method.isStatic);
+            put(node, "public_", method.public_);
+            put(node, "name", method.name);
+            put(node, "void_", method.void_);
+            put(node, "paramName", method.paramName);
+            return node;
+        } else if (context instanceof ClassDeclContext classDecl) {
+            var node = newNode(Kind.CLASS_DECL, CLASS_DECL, "name", classDecl.name);
+            put(node, "superName", classDecl.superName);
+            return node;
+        } else if (context instanceof ImportContext importDecl) {
+            var node = newNode(Kind.IMPORT, IMPORT, "ID", importDecl.ID);
+            var name = new ArrayList<String>(importDecl.name.size());
+            for (var token : importDecl.name) {
+                name.add(getName(token));
+            }
+            node.putObject("name", name);
+            return node;
+        } else if (context instanceof ProgramContext) {
+            return new AstNode(Kind.PROGRAM, NO_LABELS);
+        }
+
+        throw new RuntimeException("Node not supported by the AST builder: " + context.getClass().getSimpleName());
+    }
+
+    private AstNode newNode(Kind kind, String[] layout, String attribute, Token token) {
+        var node = new AstNode(kind, layout);
+        put(node, attribute, token);
+        return node;
+    }
+
+    private void put(AstNode node, String attribute, Token token) {
+        if (token != null) {
+            node.putObject(attribute, getName(token));
+        }
+    }
+
+    private String getName(Token token) {
+        var text = token.getText();
+        var name = names.putIfAbsent(text, text);
+
+        return name != null ? name : text;
+    }
+
+    // Literals too large for an int are parsed, and fail, only when their value is used
+    private static void parseInt(AstNode node, String literal) {
+        try {
+            node.setIntValue(Integer.parseInt(literal));
+        } catch (NumberFormatException e) {
+            // Keeps the text only
+        }
+    }
+}
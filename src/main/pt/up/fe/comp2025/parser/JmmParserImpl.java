@@ -1,15 +1,23 @@
 package pt.up.fe.comp2025.parser;
 
 import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CommonTokenStream;
-import pt.up.fe.comp.jmm.ast.antlr.AntlrParser;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import pt.up.fe.comp.jmm.ast.antlr.JmmErrorListener;
 import pt.up.fe.comp.jmm.parser.JmmParser;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
 import pt.up.fe.comp.jmm.report.Stage;
-import pt.up.fe.comp2025.JavammLexer;
-import pt.up.fe.comp2025.JavammParser;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.specs.util.SpecsSystem;
 
+import java.util.ArrayList;
 import java.util.Map;
 
 /**
@@ -35,29 +43,81 @@ public class JmmParserImpl implements JmmParser {
     @Override
     public JmmParserResult parse(String jmmCode, String startingRule, Map<String, String> config) {
 
-        try {
-            // Convert code string into a character stream
-            var input = new ANTLRInputStream(jmmCode);
-            // Transform characters into tokens using the lexer
-            var lex = new JavammLexer(input);
-            // Wrap lexer around a token stream
-            var tokens = new CommonTokenStream(lex);
-            // Transforms tokens into a parse tree
-            var parser = new JavammParser(tokens);
+        try (var timer = CompilerMetrics.time("parse")) {
 
+            // SLL prediction is much faster and almost always enough, but it can fail on valid code. Its result is
+            // only kept if it parsed without errors, otherwise the code is parsed again with full LL, which also
+            // reports the errors
+            JmmParserResult result = null;
+            if (!CompilerConfig.getFullLL(config)) {
+                try {
+                    result = parse(jmmCode, startingRule, config, PredictionMode.SLL);
+                } catch (RuntimeException e) {
+                    if (!isParseCancellation(e)) {
+                        throw e;
+                    }
+                    CompilerMetrics.count("llFallback", 1);
+                }
+            }
 
-            // Convert ANTLR CST to JmmNode AST
-            var r = AntlrParser.parse(lex, parser, startingRule, config);
+            if (result == null) {
+                result = parse(jmmCode, startingRule, config, PredictionMode.LL);
+            }
 
-            //if (r.getRootNode() != null) {
-            //    System.out.println("AST:\n" + r.getRootNode().toTree());
-            //}
-
-            return r;
+            CompilerMetrics.count("dfaStates", ParserCache.getNumStates());
+            return result;
 
         } catch (Exception e) {
             // There was an uncaught exception during parsing, create an error JmmParserResult without root node
             return JmmParserResult.newError(Report.newError(Stage.SYNTATIC, -1, -1, "Exception during parsing", e), config);
         }
     }
+
+    private JmmParserResult parse(String jmmCode, String startingRule, Map<String, String> config,
+                                  PredictionMode predictionMode) {
+        // Convert code string into a character stream
+        var input = new ANTLRInputStream(jmmCode);
+        // Transform characters into tokens using the lexer, which is reused by the parses in the same thread
+        var lex = ParserCache.getLexer(input);
+        // Wrap lexer around a token stream
+        var tokens = new CommonTokenStream(lex);
+        // Transforms tokens into a parse tree
+        var parser = ParserCache.getParser(tokens);
+
+        // With SLL, the first syntax error stops the parser instead of being recovered from
+        parser.getInterpreter().setPredictionMode(predictionMode);
+        parser.setErrorHandler(predictionMode == PredictionMode.SLL ? new BailErrorStrategy() : new DefaultErrorStrategy());
+
+        lex.removeErrorListeners();
+        var lexerListener = new JmmErrorListener(Stage.LEXICAL);
+        lex.addErrorListener(lexerListener);
+
+        parser.removeErrorListeners();
+        var parserListener = new JmmErrorListener(Stage.SYNTATIC);
+        parser.addErrorListener(parserListener);
+
+        var tree = (ParserRuleContext) SpecsSystem.invoke(parser, startingRule);
+
+        var reports = new ArrayList<Report>();
+        reports.addAll(lexerListener.getReports());
+        reports.addAll(parserListener.getReports());
+
+        if (reports.stream().anyMatch(report -> report.getType() == ReportType.ERROR)) {
+            return new JmmParserResult(null, reports, config);
+        }
+
+        // Convert ANTLR CST to JmmNode AST, the grammar has no ignored rules to remove afterwards
+        return new JmmParserResult(AstBuilder.build(tree), reports, config);
+    }
+
+    // The rule is invoked through reflection, so the exception may be wrapped
+    private static boolean isParseCancellation(Throwable e) {
+        for (var cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ParseCancellationException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
 }
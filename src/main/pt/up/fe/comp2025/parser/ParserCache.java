@@ -0,0 +1,238 @@
+package pt.up.fe.comp2025.parser;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ATNSimulator;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+import pt.up.fe.comp2025.JavammLexer;
+import pt.up.fe.comp2025.JavammParser;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lexer and parser instances, and the prediction cache they share.
+ * <p>
+ * ANTLR caches the decisions it predicts as DFAs in static fields of the generated lexer and parser, so that each
+ * parse in the JVM makes the next ones faster. The cache starts empty, which makes the first file slow, and is never
+ * freed, which makes it grow with every new input in a long-running compiler. {@link #warmUp(List)} fills it before
+ * the first file, and {@link #limit(int)} bounds its size by going back to the cache right after the warm-up. A
+ * {@link #snapshot()} of the cache can also be restored later instead of starting again from an empty cache.
+ * <p>
+ * Each thread keeps its own lexer and parser, which are reused by every {@link JmmParserImpl} on that thread. The
+ * cache is shared by all threads, so it should only be cleared, limited, copied or restored while no other thread is
+ * parsing.
+ */
+public final class ParserCache {
+
+    private static final ThreadLocal<JavammLexer> LEXER =
+            ThreadLocal.withInitial(() -> new JavammLexer(new ANTLRInputStream("")));
+    private static final ThreadLocal<JavammParser> PARSER =
+            ThreadLocal.withInitial(() -> new JavammParser(new CommonTokenStream(LEXER.get())));
+
+    // Cache right after the last warm-up, restored when the cache exceeds its limit
+    private static Snapshot warm = null;
+
+    /**
+     * Copy of the cache, not changed by later parses.
+     */
+    public static final class Snapshot {
+
+        private final DFA[] lexerDecisions;
+        private final DFA[] parserDecisions;
+
+        private Snapshot(DFA[] lexerDecisions, DFA[] parserDecisions) {
+            this.lexerDecisions = lexerDecisions;
+            this.parserDecisions = parserDecisions;
+        }
+
+        /**
+         * @return the number of DFA states in the snapshot
+         */
+        public int getNumStates() {
+            return ParserCache.getNumStates(lexerDecisions) + ParserCache.getNumStates(parserDecisions);
+        }
+    }
+
+    private ParserCache() {
+    }
+
+    /**
+     * @param input
+     * @return the lexer of the current thread, reading from the given input
+     */
+    static JavammLexer getLexer(CharStream input) {
+        var lexer = LEXER.get();
+        lexer.setInputStream(input);
+        return lexer;
+    }
+
+    /**
+     * @param tokens
+     * @return the parser of the current thread, reading from the given tokens
+     */
+    static JavammParser getParser(TokenStream tokens) {
+        var parser = PARSER.get();
+        parser.setTokenStream(tokens);
+        return parser;
+    }
+
+    /**
+     * Parses the given sources, so that the decisions they need are already cached when compiling other files. The
+     * resulting cache is kept, and {@link #limit(int)} goes back to it.
+     *
+     * @param sources
+     * @return the number of states in the cache afterwards
+     */
+    public static int warmUp(List<String> sources) {
+        var parser = new JmmParserImpl();
+        for (var source : sources) {
+            parser.parse(source, Map.of());
+        }
+
+        warm = snapshot();
+        return warm.getNumStates();
+    }
+
+    /**
+     * @return the number of DFA states cached by the lexer and the parser
+     */
+    public static int getNumStates() {
+        return getNumStates(LEXER.get().getInterpreter().decisionToDFA)
+                + getNumStates(PARSER.get().getInterpreter().decisionToDFA);
+    }
+
+    /**
+     * Empties the cache, which is built again by the next parses, and forgets the last warm-up.
+     */
+    public static void clear() {
+        warm = null;
+        LEXER.get().getInterpreter().clearDFA();
+        PARSER.get().getInterpreter().clearDFA();
+    }
+
+    /**
+     * @return a copy of the cache
+     */
+    public static Snapshot snapshot() {
+        return new Snapshot(copy(LEXER.get().getInterpreter().decisionToDFA),
+                copy(PARSER.get().getInterpreter().decisionToDFA));
+    }
+
+    /**
+     * Replaces the cache with a copy of the given snapshot, which can be restored again later.
+     *
+     * @param snapshot
+     */
+    public static void restore(Snapshot snapshot) {
+        restore(LEXER.get().getInterpreter().decisionToDFA, snapshot.lexerDecisions);
+        restore(PARSER.get().getInterpreter().decisionToDFA, snapshot.parserDecisions);
+    }
+
+    /**
+     * If the cache has more than the given number of states, restores the cache of the last warm-up, or empties the
+     * cache if there was no warm-up or its cache does not fit either.
+     *
+     * @param maxStates
+     * @return true if the cache was restored or emptied
+     */
+    public static boolean limit(int maxStates) {
+        if (getNumStates() <= maxStates) {
+            return false;
+        }
+
+        if (warm != null && warm.getNumStates() <= maxStates) {
+            restore(warm);
+        } else {
+            clear();
+        }
+        return true;
+    }
+
+    private static void restore(DFA[] decisions, DFA[] snapshot) {
+        var copy = copy(snapshot);
+        System.arraycopy(copy, 0, decisions, 0, decisions.length);
+    }
+
+    private static DFA[] copy(DFA[] decisions) {
+        var copy = new DFA[decisions.length];
+        for (int i = 0; i < decisions.length; i++) {
+            copy[i] = copy(decisions[i]);
+        }
+
+        return copy;
+    }
+
+    private static DFA copy(DFA dfa) {
+        // Starts as an empty DFA, which already has the start state of a precedence DFA
+        var copy = new DFA(dfa.atnStartState, dfa.decision);
+        var copies = new IdentityHashMap<DFAState, DFAState>();
+        var pending = new ArrayDeque<DFAState>();
+
+        synchronized (dfa.states) {
+            for (var state : dfa.states.keySet()) {
+                var stateCopy = copy(state, copies, pending);
+                copy.states.put(stateCopy, stateCopy);
+            }
+
+            if (dfa.s0 != null) {
+                copy.s0 = copy(dfa.s0, copies, pending);
+            }
+
+            // Edges are copied once all the states they can point to have a copy
+            while (!pending.isEmpty()) {
+                var state = pending.pop();
+                if (state.edges == null) {
+                    continue;
+                }
+
+                var edges = new DFAState[state.edges.length];
+                for (int i = 0; i < edges.length; i++) {
+                    edges[i] = copy(state.edges[i], copies, pending);
+                }
+                copies.get(state).edges = edges;
+            }
+        }
+
+        return copy;
+    }
+
+    private static DFAState copy(DFAState state, Map<DFAState, DFAState> copies, Deque<DFAState> pending) {
+        if (state == null || state == ATNSimulator.ERROR) {
+            return state;
+        }
+
+        var copy = copies.get(state);
+        if (copy != null) {
+            return copy;
+        }
+
+        // Configurations, actions and predicates are never changed once the state is in the DFA, so they are shared
+        copy = new DFAState(state.configs);
+        copy.stateNumber = state.stateNumber;
+        copy.isAcceptState = state.isAcceptState;
+        copy.prediction = state.prediction;
+        copy.lexerActionExecutor = state.lexerActionExecutor;
+        copy.requiresFullContext = state.requiresFullContext;
+        copy.predicates = state.predicates;
+
+        copies.put(state, copy);
+        pending.push(state);
+        return copy;
+    }
+
+    private static int getNumStates(DFA[] decisions) {
+        int states = 0;
+        for (var dfa : decisions) {
+            states += dfa.states.size();
+        }
+
+        return states;
+    }
+}
@@ -2,6 +2,7 @@ package pt.up.fe.comp2025.symboltable;
 
 import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp2025.ast.TypeUtils;
 import pt.up.fe.specs.util.SpecsCheck;
 import pt.up.fe.specs.util.exceptions.NotImplementedException;
@@ -19,6 +20,13 @@ public class JmmSymbolTable extends AJmmSymbolTable {
     private final Map<String, List<Symbol>> locals;
     private final List<Symbol> fields;
     private final List<String> imports;
+    private final Map<String, MethodScope> scopes;
+    private final Map<String, ScopedSymbol> fieldIndex;
+    // Types of the expressions of the AST, computed by TypeUtils
+    private final Map<JmmNode, CachedType> types;
+
+    private record CachedType(String method, Type type) {
+    }
 
 
     public JmmSymbolTable(String className,String superClassName,
@@ -26,7 +34,9 @@ public class JmmSymbolTable extends AJmmSymbolTable {
                           Map<String, Type> returnTypes,
                           Map<String, List<Symbol>> params,
                           Map<String, List<Symbol>> locals, List<Symbol> fields,
-                          List<String> imports) {
+                          List<String> imports,
+                          Map<String, MethodScope> scopes,
+                          Map<String, ScopedSymbol> fieldIndex) {
 
         this.className = className;
         this.methods = methods;
@@ -36,6 +46,9 @@ public class JmmSymbolTable extends AJmmSymbolTable {
         this.fields = fields;
         this.superClassName = superClassName;
         this.imports = imports;
+        this.scopes = scopes;
+        this.fieldIndex = fieldIndex;
+        this.types = new IdentityHashMap<>();
     }
 
     @Override
@@ -80,6 +93,48 @@ public class JmmSymbolTable extends AJmmSymbolTable {
         return locals.get(methodSignature);
     }
 
+    /**
+     * @param methodSignature
+     * @return the parameters and local variables of the method, or null if the method does not exist
+     */
+    public MethodScope getScope(String methodSignature) {
+        return scopes.get(methodSignature);
+    }
+
+    /**
+     * @param name
+     * @return the field with the given name, or null if there is none
+     */
+    public ScopedSymbol getField(String name) {
+        return fieldIndex.get(name);
+    }
+
+    /**
+     * @param expr
+     * @param method the method where the expression is
+     * @return the type previously computed for the expression, or null if there is none
+     */
+    public Type getCachedType(JmmNode expr, String method) {
+        var cached = types.get(expr);
+
+        if (cached == null || !Objects.equals(cached.method(), method)) {
+            return null;
+        }
+
+        return cached.type();
+    }
+
+    public void cacheType(JmmNode expr, String method, Type type) {
+        types.put(expr, new CachedType(method, type));
+    }
+
+    /**
+     * Discards the computed expression types. Must be called after changing the AST.
+     */
+    public void clearTypeCache() {
+        types.clear();
+    }
+
     @Override
     public String toString() {
         return print();
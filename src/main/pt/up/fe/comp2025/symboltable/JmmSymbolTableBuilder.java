@@ -49,8 +49,11 @@ public class JmmSymbolTableBuilder {
         var locals = buildLocals(classDecl);
         var fields = buildFields(classDecl);
         var imports = buildImports(root);
+        var scopes = buildScopes(params, locals);
+        var fieldIndex = MethodScope.index(fields, ScopedSymbol.SymbolKind.FIELD);
 
-        return new JmmSymbolTable(className, superClass, methods, returnTypes, params, locals, fields, imports);
+        return new JmmSymbolTable(className, superClass, methods, returnTypes, params, locals, fields, imports,
+                scopes, fieldIndex);
     }
 
     // faz o mapping dos metodos da class com o seu respetivo tipo de retorno
@@ -147,6 +150,17 @@ public class JmmSymbolTableBuilder {
         return map;
     }
 
+    // Indexes the parameters and locals of each method, so that names are resolved without searching the lists
+    private Map<String, MethodScope> buildScopes(Map<String, List<Symbol>> params, Map<String, List<Symbol>> locals) {
+        var map = new HashMap<String, MethodScope>();
+
+        for (var method : params.keySet()) {
+            map.put(method, new MethodScope(params.get(method), locals.getOrDefault(method, List.of())));
+        }
+
+        return map;
+    }
+
     private List<String> buildMethods(JmmNode classDecl) {
 
         var methods = classDecl.getChildren(METHOD_DECL).stream()
@@ -0,0 +1,51 @@
+package pt.up.fe.comp2025.symboltable;
+
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp2025.symboltable.ScopedSymbol.SymbolKind;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parameters and local variables of a method, indexed by name.
+ * <p>
+ * If a name is declared more than once, the first declaration is kept, as when searching the lists in order.
+ */
+public class MethodScope {
+
+    private final Map<String, ScopedSymbol> params;
+    private final Map<String, ScopedSymbol> locals;
+
+    public MethodScope(List<Symbol> params, List<Symbol> locals) {
+        this.params = index(params, SymbolKind.PARAMETER);
+        this.locals = index(locals, SymbolKind.LOCAL);
+    }
+
+    static Map<String, ScopedSymbol> index(List<Symbol> symbols, SymbolKind kind) {
+        var map = new HashMap<String, ScopedSymbol>(symbols.size() * 2);
+
+        for (int i = 0; i < symbols.size(); i++) {
+            var symbol = symbols.get(i);
+            map.putIfAbsent(symbol.getName(), new ScopedSymbol(symbol, kind, i));
+        }
+
+        return map;
+    }
+
+    /**
+     * @param name
+     * @return the parameter with the given name, or null if there is none
+     */
+    public ScopedSymbol getParameter(String name) {
+        return params.get(name);
+    }
+
+    /**
+     * @param name
+     * @return the local variable with the given name, or null if there is none
+     */
+    public ScopedSymbol getLocal(String name) {
+        return locals.get(name);
+    }
+}
@@ -0,0 +1,19 @@
+package pt.up.fe.comp2025.symboltable;
+
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+
+/**
+ * A symbol together with where it was declared.
+ *
+ * @param symbol the symbol
+ * @param kind   whether the symbol is a field, a parameter or a local variable
+ * @param slot   position of the symbol in the list of fields, parameters or local variables where it was declared
+ */
+public record ScopedSymbol(Symbol symbol, SymbolKind kind, int slot) {
+
+    public enum SymbolKind {
+        FIELD,
+        PARAMETER,
+        LOCAL
+    }
+}
@@ -0,0 +1,195 @@
+package pt.up.fe.comp2025.utils;
+
+import com.google.gson.GsonBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records wall time, CPU time and allocated bytes of the stages of a compilation.
+ * <p>
+ * A collector is bound to the current thread with {@link #start(String)}, and stages measure themselves with
+ * {@link #time(String)}. When no collector was started, timing a stage does nothing, so stages can always be
+ * instrumented. Stages timed inside other stages are named after their parent (e.g. "analysis/TypeCheck").
+ * <p>
+ * Stages that run in many short parts, interleaved with others, can measure their own wall time and add it with
+ * {@link #addStage(String, long)}, since measuring the CPU time and allocations of each part would cost more than the
+ * part itself.
+ * <p>
+ * Stages can also record counters of the work they did (e.g. iterations of an analysis), with
+ * {@link #count(String, long)}.
+ */
+public class CompilerMetrics {
+
+    private static final ThreadLocal<CompilerMetrics> CURRENT = new ThreadLocal<>();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final Timer NO_OP = () -> {
+    };
+
+    /**
+     * Measures a stage until closed.
+     */
+    public interface Timer extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static class StageMetrics {
+        private final String name;
+        private long wallTimeNs;
+        private long cpuTimeNs;
+        private long allocatedBytes;
+        private Map<String, Long> counters;
+
+        private StageMetrics(String name) {
+            this.name = name;
+            this.counters = null;
+        }
+    }
+
+    private final String source;
+    private final List<StageMetrics> stages;
+    private final transient Deque<StageMetrics> path;
+
+    private CompilerMetrics(String source) {
+        this.source = source;
+        this.stages = new ArrayList<>();
+        this.path = new ArrayDeque<>();
+    }
+
+    /**
+     * Starts collecting metrics in the current thread, replacing any previous collector.
+     *
+     * @param source name of what is being compiled, usually the input file
+     * @return the new collector
+     */
+    public static CompilerMetrics start(String source) {
+        var metrics = new CompilerMetrics(source);
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    /**
+     * Stops collecting metrics in the current thread.
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Starts measuring a stage. Use it in a try-with-resources block.
+     *
+     * @param stage
+     * @return
+     */
+    public static Timer time(String stage) {
+        var metrics = CURRENT.get();
+
+        if (metrics == null) {
+            return NO_OP;
+        }
+
+        return metrics.begin(stage);
+    }
+
+    /**
+     * @return true if metrics are being collected in the current thread
+     */
+    public static boolean isEnabled() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Adds a stage, inside the stage being measured, whose wall time was measured by the caller. Its CPU time and
+     * allocated bytes are not known, and are reported as zero.
+     *
+     * @param stage
+     * @param wallTimeNs
+     */
+    public static void addStage(String stage, long wallTimeNs) {
+        var metrics = CURRENT.get();
+
+        if (metrics == null) {
+            return;
+        }
+
+        var stageMetrics = metrics.add(stage);
+        stageMetrics.wallTimeNs = wallTimeNs;
+    }
+
+    /**
+     * Adds the given value to a counter of the stage being measured. Does nothing if there is no such stage.
+     *
+     * @param counter
+     * @param value
+     */
+    public static void count(String counter, long value) {
+        var metrics = CURRENT.get();
+
+        if (metrics == null || metrics.path.isEmpty()) {
+            return;
+        }
+
+        var stage = metrics.path.peek();
+        if (stage.counters == null) {
+            stage.counters = new LinkedHashMap<>();
+        }
+
+        stage.counters.merge(counter, value, Long::sum);
+    }
+
+    private Timer begin(String stage) {
+        var stageMetrics = add(stage);
+        path.push(stageMetrics);
+
+        long wallStart = System.nanoTime();
+        long cpuStart = cpuTime();
+        long allocatedStart = allocatedBytes();
+
+        return () -> {
+            stageMetrics.wallTimeNs += System.nanoTime() - wallStart;
+            stageMetrics.cpuTimeNs += cpuTime() - cpuStart;
+            stageMetrics.allocatedBytes += allocatedBytes() - allocatedStart;
+            path.pop();
+        };
+    }
+
+    private StageMetrics add(String stage) {
+        var name = path.isEmpty() ? stage : path.peek().name + "/" + stage;
+        var stageMetrics = new StageMetrics(name);
+        stages.add(stageMetrics);
+        return stageMetrics;
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+
+        return 0;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Converts the metrics of several compilations to a JSON array.
+     *
+     * @param metrics
+     * @return
+     */
+    public static String toJson(List<CompilerMetrics> metrics) {
+        return new GsonBuilder().setPrettyPrinting().create().toJson(metrics);
+    }
+}
@@ -0,0 +1,61 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.analysis.AnalysisScheduler;
+import pt.up.fe.comp2025.analysis.AnalysisVisitor;
+import pt.up.fe.comp2025.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2025.analysis.passes.Duplicates;
+import pt.up.fe.comp2025.analysis.passes.TypeCheck;
+import pt.up.fe.comp2025.analysis.passes.UndeclaredMethod;
+import pt.up.fe.comp2025.analysis.passes.UndeclaredVariable;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class AnalysisSchedulerTest {
+
+    private static List<AnalysisVisitor> passes() {
+        return List.of(new UndeclaredVariable(), new TypeCheck(), new UndeclaredMethod(), new Duplicates());
+    }
+
+    @Test
+    public void fusedTraversalMatchesSeparateTraversals() {
+        var config = CompilerConfig.getDefault();
+        var inputs = CompilerConfig.getInputFiles(Map.of("inputFile",
+                "test/pt/up/fe/comp/cp1/semanticanalysis" + File.pathSeparator
+                        + "test/pt/up/fe/comp/cp1/semanticanalysis/extra"));
+
+        assertFalse(inputs.isEmpty());
+
+        for (var input : inputs) {
+            var parserResult = new JmmParserImpl().parse(SpecsIo.read(input), config);
+            var semanticsResult = new JmmAnalysisImpl().buildSymbolTable(parserResult);
+            var root = semanticsResult.getRootNode();
+            var table = semanticsResult.getSymbolTable();
+
+            var fused = new AnalysisScheduler(passes()).analyze(root, table);
+            var separate = passes();
+
+            for (int i = 0; i < separate.size(); i++) {
+                var passResult = fused.get(i);
+                List<String> expected;
+                try {
+                    expected = separate.get(i).analyze(root, table).stream().map(Object::toString).toList();
+                } catch (Exception e) {
+                    assertNotNull(input + ": " + passResult.pass().getClass(), passResult.exception());
+                    continue;
+                }
+
+                assertNull(input + ": " + passResult.pass().getClass(), passResult.exception());
+                assertEquals(input + ": " + passResult.pass().getClass(), expected,
+                        passResult.reports().stream().map(Object::toString).toList());
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package pt.up.fe.comp;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp.jmm.ast.antlr.AntlrParser;
+import pt.up.fe.comp2025.JavammLexer;
+import pt.up.fe.comp2025.JavammParser;
+import pt.up.fe.comp2025.ast.AstNode;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class AstBuilderTest {
+
+    private static final List<String> PROGRAMS = List.of(
+            "pt/up/fe/comp/cp1/symboltable/Imports.jmm",
+            "pt/up/fe/comp/cp1/symboltable/MethodsAndFields.jmm",
+            "pt/up/fe/comp/cp2/ollir/control_flow/SwitchStat.jmm",
+            "pt/up/fe/comp/cp3/jasmin/calls/ConditionArgsFuncCall.jmm");
+
+    private static final String CODE = """
+            import a.b.c;
+            class Built extends c {
+                int[] a;
+                public static void main(String[] args) {
+                }
+                public boolean foo(int... x, boolean b) {
+                    a = [1, 2147483647];
+                    a[0] = new Built().bar(this, x.length);
+                    return !b && (2 < 3);
+                }
+            }
+            """;
+
+    @Test
+    public void sameTreeAsGenericConversion() {
+        assertSameTree(CODE);
+        for (var program : PROGRAMS) {
+            assertSameTree(SpecsIo.getResource(program));
+        }
+    }
+
+    @Test
+    public void nodesAreTyped() {
+        var root = new JmmParserImpl().parse(CODE, Map.of()).getRootNode();
+
+        var literals = root.getDescendants(Kind.INTEGER_LITERAL);
+        assertEquals(2147483647, ((AstNode) literals.get(1)).getIntValue());
+        assertEquals(Kind.BINARY_EXPR, ((AstNode) root.getDescendants(Kind.BINARY_EXPR).get(0)).getNodeKind());
+
+        // Names are shared by the nodes that use them
+        var assigned = root.getDescendants(Kind.ASSIGN_STMT).get(0).get("name");
+        assertSame(assigned, root.getDescendants(Kind.ARRAY_STMT).get(0).get("name"));
+    }
+
+    @Test
+    public void attributesCanBeChanged() {
+        var root = new JmmParserImpl().parse(CODE, Map.of()).getRootNode();
+        var literal = (AstNode) root.getDescendants(Kind.INTEGER_LITERAL).get(0);
+
+        literal.put("value", "5");
+        assertEquals(5, literal.getIntValue());
+
+        assertFalse(literal.hasAttribute("remove"));
+        literal.put("remove", "true");
+        assertEquals("true", literal.get("remove"));
+        assertTrue(literal.getAttributes().contains("remove"));
+
+        literal.put("lineStart", "42");
+        assertEquals(42, literal.getLine());
+    }
+
+    private static void assertSameTree(String code) {
+        var lexer = new JavammLexer(new ANTLRInputStream(code));
+        var expected = AntlrParser.parse(lexer, new JavammParser(new CommonTokenStream(lexer)), "program");
+        var actual = new JmmParserImpl().parse(code, Map.of());
+
+        TestUtils.noErrors(expected);
+        TestUtils.noErrors(actual);
+        assertEquals(toTree(expected.getRootNode()), toTree(actual.getRootNode()));
+    }
+
+    // Includes the hierarchy and position of each node
+    private static String toTree(JmmNode node) {
+        var tree = new StringBuilder(node.getHierarchy() + " " + ((JmmNodeImpl) node).toString(true) + "\n");
+        for (var child : node.getChildren()) {
+            tree.append(toTree(child));
+        }
+
+        return tree.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.BatchCompiler;
+import pt.up.fe.comp2025.CompilerConfig;
+import pt.up.fe.comp2025.ParallelCompiler;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BatchCompilerTest {
+
+    private static final String BASE_PATH = "test/pt/up/fe/comp/cp3/jasmin/basic/";
+
+    @Test
+    public void compileAllKeepsOrder() {
+        var compiler = new BatchCompiler();
+        var config = CompilerConfig.getDefault();
+        var inputs = List.of(new File(BASE_PATH + "OllirToJasminBasic.jmm"),
+                new File(BASE_PATH + "BasicMethodsArray.jmm"),
+                new File(BASE_PATH + "OllirToJasminBasic.jmm"));
+
+        var out = new ByteArrayOutputStream();
+        var results = compiler.compileAll(inputs, config, new PrintStream(out));
+
+        assertEquals(3, results.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            assertEquals(inputs.get(i), results.get(i).inputFile());
+            assertFalse(results.get(i).hasErrors());
+        }
+
+        // Reused stages must produce the same code for the same input
+        assertEquals(results.get(0).jasminCode(), results.get(2).jasminCode());
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        var config = CompilerConfig.getDefault();
+        var inputs = CompilerConfig.getInputFiles(Map.of("inputFile", "test/pt/up/fe/comp/cp3/jasmin/control_flow"));
+
+        var sequential = new BatchCompiler().compileAll(inputs, config, new PrintStream(new ByteArrayOutputStream()));
+        var sequentialOut = new ByteArrayOutputStream();
+        sequential.forEach(result -> BatchCompiler.write(result, config, new PrintStream(sequentialOut)));
+
+        var parallelOut = new ByteArrayOutputStream();
+        var parallel = new ParallelCompiler(4).compileAll(inputs, config, new PrintStream(parallelOut));
+
+        assertFalse(inputs.isEmpty());
+        assertEquals(sequential.size(), parallel.size());
+        assertEquals(sequentialOut.toString(), parallelOut.toString());
+    }
+
+    @Test
+    public void serveReportsErrorsAndContinues() {
+        var compiler = new BatchCompiler();
+        var config = CompilerConfig.getDefault();
+        var requests = new BufferedReader(new StringReader(
+                "doesNotExist.jmm\n\n" + BASE_PATH + "OllirToJasminBasic.jmm\nquit\n" + BASE_PATH + "BasicMethodsArray.jmm\n"));
+
+        var out = new ByteArrayOutputStream();
+        int failed = compiler.serve(requests, config, new PrintStream(out));
+
+        var output = out.toString();
+        assertEquals(1, failed);
+        assertTrue(output.contains("; END doesNotExist.jmm ERROR"));
+        assertTrue(output.contains("; END " + BASE_PATH + "OllirToJasminBasic.jmm OK"));
+        assertFalse(output.contains("BasicMethodsArray"));
+    }
+
+    @Test
+    public void metricsOnlyWhenEnabled() {
+        var compiler = new BatchCompiler();
+        var input = new File(BASE_PATH + "OllirToJasminBasic.jmm");
+
+        assertNull(compiler.compile(input, CompilerConfig.getDefault()).metrics());
+
+        var config = new HashMap<>(CompilerConfig.getDefault());
+        config.put("metrics", "metrics.json");
+        var metrics = compiler.compile(input, config).metrics();
+
+        assertNotNull(metrics);
+        assertEquals(input.getPath(), metrics.getSource());
+
+        var json = CompilerMetrics.toJson(List.of(metrics));
+        assertTrue(json.contains("\"parse\""));
+        assertTrue(json.contains("\"analysis/TypeCheck\""));
+        assertTrue(json.contains("\"jasmin\""));
+    }
+
+    @Test
+    public void directoriesAreCompiledInBatch() {
+        var file = BASE_PATH + "OllirToJasminBasic.jmm";
+        assertFalse(CompilerConfig.isBatch(CompilerConfig.parseArgs(new String[]{"-i=" + file})));
+        assertTrue(CompilerConfig.isBatch(CompilerConfig.parseArgs(new String[]{"-i=" + BASE_PATH})));
+        assertTrue(CompilerConfig.isBatch(CompilerConfig.parseArgs(
+                new String[]{"-i=" + file + File.pathSeparator + file})));
+        assertTrue(CompilerConfig.isBatch(CompilerConfig.parseArgs(new String[]{"-s"})));
+    }
+}
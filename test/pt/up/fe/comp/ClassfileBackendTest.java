@@ -0,0 +1,72 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.backend.ClassfileBackendImpl;
+
+import static org.junit.Assert.*;
+
+public class ClassfileBackendTest {
+
+    private static final String CODE = """
+            class Sum {
+                public int sum(int[] values, int n) {
+                    int i;
+                    int total;
+                    i = 0;
+                    total = 0;
+                    while (i < n) {
+                        if (!(values[i] < 1)) {
+                            total = total + values[i];
+                        } else {
+                        }
+                        i = i + 1;
+                    }
+                    return total;
+                }
+
+                public int[] range(int n) {
+                    int[] values;
+                    int i;
+                    values = new int[n];
+                    i = 0;
+                    while (i < n) {
+                        values[i] = i - 2;
+                        i = i + 1;
+                    }
+                    return values;
+                }
+
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static class ByteClassLoader extends ClassLoader {
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    @Test
+    public void generatedClassRuns() throws Exception {
+        var result = new ClassfileBackendImpl().toClassfile(TestUtils.optimize(CODE));
+        TestUtils.noErrors(result.reports());
+        assertEquals("Sum", result.className());
+
+        var sumClass = new ByteClassLoader().define("Sum", result.bytes());
+        // Like classes assembled by Jasmin, the generated class is not public
+        var constructor = sumClass.getConstructor();
+        var range = sumClass.getMethod("range", int.class);
+        var sum = sumClass.getMethod("sum", int[].class, int.class);
+        constructor.setAccessible(true);
+        range.setAccessible(true);
+        sum.setAccessible(true);
+
+        var instance = constructor.newInstance();
+        var values = range.invoke(instance, 300);
+        var total = sum.invoke(instance, values, 300);
+
+        // 1 + 2 + ... + 297
+        assertEquals(297 * 298 / 2, total);
+    }
+}
@@ -0,0 +1,52 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ConditionLoweringTest {
+
+    private static final String CODE = """
+            class Conditions {
+                public int foo(int n, boolean stop) {
+                    int i;
+                    i = 0;
+                    while (i < n && !stop) {
+                        if (!(i < 10)) {
+                            stop = true;
+                        } else {
+                            i = i + 1;
+                        }
+                    }
+                    return i;
+                }
+            }
+            """;
+
+    @Test
+    public void conditionsBranchDirectly() {
+        var jasminResult = TestUtils.backend(CODE, Map.of("optimize", "true"));
+        TestUtils.noErrors(jasminResult);
+
+        var code = jasminResult.getJasminCode();
+
+        // No boolean is computed to be tested again
+        assertFalse(code, code.contains("j_true"));
+        assertFalse(code, code.contains("ixor"));
+        assertTrue(code, code.contains("if_icmpge"));
+
+        jasminResult.compile();
+    }
+
+    @Test
+    public void conditionsAreComputedWithoutOptimizations() {
+        var jasminResult = TestUtils.backend(CODE);
+        TestUtils.noErrors(jasminResult);
+
+        assertTrue(jasminResult.getJasminCode().contains("j_true"));
+
+        jasminResult.compile();
+    }
+}
@@ -255,6 +255,20 @@ public class CpUtils {
         throw new RuntimeException(toMessage("Could not find OLLIR method with name '" + methodName + "'", result));
     }
 
+    /**
+     * Gets a method of an OLLIR result without errors, after building the CFGs that dataflow analyses need.
+     *
+     * @param result
+     * @param methodName
+     * @return
+     */
+    public static org.specs.comp.ollir.Method getMethodWithCfg(OllirResult result, String methodName) {
+        TestUtils.noErrors(result);
+
+        result.getOllirClass().buildCFGs();
+        return getMethod(result, methodName);
+    }
+
     public static String toString(Type ollirType) {
 
         if (ollirType instanceof BuiltinType builtinType) {
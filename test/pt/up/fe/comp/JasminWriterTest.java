@@ -0,0 +1,49 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.backend.LazyJasminResult;
+import pt.up.fe.comp2025.utils.CompilerMetrics;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class JasminWriterTest {
+
+    @Test
+    public void writtenCodeMatchesGeneratedCode() {
+        var result = TestUtils.backend(SpecsIo.getResource("pt/up/fe/comp/cp3/jasmin/control_flow/IfWhileNested.jmm"));
+
+        assertTrue(result instanceof LazyJasminResult);
+        var lazyResult = (LazyJasminResult) result;
+
+        var written = new StringWriter();
+        lazyResult.write(written);
+        var reports = lazyResult.getReports().size();
+
+        // The code is generated again, with the same reports
+        assertEquals(lazyResult.getJasminCode(), written.toString());
+        assertEquals(reports, lazyResult.getReports().size());
+        assertTrue(written.toString().contains(".limit stack"));
+    }
+
+    @Test
+    public void onlyGenerationIsMeasured() {
+        var result = TestUtils.backend(SpecsIo.getResource("pt/up/fe/comp/cp3/jasmin/control_flow/IfWhileNested.jmm"));
+
+        var metrics = CompilerMetrics.start("IfWhileNested.jmm");
+        try {
+            result.getJasminCode();
+            result.getJasminCode();
+            ((LazyJasminResult) result).write(new StringWriter());
+        } finally {
+            CompilerMetrics.stop();
+        }
+
+        // The code is kept after the first request
+        var json = CompilerMetrics.toJson(List.of(metrics));
+        assertEquals(json, 1, json.split("\"jasmin\"", -1).length - 1);
+    }
+}
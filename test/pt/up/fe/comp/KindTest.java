@@ -0,0 +1,94 @@
+package pt.up.fe.comp;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp2025.JavammParser;
+import pt.up.fe.comp2025.ast.AKindVisitor;
+import pt.up.fe.comp2025.ast.Kind;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static pt.up.fe.comp2025.ast.Kind.*;
+
+public class KindTest {
+
+    @Test
+    public void kindsMatchTheGrammar() {
+        var kinds = new HashSet<Kind>();
+
+        // Each rule and labeled alternative of Javamm.g4 has a context class in the generated parser
+        for (var context : JavammParser.class.getDeclaredClasses()) {
+            if (!ParserRuleContext.class.isAssignableFrom(context)) {
+                continue;
+            }
+
+            var kind = Kind.fromString(getNodeName(context));
+            kinds.add(kind);
+
+            var rule = context.getSuperclass();
+            if (rule == ParserRuleContext.class) {
+                assertNull(kind.toString(), kind.getRule());
+            } else {
+                assertEquals(kind.toString(), Kind.fromString(getNodeName(rule)), kind.getRule());
+            }
+        }
+
+        assertEquals(List.of(Kind.values()).size(), kinds.size());
+    }
+
+    @Test
+    public void visitsAreDispatchedByKind() {
+        var root = new JmmParserImpl().parse("""
+                class Kinds {
+                    public int foo() {
+                        return (1 + 2) * 3;
+                    }
+                }
+                """, Map.of()).getRootNode();
+        var visitor = new KindNames();
+
+        assertEquals("Binary Expr Binary Literal Literal Literal", visitor.visit(root, null).trim());
+        assertTrue(BINARY_EXPR.check(root.getDescendants(BINARY_EXPR).get(0)));
+        assertTrue(EXPR.check(root.getDescendants(BINARY_EXPR).get(0)));
+
+        // Nodes created by the optimizations are dispatched by name
+        var literal = new JmmNodeImpl(List.of("IntegerLiteral"));
+        assertEquals("Literal ", visitor.visit(literal, null));
+        assertEquals(INTEGER_LITERAL, Kind.of(literal));
+
+        // Visits added later replace the ones already cached
+        visitor.addVisit(PAREN_EXPR, (node, unused) -> "Paren ");
+        assertEquals("Paren ", visitor.visit(root.getDescendants(PAREN_EXPR).get(0), null));
+    }
+
+    private static String getNodeName(Class<?> context) {
+        var name = context.getSimpleName();
+        return name.substring(0, name.length() - "Context".length());
+    }
+
+    private static class KindNames extends AKindVisitor<Void, String> {
+
+        @Override
+        protected void buildVisitor() {
+            addVisit(BINARY_EXPR, (node, unused) -> "Binary " + visitChildren(node));
+            addVisit(EXPR, (node, unused) -> "Expr " + visitChildren(node));
+            addVisit(INTEGER_LITERAL, (node, unused) -> "Literal ");
+            setDefaultVisit((node, unused) -> visitChildren(node));
+        }
+
+        private String visitChildren(JmmNode node) {
+            var names = new StringBuilder();
+            for (var child : node.getChildren()) {
+                names.append(visit(child, null));
+            }
+
+            return names.toString();
+        }
+    }
+}
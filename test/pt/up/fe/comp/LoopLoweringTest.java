@@ -0,0 +1,71 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LoopLoweringTest {
+
+    private static final String CODE = """
+            class Loops {
+                public int sum(int[] a) {
+                    int i;
+                    int s;
+                    i = 0;
+                    s = 0;
+                    while (i < (a.length - 1)) {
+                        s = s + a[i];
+                        i = i + 1;
+                    }
+                    return s;
+                }
+            }
+            """;
+
+    @Test
+    public void loopsAreRotated() {
+        var jasminResult = TestUtils.backend(CODE, Map.of("optimize", "true"));
+        TestUtils.noErrors(jasminResult);
+
+        var code = CpUtils.getJasminMethod(jasminResult, "sum");
+        int body = code.indexOf("while0:");
+        int condition = code.indexOf("cond0:");
+        assertTrue(code, body >= 0 && condition > body);
+
+        // The length is only computed once, before the loop
+        assertTrue(code, code.indexOf("arraylength") < body);
+        assertEquals(code, 1, code.split("goto", -1).length - 1);
+        assertTrue(code, code.substring(condition).contains("if_icmplt while0"));
+
+        jasminResult.compile();
+    }
+
+    @Test
+    public void operandsAfterCallsAreNotHoisted() {
+        var jasminResult = TestUtils.backend("""
+                class Calls {
+                    public int next(int n) {
+                        return n + 1;
+                    }
+                    public int count(int[] a) {
+                        int n;
+                        n = 0;
+                        while (this.next(n) < (a.length - 1)) {
+                            n = n + 1;
+                        }
+                        return n;
+                    }
+                }
+                """, Map.of("optimize", "true"));
+        TestUtils.noErrors(jasminResult);
+
+        // The length is still computed after each call
+        var code = CpUtils.getJasminMethod(jasminResult, "count");
+        int call = code.indexOf("invokevirtual");
+        assertTrue(code, call >= 0 && code.indexOf("arraylength") > call);
+
+        jasminResult.compile();
+    }
+}
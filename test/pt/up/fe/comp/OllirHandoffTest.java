@@ -0,0 +1,68 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class OllirHandoffTest {
+
+    private static final String CODE = """
+            import io;
+
+            class Counter {
+                int last;
+
+                public int count(int[] values, int n) {
+                    int i;
+                    int total;
+                    i = 0;
+                    total = 0;
+                    while (i < n) {
+                        if (values[i] < 10 && 0 < values[i]) {
+                            total = total + values[i];
+                        } else {
+                            io.println(values[i]);
+                        }
+                        i = i + 1;
+                    }
+                    return total;
+                }
+
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    @Test
+    public void printedCodeParsesToSameClass() {
+        var semantics = TestUtils.analyse(CODE);
+        var built = TestUtils.optimize(semantics);
+        TestUtils.noErrors(built);
+
+        // The printed code goes through the OLLIR parser, the built class does not
+        var parsed = new OllirResult(semantics, built.getOllirCode(), Collections.emptyList());
+        TestUtils.noErrors(parsed);
+
+        var builtClass = built.getOllirClass();
+        var parsedClass = parsed.getOllirClass();
+        assertEquals(parsedClass.getClassName(), builtClass.getClassName());
+        assertEquals(parsedClass.getImports(), builtClass.getImports());
+        assertEquals(parsedClass.getNumFields(), builtClass.getNumFields());
+        assertEquals(parsedClass.getNumMethods(), builtClass.getNumMethods());
+
+        for (int i = 0; i < builtClass.getNumMethods(); i++) {
+            var builtMethod = builtClass.getMethod(i);
+            var parsedMethod = parsedClass.getMethod(i);
+
+            assertEquals(parsedMethod.getMethodName(), builtMethod.getMethodName());
+            assertEquals(parsedMethod.getInstructions().size(), builtMethod.getInstructions().size());
+            assertEquals(parsedMethod.getLabels().keySet(), builtMethod.getLabels().keySet());
+            assertEquals(parsedMethod.getVarTable().keySet(), builtMethod.getVarTable().keySet());
+        }
+
+        assertEquals(TestUtils.backend(parsed).getJasminCode(), TestUtils.backend(built).getJasminCode());
+    }
+}
@@ -0,0 +1,55 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ParseModeTest {
+
+    private static final String CODE = """
+            import io;
+            class Modes {
+                int[] a;
+                public int foo(int x, boolean b) {
+                    int i;
+                    i = 0;
+                    while ((i < x) && !b) {
+                        a[i] = i * 2 + 1;
+                        i = i + 1;
+                    }
+                    io.println(this.bar(a[0], new int[3]));
+                    return i;
+                }
+                public int bar(int x, int[] y) {
+                    return y.length + x;
+                }
+            }
+            """;
+
+    @Test
+    public void modesBuildTheSameTree() {
+        var parser = new JmmParserImpl();
+
+        var sll = parser.parse(CODE, Map.of());
+        var ll = parser.parse(CODE, Map.of("parseMode", "ll"));
+        TestUtils.noErrors(sll);
+        TestUtils.noErrors(ll);
+
+        assertEquals(ll.getRootNode().toTree(), sll.getRootNode().toTree());
+    }
+
+    @Test
+    public void errorsAreStillReported() {
+        var parser = new JmmParserImpl();
+
+        var result = parser.parse("class Broken { public int foo( { return 0; } }", Map.of());
+        assertNull(result.getRootNode());
+        assertFalse(result.getReports().isEmpty());
+
+        // The parser can be reused after giving up on SLL
+        TestUtils.noErrors(parser.parse(CODE, Map.of()));
+    }
+}
@@ -0,0 +1,90 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.parser.JmmParserImpl;
+import pt.up.fe.comp2025.parser.ParserCache;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ParserCacheTest {
+
+    private static final String CODE = """
+            class Cached {
+                public int foo(int x) {
+                    int[] a;
+                    a = new int[x];
+                    a[0] = x * 2 + 1;
+                    return a.length;
+                }
+            }
+            """;
+
+    @Test
+    public void warmUpFillsTheCache() {
+        ParserCache.clear();
+        assertEquals(0, ParserCache.getNumStates());
+
+        int states = ParserCache.warmUp(List.of(CODE));
+        assertTrue(states > 0);
+        assertEquals(states, ParserCache.getNumStates());
+
+        // Parsing the same code again needs no new decisions
+        TestUtils.noErrors(new JmmParserImpl().parse(CODE, Map.of()));
+        assertEquals(states, ParserCache.getNumStates());
+    }
+
+    @Test
+    public void limitEmptiesTheCache() {
+        ParserCache.clear();
+        TestUtils.noErrors(new JmmParserImpl().parse(CODE, Map.of()));
+        int states = ParserCache.getNumStates();
+
+        assertFalse(ParserCache.limit(states));
+        assertTrue(ParserCache.limit(states - 1));
+        assertEquals(0, ParserCache.getNumStates());
+
+        // The cache is built again
+        TestUtils.noErrors(new JmmParserImpl().parse(CODE, Map.of()));
+        assertTrue(ParserCache.getNumStates() > 0);
+    }
+
+    @Test
+    public void limitRestoresTheWarmUp() {
+        ParserCache.clear();
+        int states = ParserCache.warmUp(List.of(CODE));
+
+        TestUtils.noErrors(new JmmParserImpl().parse("class Other extends Cached { boolean b; }", Map.of()));
+        assertTrue(ParserCache.limit(states));
+        assertEquals(states, ParserCache.getNumStates());
+
+        // A limit smaller than the warm-up empties the cache
+        TestUtils.noErrors(new JmmParserImpl().parse("class Other extends Cached { boolean b; }", Map.of()));
+        assertTrue(ParserCache.limit(states - 1));
+        assertEquals(0, ParserCache.getNumStates());
+    }
+
+    @Test
+    public void snapshotIsRestored() {
+        ParserCache.clear();
+        ParserCache.warmUp(List.of(CODE));
+        var snapshot = ParserCache.snapshot();
+        int states = ParserCache.getNumStates();
+        assertEquals(states, snapshot.getNumStates());
+
+        // Later parses do not change the snapshot
+        TestUtils.noErrors(new JmmParserImpl().parse("class Other extends Cached { boolean b; }", Map.of()));
+        assertTrue(ParserCache.getNumStates() > states);
+        assertEquals(states, snapshot.getNumStates());
+
+        ParserCache.clear();
+        ParserCache.restore(snapshot);
+        assertEquals(states, ParserCache.getNumStates());
+
+        // The restored cache already has the decisions of the warm-up
+        TestUtils.noErrors(new JmmParserImpl().parse(CODE, Map.of()));
+        assertEquals(states, ParserCache.getNumStates());
+    }
+}
@@ -0,0 +1,93 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.backend.JvmInstruction;
+import pt.up.fe.comp2025.backend.JvmInstruction.Iinc;
+import pt.up.fe.comp2025.backend.JvmInstruction.Label;
+import pt.up.fe.comp2025.backend.JvmInstruction.Simple;
+import pt.up.fe.comp2025.backend.JvmInstruction.WithInt;
+import pt.up.fe.comp2025.backend.JvmInstruction.WithString;
+import pt.up.fe.comp2025.backend.PeepholeOptimizer;
+import pt.up.fe.comp2025.backend.PeepholeRules;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PeepholeOptimizerTest {
+
+    private static List<JvmInstruction> optimize(JvmInstruction... instructions) {
+        return new PeepholeOptimizer(PeepholeRules.defaults()).optimize(List.of(instructions));
+    }
+
+    @Test
+    public void addsBecomeIinc() {
+        var code = optimize(
+                new WithInt("iload", 5),
+                new WithInt("bipush", 1),
+                new Simple("iadd"),
+                new WithInt("istore", 5),
+                new Simple("return"));
+
+        assertEquals(List.of(new Iinc(5, 1), new Simple("return")), code);
+    }
+
+    @Test
+    public void selectionOnlyChoosesForms() {
+        var code = new PeepholeOptimizer(PeepholeRules.selection()).optimize(List.of(
+                new WithInt("iload", 1),
+                new WithString("ldc", "-1"),
+                new Simple("iadd"),
+                new WithInt("istore", 1),
+                new WithString("ldc", "300"),
+                new WithInt("istore", 4),
+                new WithString("goto", "end"),
+                new Label("end"),
+                new Simple("return")));
+
+        assertEquals(List.of(
+                new Iinc(1, -1),
+                new WithInt("sipush", 300),
+                new WithInt("istore", 4),
+                new WithString("goto", "end"),
+                new Label("end"),
+                new Simple("return")), code);
+    }
+
+    @Test
+    public void constantBranchesAreFolded() {
+        var code = optimize(
+                new Simple("iconst_0"),
+                new WithString("ifne", "then0"),
+                new Simple("iconst_0"),
+                new Simple("ireturn"),
+                new Label("then0"),
+                new Simple("iconst_1"),
+                new Simple("ireturn"));
+
+        assertEquals(List.of(new Simple("iconst_0"), new Simple("ireturn")), code);
+    }
+
+    @Test
+    public void gotosAreThreaded() {
+        var code = optimize(
+                new Simple("iload_0"),
+                new WithString("ifeq", "first"),
+                new Simple("iconst_1"),
+                new Simple("ireturn"),
+                new Label("first"),
+                new WithString("goto", "second"),
+                new Label("second"),
+                new Simple("iconst_0"),
+                new Simple("ireturn"));
+
+        assertEquals(List.of(
+                new Simple("iload_0"),
+                new WithString("ifeq", "second"),
+                new Simple("iconst_1"),
+                new Simple("ireturn"),
+                new Label("second"),
+                new Simple("iconst_0"),
+                new Simple("ireturn")), code);
+    }
+}
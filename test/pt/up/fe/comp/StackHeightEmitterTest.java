@@ -0,0 +1,71 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+import org.specs.comp.ollir.AccessModifier;
+import pt.up.fe.comp2025.backend.JasminWriter;
+import pt.up.fe.comp2025.backend.StackHeightEmitter;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class StackHeightEmitterTest {
+
+    private static StackHeightEmitter begin(StringWriter code) {
+        var out = new StackHeightEmitter(new JasminWriter(code));
+        out.beginClass("Test", "java/lang/Object");
+        out.beginMethod(AccessModifier.PUBLIC, true, "foo", "(II)Z");
+        return out;
+    }
+
+    @Test
+    public void branchesDoNotAddUp() {
+        var code = new StringWriter();
+        var out = begin(code);
+
+        // a < b, as a boolean: both constants are pushed in different paths
+        out.instruction("iload_0");
+        out.instruction("iload_1");
+        out.instruction("if_icmplt", "true");
+        out.instruction("iconst_0");
+        out.instruction("goto", "end");
+        out.label("true");
+        out.instruction("iconst_1");
+        out.label("end");
+        out.instruction("ireturn");
+        out.endMethod(100, 2);
+        out.endClass();
+
+        assertTrue(code.toString().contains(".limit stack 2"));
+    }
+
+    @Test
+    public void callsPopArguments() {
+        var code = new StringWriter();
+        var out = begin(code);
+
+        out.instruction("new", "Test");
+        out.instruction("dup");
+        out.methodInstruction("invokespecial", "Test", "<init>", "()V");
+        out.instruction("iload_0");
+        out.instruction("iload_1");
+        out.methodInstruction("invokevirtual", "Test", "bar", "(I[I)Z");
+        out.instruction("ireturn");
+        out.endMethod(0, 2);
+        out.endClass();
+
+        assertTrue(code.toString().contains(".limit stack 3"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void heightsMustMatchAtLabels() {
+        var out = begin(new StringWriter());
+
+        out.instruction("iload_0");
+        out.instruction("ifne", "end");
+        out.instruction("iconst_1");
+        out.label("end");
+        out.instruction("ireturn");
+        out.endMethod(0, 2);
+    }
+}
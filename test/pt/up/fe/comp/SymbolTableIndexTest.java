@@ -0,0 +1,47 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2025.symboltable.ScopedSymbol.SymbolKind;
+
+import static org.junit.Assert.*;
+
+public class SymbolTableIndexTest {
+
+    private static final String CODE = """
+            class Scopes {
+                int a;
+                boolean b;
+
+                public int foo(int a, int[] c) {
+                    boolean c;
+                    int d;
+                    int d;
+                    return a;
+                }
+            }
+            """;
+
+    @Test
+    public void indexMatchesDeclarations() {
+        var table = (JmmSymbolTable) TestUtils.analyse(CODE).getSymbolTable();
+        var scope = table.getScope("foo");
+
+        assertNull(table.getScope("bar"));
+
+        assertEquals(SymbolKind.PARAMETER, scope.getParameter("c").kind());
+        assertEquals(1, scope.getParameter("c").slot());
+        assertTrue(scope.getParameter("c").symbol().getType().isArray());
+
+        assertEquals(SymbolKind.LOCAL, scope.getLocal("c").kind());
+        assertEquals("boolean", scope.getLocal("c").symbol().getType().getName());
+        assertNull(scope.getLocal("a"));
+
+        // Repeated declarations resolve to the first one
+        assertEquals(1, scope.getLocal("d").slot());
+
+        assertEquals(SymbolKind.FIELD, table.getField("b").kind());
+        assertEquals(1, table.getField("b").slot());
+        assertNull(table.getField("d"));
+    }
+}
@@ -0,0 +1,40 @@
+package pt.up.fe.comp;
+
+import org.junit.Test;
+import pt.up.fe.comp2025.ast.TypeUtils;
+import pt.up.fe.comp2025.symboltable.JmmSymbolTable;
+
+import static org.junit.Assert.*;
+
+public class TypeCacheTest {
+
+    private static final String CODE = """
+            class Types {
+                public int foo(int a) {
+                    int b;
+                    b = (a + 1) * (a - 2) / (a + a);
+                    return b;
+                }
+            }
+            """;
+
+    @Test
+    public void typesAreComputedOncePerNode() {
+        var semantics = TestUtils.analyse(CODE);
+        var table = (JmmSymbolTable) semantics.getSymbolTable();
+        var expr = semantics.getRootNode().getDescendants("BinaryExpr").get(0);
+
+        // Analysis already typed the expression
+        var type = table.getCachedType(expr, "foo");
+        assertNotNull(type);
+        assertEquals("int", type.getName());
+        assertSame(type, TypeUtils.getExprType(expr, table, "foo"));
+
+        // Types depend on the method where the expression is
+        assertNull(table.getCachedType(expr, "bar"));
+
+        table.clearTypeCache();
+        assertNull(table.getCachedType(expr, "foo"));
+        assertEquals(type, TypeUtils.getExprType(expr, table, "foo"));
+    }
+}
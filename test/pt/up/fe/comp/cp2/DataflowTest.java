@@ -0,0 +1,88 @@
+package pt.up.fe.comp.cp2;
+
+import org.junit.Test;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.inst.AssignInstruction;
+import org.specs.comp.ollir.inst.Instruction;
+import org.specs.comp.ollir.inst.OpInstruction;
+import org.specs.comp.ollir.inst.ReturnInstruction;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2025.optimization.dataflow.AvailableExpressions;
+import pt.up.fe.comp2025.optimization.dataflow.ConstantPropagation;
+import pt.up.fe.comp2025.optimization.dataflow.ReachingDefinitions;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.OptionalInt;
+
+import static org.junit.Assert.*;
+
+public class DataflowTest {
+
+    private static final String BASE_PATH = "pt/up/fe/comp/cp2/optimizations/";
+
+    private static Method getMethod() {
+        var ollirResult = TestUtils.optimize(SpecsIo.getResource(BASE_PATH + "dataflow/Dataflow.jmm"));
+        return CpUtils.getMethodWithCfg(ollirResult, "foo");
+    }
+
+    private static AssignInstruction getAssign(Method method, String variable) {
+        return method.getInstructions().stream()
+                .filter(AssignInstruction.class::isInstance)
+                .map(AssignInstruction.class::cast)
+                .filter(assign -> assign.getDest() instanceof Operand dest && dest.getName().equals(variable))
+                .reduce((first, second) -> second)
+                .orElseThrow();
+    }
+
+    private static Instruction getReturn(Method method) {
+        return method.getInstructions().stream().filter(ReturnInstruction.class::isInstance).findFirst().orElseThrow();
+    }
+
+    @Test
+    public void reachingDefinitions() {
+        var method = getMethod();
+        var reaching = new ReachingDefinitions(method);
+
+        // Both the initialization and the increment of 'i' reach the end of the loop
+        var definitions = reaching.getReaching(getReturn(method)).stream()
+                .map(ReachingDefinitions::getDefinedVariable)
+                .filter("i"::equals)
+                .count();
+        assertEquals(2, definitions);
+
+        var increment = getAssign(method, "i");
+        assertEquals(1, reaching.getReaching(increment).stream()
+                .map(ReachingDefinitions::getDefinedVariable)
+                .filter("a"::equals)
+                .count());
+    }
+
+    @Test
+    public void availableExpressions() {
+        var method = getMethod();
+        var available = new AvailableExpressions(method);
+
+        // 'a * 3' was computed before the loop and 'a' never changes
+        var product = getAssign(method, "c");
+        assertTrue(available.isAvailable(product, (OpInstruction) product.getRhs()));
+
+        // 'i + 1' uses the variable it is assigned to
+        var increment = getAssign(method, "i");
+        assertFalse(available.isAvailable(increment, (OpInstruction) increment.getRhs()));
+    }
+
+    @Test
+    public void constantPropagation() {
+        var method = getMethod();
+        var constants = new ConstantPropagation(method);
+
+        var ret = getReturn(method);
+        assertEquals(OptionalInt.of(2), constants.getConstant(ret, "a"));
+        assertEquals(OptionalInt.of(6), constants.getConstant(ret, "b"));
+        assertEquals(OptionalInt.empty(), constants.getConstant(ret, "i"));
+        assertEquals(OptionalInt.empty(), constants.getConstant(ret, "n"));
+        assertTrue(constants.getIterations() > method.getInstructions().size());
+    }
+}
@@ -0,0 +1,57 @@
+package pt.up.fe.comp.cp2;
+
+import org.junit.Test;
+import org.specs.comp.ollir.Method;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2025.optimization.GraphColoringAllocator;
+import pt.up.fe.comp2025.optimization.InterferenceGraph;
+import pt.up.fe.comp2025.optimization.dataflow.Liveness;
+import pt.up.fe.specs.util.SpecsIo;
+
+import static org.junit.Assert.*;
+
+public class GraphColoringAllocatorTest {
+
+    private static final String BASE_PATH = "pt/up/fe/comp/cp2/optimizations/";
+
+    private static Method getMethod() {
+        var ollirResult = TestUtils.optimize(SpecsIo.getResource(BASE_PATH + "reg_alloc/GraphColoring.jmm"));
+        return CpUtils.getMethodWithCfg(ollirResult, "foo");
+    }
+
+    private static InterferenceGraph getGraph() {
+        var method = getMethod();
+        return InterferenceGraph.build(method, new Liveness(method));
+    }
+
+    @Test
+    public void coalescesCopies() {
+        var graph = getGraph();
+        var allocator = new GraphColoringAllocator(graph, 3).allocate(true);
+
+        // The copies are not live at the same time, so all of them share the register of 'a'
+        int a = allocator.getColor(graph.getIndex("a"));
+        assertEquals(a, allocator.getColor(graph.getIndex("b")));
+        assertEquals(a, allocator.getColor(graph.getIndex("c")));
+        assertNotEquals(a, allocator.getColor(graph.getIndex("i")));
+        assertTrue(allocator.getNumCoalesced() >= 2);
+        assertEquals(0, allocator.getNumSpilled());
+    }
+
+    @Test
+    public void spillsWhenColorsAreNotEnough() {
+        var graph = getGraph();
+        var allocator = new GraphColoringAllocator(graph, 2).allocate(true);
+
+        // 'a', 'i' and the loop condition are live at the same time, one of them gets a color after the first two
+        var a = allocator.getColor(graph.getIndex("a"));
+        var i = allocator.getColor(graph.getIndex("i"));
+        var condition = allocator.getColor(graph.getIndex("tmp0"));
+        assertNotEquals(a, i);
+        assertNotEquals(a, condition);
+        assertNotEquals(i, condition);
+        assertEquals(1, allocator.getNumSpilled());
+        assertEquals(3, allocator.getNumColors());
+    }
+}
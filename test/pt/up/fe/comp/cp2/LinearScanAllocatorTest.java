@@ -0,0 +1,48 @@
+package pt.up.fe.comp.cp2;
+
+import org.junit.Test;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2025.ConfigOptions;
+import pt.up.fe.comp2025.optimization.LinearScanAllocator;
+import pt.up.fe.comp2025.optimization.dataflow.Liveness;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LinearScanAllocatorTest {
+
+    private static final String BASE_PATH = "pt/up/fe/comp/cp2/optimizations/";
+
+    static OllirResult getOllirResult(Map<String, String> config) {
+        return TestUtils.optimize(SpecsIo.getResource(BASE_PATH + "reg_alloc/LinearScan.jmm"), config);
+    }
+
+    @Test
+    public void reusesRegistersOfEndedIntervals() {
+        var method = CpUtils.getMethodWithCfg(getOllirResult(Map.of()), "foo");
+
+        var allocator = new LinearScanAllocator(method, new Liveness(method), Integer.MAX_VALUE).allocate();
+        var colors = allocator.getColors();
+
+        // Each copy ends the interval of its source, 'c' and 'i' are live at the same time
+        assertEquals(colors.get("a"), colors.get("b"));
+        assertEquals(colors.get("a"), colors.get("c"));
+        assertNotEquals(colors.get("c"), colors.get("i"));
+        assertEquals(0, allocator.getNumSpilled());
+    }
+
+    @Test
+    public void linearMode() {
+        var ollirResult = getOllirResult(Map.of(ConfigOptions.getRegister(), "linear"));
+        TestUtils.noErrors(ollirResult);
+
+        var varTable = CpUtils.getMethod(ollirResult, "foo").getVarTable();
+        assertEquals(0, varTable.get("this").getVirtualReg());
+        assertEquals(1, varTable.get("n").getVirtualReg());
+        assertEquals(varTable.get("a").getVirtualReg(), varTable.get("c").getVirtualReg());
+    }
+}
@@ -0,0 +1,40 @@
+package pt.up.fe.comp.cp2;
+
+import org.junit.Test;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2025.optimization.dataflow.Liveness;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.BitSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class LivenessTest {
+
+    private static final String BASE_PATH = "pt/up/fe/comp/cp2/optimizations/";
+
+    private static Set<String> names(Liveness liveness, BitSet variables) {
+        return variables.stream().mapToObj(liveness::getVariable).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void straightLineCode() {
+        var ollirResult = TestUtils.optimize(SpecsIo.getResource(BASE_PATH + "dataflow/Liveness.jmm"));
+        var method = CpUtils.getMethodWithCfg(ollirResult, "foo");
+
+        var liveness = new Liveness(method);
+        var instructions = method.getInstructions();
+        assertEquals(3, instructions.size());
+
+        assertEquals(Set.of("a"), names(liveness, liveness.getLiveIn(instructions.get(0))));
+        assertEquals(Set.of("b"), names(liveness, liveness.getLiveOut(instructions.get(0))));
+        assertEquals(Set.of("c"), names(liveness, liveness.getLiveOut(instructions.get(1))));
+        assertEquals(Set.of(), names(liveness, liveness.getLiveOut(instructions.get(2))));
+
+        // Without loops, visiting in postorder needs a single pass
+        assertEquals(instructions.size(), liveness.getIterations());
+    }
+}
@@ -0,0 +1,48 @@
+package pt.up.fe.comp.cp2;
+
+import org.junit.Test;
+import org.specs.comp.ollir.Descriptor;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.inst.AssignInstruction;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2025.optimization.TemporaryReuse;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TemporaryReuseTest {
+
+    private static final String BASE_PATH = "pt/up/fe/comp/cp2/optimizations/";
+
+    @Test
+    public void reusesTemporaries() {
+        var ollirResult = TestUtils.optimize(SpecsIo.getResource(BASE_PATH + "temporaries/TemporaryReuse.jmm"));
+        var method = CpUtils.getMethodWithCfg(ollirResult, "foo");
+        var varTable = method.getVarTable();
+
+        var temporaries = new HashSet<>(varTable.keySet());
+        temporaries.removeAll(Set.of("this", "a", "b", "x", "y"));
+        assertTrue(temporaries.size() > 2);
+
+        // Only two temporaries are live at the same time
+        int removed = new TemporaryReuse(method, temporaries).apply();
+        assertEquals(temporaries.size() - 2, removed);
+        assertEquals(5 + 2, varTable.size());
+
+        // Every destination is still in the var table, and registers have no gaps
+        for (var inst : method.getInstructions()) {
+            if (inst instanceof AssignInstruction assign) {
+                assertTrue(varTable.containsKey(((Operand) assign.getDest()).getName()));
+            }
+        }
+        var registers = varTable.values().stream().map(Descriptor::getVirtualReg).collect(Collectors.toSet());
+        assertEquals(varTable.size(), registers.size());
+        assertEquals(varTable.size() - 1, (int) registers.stream().max(Integer::compare).orElseThrow());
+        assertEquals(0, varTable.get("this").getVirtualReg());
+    }
+}
@@ -0,0 +1,33 @@
+package pt.up.fe.comp.cp3;
+
+import org.junit.Test;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.TestUtils;
+
+import static org.junit.Assert.*;
+
+public class IincSelectionTest {
+
+    @Test
+    public void reusedTemporariesAreNotIncremented() {
+        // The second product is computed into the temporary of the first one
+        var jasminResult = JasminOptimizationsTest.getJasminResultOpt("InstSelection_iinc_reused_temp.jmm");
+        TestUtils.noErrors(jasminResult);
+
+        var code = CpUtils.getJasminMethod(jasminResult, "foo");
+        assertFalse(code, code.contains("iinc"));
+        CpUtils.runJasmin(jasminResult, "30");
+    }
+
+    @Test
+    public void onlyAdditionsBecomeIinc() {
+        var jasminResult = JasminOptimizationsTest.getJasminResult("InstSelection_iinc_only_add.jmm");
+        TestUtils.noErrors(jasminResult);
+
+        var code = CpUtils.getJasminMethod(jasminResult, "foo");
+        assertTrue(code, code.contains("imul"));
+        assertTrue(code, code.contains("iinc 1 -1"));
+
+        jasminResult.compile();
+    }
+}